@@ -3,9 +3,11 @@ package com.adoption.auth;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = {"com.adoption.auth", "com.adoption.common"})
 @EnableDiscoveryClient  // 开启 Eureka 注册
+@EnableScheduling  // 孤儿上传文件回收（UploadGarbageCollector）
 public class AuthServiceApplication {
 
     public static void main(String[] args) {
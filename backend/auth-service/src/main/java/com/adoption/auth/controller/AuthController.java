@@ -86,13 +86,15 @@ public class AuthController {
     /**
      * 查询用户列表（分页）
      * GET /auth/users?page=1&pageSize=10
+     * GET /auth/users?cursor=&pageSize=10（游标分页，第一页传空游标，之后传上一页返回的 nextCursor）
      * 说明：仅超级管理员可访问
      */
     @GetMapping("/users")
     public ApiResponse<Map<String, Object>> getUserList(
             @RequestParam(value = "page", defaultValue = "1") int page,
-            @RequestParam(value = "pageSize", defaultValue = "10") int pageSize) {
-        return authService.getUserList(page, pageSize);
+            @RequestParam(value = "pageSize", defaultValue = "10") int pageSize,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return authService.getUserList(page, pageSize, cursor);
     }
 
     /**
@@ -105,6 +107,16 @@ public class AuthController {
         return authService.getUserById(userId);
     }
 
+    /**
+     * 根据用户ID列表批量获取用户基本信息
+     * GET /auth/users/batch?ids=1,2,3
+     * 说明：用于跨服务调用（如帖子列表填充作者），只返回 id、username、avatarUrl
+     */
+    @GetMapping("/users/batch")
+    public ApiResponse<List<Map<String, Object>>> getUsersByIds(@RequestParam("ids") List<Long> userIds) {
+        return authService.getUsersByIds(userIds);
+    }
+
     /**
      * 删除用户角色
      * DELETE /auth/roles/remove
@@ -210,6 +222,7 @@ public class AuthController {
             if (updateResult.getCode() == 200) {
                 Map<String, Object> result = updateResult.getData();
                 result.put("avatarUrl", fileInfo.getUrl()); // 返回完整URL
+                result.put("avatarThumbnailUrl", fileInfo.getVariantUrls().getOrDefault("thumb", fileInfo.getUrl())); // 缩略图URL
                 return ApiResponse.success(result);
             }
 
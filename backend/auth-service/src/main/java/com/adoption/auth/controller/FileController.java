@@ -1,18 +1,39 @@
 package com.adoption.auth.controller;
 
 import com.adoption.common.service.FileService;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.http.HttpHeaders;
+import com.adoption.common.service.HotFileCache;
+import com.adoption.common.util.FileUtils;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
-import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 文件访问控制器
  * 提供文件下载和访问功能
+ *
+ * 响应携带强 ETag、Last-Modified 和 Accept-Ranges: bytes：
+ * - If-None-Match / If-Modified-Since 命中时返回 304，不再传输文件内容
+ * - Range 请求返回 206 分段内容（多段时为 multipart/byteranges），视频可以拖动进度条
+ * 以上由 Spring MVC 对 ResponseEntity&lt;Resource&gt; 的处理完成；FileSystemResource 基于 FileChannel，
+ * 分段读取时直接定位到起始位置，不会读取跳过的部分
+ *
+ * 缩略图等衍生图是异步生成的，尚未生成（或原图太小不需要生成）时返回原图，且不允许缓存，生成后客户端即可拿到衍生图
+ *
+ * 不超过 file.cache.max-file-size 的热点文件（头像、封面、缩略图）从堆外内存缓存返回，不再打开文件，见 HotFileCache
+ *
+ * 使用对象存储（file.storage.type=s3）时返回 302 跳转到预签名URL，客户端直接从对象存储下载，
+ * 数据库中保存的 /files/** 地址保持不变
  */
 @RestController
 @RequestMapping("/files")
@@ -29,7 +50,7 @@ public class FileController {
      * 例如：GET /files/user/2025-11-07/d7a9f967-214b-428f-9cd9-6d39dde17f6a.png
      */
     @GetMapping("/**")
-    public ResponseEntity<InputStreamResource> getFile(HttpServletRequest request) {
+    public ResponseEntity<Resource> getFile(HttpServletRequest request) {
         try {
             // 从请求路径中提取相对路径
             // 请求路径格式：/files/user/2025-11-07/filename.png
@@ -39,18 +60,53 @@ public class FileController {
             // 移除 /files 前缀
             if (requestPath.startsWith("/files/")) {
                 String relativePath = requestPath.substring(7); // 移除 "/files/"
+                // .tmp 临时文件、.meta 元数据等内部文件不对外提供
+                if (!FileUtils.isPublicPath(relativePath)) {
+                    return ResponseEntity.notFound().build();
+                }
+                CacheControl cacheControl = CacheControl.maxAge(3600, TimeUnit.SECONDS).cachePublic();
 
-                // 读取文件
-                InputStream inputStream = fileService.readFile(relativePath);
+                // 衍生图不存在时回退到原图
+                HotFileCache.Entry cached = fileService.getCachedFile(relativePath);
+                String original = FileUtils.originalOfDerivative(relativePath);
+                if (cached == null && original != null && !fileService.fileExists(relativePath)) {
+                    relativePath = original;
+                    cacheControl = CacheControl.noCache();
+                    cached = fileService.getCachedFile(relativePath);
+                }
+
+                if (cached != null) {
+                    String filename = relativePath.substring(relativePath.lastIndexOf('/') + 1);
+                    return ResponseEntity.ok()
+                            .contentType(MediaType.parseMediaType(FileUtils.getContentType(filename)))
+                            .cacheControl(cacheControl)
+                            .eTag(FileUtils.etag(cached.getSize(), cached.getLastModified()))
+                            .lastModified(cached.getLastModified())
+                            .body(cached.asResource(filename));
+                }
+
+                String presignedUrl = fileService.getPresignedUrl(relativePath);
+                if (presignedUrl != null) {
+                    // 预签名URL会过期，跳转本身不允许缓存
+                    return ResponseEntity.status(HttpStatus.FOUND)
+                            .location(URI.create(presignedUrl))
+                            .cacheControl(CacheControl.noStore())
+                            .build();
+                }
+
+                Path filePath = fileService.getFilePath(relativePath);
+                BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+                long lastModified = attributes.lastModifiedTime().toMillis();
 
                 // 获取文件类型
-                String filename = relativePath.substring(relativePath.lastIndexOf('/') + 1);
-                String contentType = getContentType(filename);
+                String contentType = FileUtils.getContentType(filePath.getFileName().toString());
 
                 return ResponseEntity.ok()
                         .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CACHE_CONTROL, "public, max-age=3600")
-                        .body(new InputStreamResource(inputStream));
+                        .cacheControl(cacheControl)
+                        .eTag(FileUtils.etag(attributes.size(), lastModified))
+                        .lastModified(lastModified)
+                        .body(new FileSystemResource(filePath));
             }
 
             return ResponseEntity.notFound().build();
@@ -58,30 +114,4 @@ public class FileController {
             return ResponseEntity.notFound().build();
         }
     }
-
-    private String getContentType(String filename) {
-        if (filename == null || filename.isEmpty()) {
-            return "application/octet-stream";
-        }
-
-        String extension = filename.substring(filename.lastIndexOf('.') + 1).toLowerCase();
-        switch (extension) {
-            case "jpg":
-            case "jpeg":
-                return "image/jpeg";
-            case "png":
-                return "image/png";
-            case "gif":
-                return "image/gif";
-            case "webp":
-                return "image/webp";
-            case "pdf":
-                return "application/pdf";
-            case "mp4":
-                return "video/mp4";
-            default:
-                return "application/octet-stream";
-        }
-    }
 }
-
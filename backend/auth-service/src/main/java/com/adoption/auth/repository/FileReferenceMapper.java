@@ -0,0 +1,37 @@
+package com.adoption.auth.repository;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 上传文件引用查询（供 UploadGarbageCollector 使用）
+ *
+ * 各服务共用同一个数据库，保存文件URL的字段分布在多个服务的表中：
+ * user_account.avatar_url、pet.cover_url、pet_feedback.media_urls、post.media_urls、
+ * org.license_url、adoption_doc.url；新增保存文件URL的字段时需要同步加到这里，否则其文件会被当成孤儿删除
+ * （先用 dry-run 核对日志，见 UploadGarbageCollector）
+ *
+ * 帖子正文是纯文本，发帖页上传的图片、视频只保存在 media_urls 中，因此不查询 post.content
+ * （正文是大字段，按目录 LIKE 时每个目录都要把全部帖子正文扫描一遍）
+ */
+@Mapper
+public interface FileReferenceMapper {
+
+    /**
+     * 查询引用了某个上传目录下文件的全部字段值
+     * @param dir 上传目录相对路径（如 community/2025-11-07）
+     * @return 包含该目录路径的字段值（URL 或 JSON 数组文本）
+     */
+    @Select("SELECT avatar_url FROM user_account WHERE avatar_url LIKE CONCAT('%', #{dir}, '/%') " +
+            "UNION ALL SELECT cover_url FROM pet WHERE cover_url LIKE CONCAT('%', #{dir}, '/%') " +
+            "UNION ALL SELECT CAST(media_urls AS CHAR) FROM pet_feedback " +
+            "WHERE CAST(media_urls AS CHAR) LIKE CONCAT('%', #{dir}, '/%') " +
+            "UNION ALL SELECT CAST(media_urls AS CHAR) FROM post " +
+            "WHERE CAST(media_urls AS CHAR) LIKE CONCAT('%', #{dir}, '/%') " +
+            "UNION ALL SELECT license_url FROM org WHERE license_url LIKE CONCAT('%', #{dir}, '/%') " +
+            "UNION ALL SELECT url FROM adoption_doc WHERE url LIKE CONCAT('%', #{dir}, '/%')")
+    List<String> findReferencesUnder(@Param("dir") String dir);
+}
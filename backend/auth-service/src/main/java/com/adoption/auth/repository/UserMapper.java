@@ -16,16 +16,32 @@ public interface UserMapper {
             "FROM user_account WHERE id = #{id}")
     UserAccount findById(Long id);
 
+    @Select({
+        "<script>",
+        "SELECT id, username, avatar_url AS avatarUrl FROM user_account WHERE id IN ",
+        "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+        "</script>"
+    })
+    List<UserAccount> findByIds(@Param("ids") List<Long> ids);
+
     @Insert("INSERT INTO user_account (username, email, phone, password_hash, status, created_at, updated_at) " +
             "VALUES (#{username}, #{email}, #{phone}, #{passwordHash}, 'ACTIVE', NOW(), NOW())")
     @Options(useGeneratedKeys = true, keyProperty = "id")
     void insert(UserAccount user);
 
-    @Select("SELECT id, username, email, phone, avatar_url AS avatarUrl, status, created_at AS createdAt " +
-            "FROM user_account " +
-            "ORDER BY created_at DESC " +
-            "LIMIT #{limit} OFFSET #{offset}")
-    List<UserAccount> findAll(@Param("offset") int offset, @Param("limit") int limit);
+    @Select({
+        "<script>",
+        "SELECT id, username, email, phone, avatar_url AS avatarUrl, status, created_at AS createdAt ",
+        "FROM user_account ",
+        "<if test='cursorId != null'> WHERE created_at &lt; #{cursorTime} OR (created_at = #{cursorTime} AND id &lt; #{cursorId}) </if>",
+        "ORDER BY created_at DESC, id DESC ",
+        "LIMIT #{limit} OFFSET #{offset}",
+        "</script>"
+    })
+    List<UserAccount> findAll(@Param("cursorTime") String cursorTime,
+                              @Param("cursorId") Long cursorId,
+                              @Param("offset") int offset,
+                              @Param("limit") int limit);
 
     @Select("SELECT COUNT(*) FROM user_account")
     int countAll();
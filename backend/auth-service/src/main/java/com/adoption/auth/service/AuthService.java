@@ -5,6 +5,7 @@ import com.adoption.auth.model.UserAccount;
 import com.adoption.auth.repository.UserMapper;
 import com.adoption.auth.repository.UserRoleMapper;
 import com.adoption.common.api.ApiResponse;
+import com.adoption.common.api.PageCursor;
 import com.adoption.common.constant.RoleEnum;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
@@ -149,11 +150,27 @@ public class AuthService {
 
     /**
      * 查询用户列表（分页）
+     * cursor 不为 null 时使用游标分页（见 PageCursor）：按上一页最后一行定位，不统计总数，返回 nextCursor
      */
-    public ApiResponse<Map<String, Object>> getUserList(int page, int pageSize) {
-        int offset = (page - 1) * pageSize;
-        List<UserAccount> users = userMapper.findAll(offset, pageSize);
-        int total = userMapper.countAll();
+    public ApiResponse<Map<String, Object>> getUserList(int page, int pageSize, String cursor) {
+        PageCursor pageCursor;
+        try {
+            pageCursor = PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(400, "无效的分页游标");
+        }
+        List<UserAccount> users;
+        Integer total = null;
+        String nextCursor = null;
+        if (cursor != null) {
+            users = userMapper.findAll(pageCursor != null ? pageCursor.getCreatedAt() : null,
+                    pageCursor != null ? pageCursor.getId() : null, 0, pageSize + 1);
+            nextCursor = PageCursor.next(users, pageSize, UserAccount::getCreatedAt, UserAccount::getId);
+        } else {
+            int offset = (page - 1) * pageSize;
+            users = userMapper.findAll(null, null, offset, pageSize);
+            total = userMapper.countAll();
+        }
 
         // 为每个用户查询角色
         List<Map<String, Object>> userList = new ArrayList<>();
@@ -171,8 +188,12 @@ public class AuthService {
 
         Map<String, Object> result = new HashMap<>();
         result.put("list", userList);
-        result.put("total", total);
-        result.put("page", page);
+        if (cursor != null) {
+            result.put("nextCursor", nextCursor);
+        } else {
+            result.put("total", total);
+            result.put("page", page);
+        }
         result.put("pageSize", pageSize);
 
         return ApiResponse.success(result);
@@ -271,6 +292,28 @@ public class AuthService {
         return ApiResponse.success(result);
     }
 
+    /**
+     * 批量获取用户基本信息（公开字段），一次最多 200 个
+     */
+    public ApiResponse<List<Map<String, Object>>> getUsersByIds(List<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return ApiResponse.success(new ArrayList<>());
+        }
+        if (userIds.size() > 200) {
+            return ApiResponse.error(400, "一次最多查询200个用户");
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (UserAccount user : userMapper.findByIds(userIds)) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("id", user.getId());
+            item.put("username", user.getUsername());
+            item.put("avatarUrl", user.getAvatarUrl());
+            result.add(item);
+        }
+        return ApiResponse.success(result);
+    }
+
     /**
      * 更新用户信息（不包括密码）
      */
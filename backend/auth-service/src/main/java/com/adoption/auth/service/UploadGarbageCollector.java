@@ -0,0 +1,291 @@
+package com.adoption.auth.service;
+
+import com.adoption.auth.repository.FileReferenceMapper;
+import com.adoption.common.service.ContentAddressedStore;
+import com.adoption.common.service.FileService;
+import com.adoption.common.storage.FileStorage;
+import com.adoption.common.storage.LocalFileStorage;
+import com.adoption.common.util.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 孤儿上传文件回收
+ *
+ * 上传接口先保存文件再由前端把URL提交到帖子、材料、机构等业务数据中，用户放弃提交时文件不会被任何数据引用，
+ * 一直留在上传目录里。本任务定期扫描按日期分区的上传目录（category/yyyy-MM-dd），
+ * 对超过宽限期（grace-days）的目录按目录批量查询引用（见 FileReferenceMapper），删除没有被引用的文件
+ *
+ * - 增量进行：每次只处理 dirs-per-run 个目录，处理进度保存在 Redis，下次从上次停下的目录继续，扫完一轮后从头开始
+ * - 限速：每删除一个文件休眠 throttle-millis，避免和线上文件读写争抢磁盘
+ * - 多实例部署时通过 Redis 锁保证同一时刻只有一个实例在回收
+ * - 删除走 FileService.deleteFile，衍生图和热点缓存一并清理；原图已不存在的衍生图直接删除；目录删空后删除目录
+ * - 去重存储（blobs）由引用计数管理，不在此回收；上传临时目录中超过宽限期的残留文件（进程中途退出）一并清理
+ * - 只支持本地存储；对象存储请使用存储桶的生命周期规则
+ *
+ * 是否为孤儿完全取决于 FileReferenceMapper 中手工维护的字段列表，漏掉的字段其文件会被永久删除。
+ * 默认 dry-run 只记录 “孤儿文件（dry-run，未删除）” 日志；上线后先核对这些日志，确认没有仍在使用的文件，
+ * 再把 file.gc.dry-run 改为 false；新增保存文件URL的字段后同样先回到 dry-run 核对
+ */
+@Service
+public class UploadGarbageCollector {
+    private static final Logger log = LoggerFactory.getLogger(UploadGarbageCollector.class);
+
+    private static final String LOCK_KEY = "file:gc:lock";
+    private static final String CURSOR_KEY = "file:gc:cursor";
+    private static final DateTimeFormatter DATE_DIR = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private final FileStorage storage;
+    private final FileService fileService;
+    private final FileReferenceMapper fileReferenceMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Value("${file.gc.enabled:false}")
+    private boolean enabled;
+
+    @Value("${file.gc.grace-days:7}") // 上传后多少天仍未被引用才视为孤儿
+    private int graceDays;
+
+    @Value("${file.gc.dirs-per-run:20}")
+    private int dirsPerRun;
+
+    @Value("${file.gc.throttle-millis:20}")
+    private long throttleMillis;
+
+    @Value("${file.gc.dry-run:true}") // 只记录日志，不删除
+    private boolean dryRun;
+
+    public UploadGarbageCollector(FileStorage storage, FileService fileService,
+                                  FileReferenceMapper fileReferenceMapper,
+                                  StringRedisTemplate stringRedisTemplate) {
+        this.storage = storage;
+        this.fileService = fileService;
+        this.fileReferenceMapper = fileReferenceMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    @Scheduled(initialDelayString = "${file.gc.initial-delay-ms:300000}", fixedDelayString = "${file.gc.interval-ms:600000}")
+    public void run() {
+        if (!enabled || !(storage instanceof LocalFileStorage)) {
+            return;
+        }
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(LOCK_KEY, instanceId, Duration.ofHours(1));
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+        try {
+            collect(((LocalFileStorage) storage).getRoot());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("孤儿文件回收失败", e);
+        } finally {
+            if (instanceId.equals(stringRedisTemplate.opsForValue().get(LOCK_KEY))) {
+                stringRedisTemplate.delete(LOCK_KEY);
+            }
+        }
+    }
+
+    private void collect(Path root) throws IOException, InterruptedException {
+        LocalDate cutoff = LocalDate.now().minusDays(graceDays);
+        List<String> dirs = listDateDirs(root, cutoff);
+        if (dirs.isEmpty()) {
+            return;
+        }
+
+        // 从上次处理到的目录之后继续
+        String cursor = stringRedisTemplate.opsForValue().get(CURSOR_KEY);
+        int start = 0;
+        if (cursor != null) {
+            int index = Collections.binarySearch(dirs, cursor);
+            start = index >= 0 ? index + 1 : -index - 1;
+            if (start >= dirs.size()) {
+                start = 0;
+            }
+        }
+        int end = Math.min(start + dirsPerRun, dirs.size());
+
+        long startTime = System.currentTimeMillis();
+        int deleted = 0;
+        for (int i = start; i < end; i++) {
+            deleted += collectDir(root, dirs.get(i));
+            stringRedisTemplate.opsForValue().set(CURSOR_KEY, dirs.get(i));
+        }
+        if (end == dirs.size()) {
+            stringRedisTemplate.delete(CURSOR_KEY);
+        }
+        deleted += cleanTempFiles(root);
+
+        log.info("孤儿文件回收完成: 目录 {}/{}, 删除 {} 个文件{}, 耗时 {}ms",
+                end - start, dirs.size(), deleted, dryRun ? "（dry-run）" : "", System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * 列出早于 cutoff 的日期目录，按字典序（即类别、日期）排序
+     */
+    private List<String> listDateDirs(Path root, LocalDate cutoff) throws IOException {
+        List<String> dirs = new ArrayList<>();
+        try (DirectoryStream<Path> categories = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path category : categories) {
+                String categoryName = category.getFileName().toString();
+                if (categoryName.startsWith(".") || categoryName.equals(ContentAddressedStore.BLOB_DIR)) {
+                    continue;
+                }
+                try (DirectoryStream<Path> dates = Files.newDirectoryStream(category, Files::isDirectory)) {
+                    for (Path date : dates) {
+                        String dateName = date.getFileName().toString();
+                        if (isBefore(dateName, cutoff)) {
+                            dirs.add(categoryName + "/" + dateName);
+                        }
+                    }
+                }
+            }
+        }
+        Collections.sort(dirs);
+        return dirs;
+    }
+
+    private static boolean isBefore(String dateName, LocalDate cutoff) {
+        try {
+            return LocalDate.parse(dateName, DATE_DIR).isBefore(cutoff);
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 回收一个日期目录
+     * @param dir 目录相对路径（如 community/2025-11-07）
+     * @return 删除的文件数
+     */
+    private int collectDir(Path root, String dir) throws IOException, InterruptedException {
+        Path dirPath = root.resolve(dir);
+        Set<String> names = new HashSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dirPath, Files::isRegularFile)) {
+            for (Path file : files) {
+                names.add(file.getFileName().toString());
+            }
+        }
+
+        long graceMillis = Duration.ofDays(graceDays).toMillis();
+        Set<String> referenced = referencedNames(dir);
+        int deleted = 0;
+        for (String name : names) {
+            String relativePath = dir + "/" + name;
+            String original = FileUtils.originalOfDerivative(relativePath);
+            boolean orphan;
+            if (original != null) {
+                // 衍生图随原图删除，只处理原图已经不存在的
+                orphan = !names.contains(original.substring(dir.length() + 1));
+            } else {
+                orphan = !referenced.contains(name);
+            }
+            if (!orphan || !isOlderThan(dirPath.resolve(name), graceMillis)) {
+                continue;
+            }
+
+            if (dryRun) {
+                log.info("孤儿文件（dry-run，未删除）: {}", relativePath);
+            } else {
+                fileService.deleteFile(relativePath);
+                log.debug("删除孤儿文件: {}", relativePath);
+            }
+            deleted++;
+            Thread.sleep(throttleMillis);
+        }
+
+        if (!dryRun) {
+            try {
+                Files.deleteIfExists(dirPath);
+            } catch (DirectoryNotEmptyException e) {
+                // 目录中仍有被引用的文件
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * 查询该目录下被业务数据引用的文件名
+     * 字段值可能是完整URL、相对路径或 JSON 数组，这里从中截取目录路径之后的文件名
+     */
+    private Set<String> referencedNames(String dir) {
+        String prefix = dir + "/";
+        Set<String> names = new HashSet<>();
+        for (String value : fileReferenceMapper.findReferencesUnder(dir)) {
+            if (value == null) {
+                continue;
+            }
+            int from = value.indexOf(prefix);
+            while (from >= 0) {
+                int begin = from + prefix.length();
+                int endIndex = begin;
+                while (endIndex < value.length() && isFilenameChar(value.charAt(endIndex))) {
+                    endIndex++;
+                }
+                if (endIndex > begin) {
+                    names.add(value.substring(begin, endIndex));
+                }
+                from = value.indexOf(prefix, endIndex);
+            }
+        }
+        return names;
+    }
+
+    private static boolean isFilenameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '.' || c == '-' || c == '_';
+    }
+
+    private static boolean isOlderThan(Path file, long millis) throws IOException {
+        try {
+            return System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis() > millis;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 清理上传中途退出残留的临时文件
+     */
+    private int cleanTempFiles(Path root) throws IOException {
+        Path tempDir = root.resolve(LocalFileStorage.TEMP_DIR);
+        if (!Files.isDirectory(tempDir)) {
+            return 0;
+        }
+        long graceMillis = Duration.ofDays(graceDays).toMillis();
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(tempDir, Files::isRegularFile)) {
+            for (Path file : files) {
+                if (isOlderThan(file, graceMillis)) {
+                    if (!dryRun) {
+                        Files.deleteIfExists(file);
+                    }
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+}
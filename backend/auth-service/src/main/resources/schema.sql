@@ -7,9 +7,13 @@ CREATE TABLE IF NOT EXISTS user_account (
                                             avatar_url VARCHAR(500),
                                             status ENUM('ACTIVE','BANNED') DEFAULT 'ACTIVE' NOT NULL,
                                             created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
-                                            updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+                                            updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                                            INDEX idx_user_account_created (created_at, id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
+-- 如果表已存在，需要执行以下 SQL 增加游标分页索引（按 (created_at, id) 定位）：
+-- ALTER TABLE user_account ADD INDEX idx_user_account_created (created_at, id);
+
 CREATE TABLE IF NOT EXISTS user_role (
                                          id BIGINT PRIMARY KEY AUTO_INCREMENT,
                                          user_id BIGINT NOT NULL,
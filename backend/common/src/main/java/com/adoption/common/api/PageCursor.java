@@ -0,0 +1,84 @@
+package com.adoption.common.api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页（keyset pagination）的游标
+ *
+ * 列表按 (created_at, id) 排序时，下一页从上一页最后一行之后开始：
+ * WHERE (created_at < #{cursorTime} OR (created_at = #{cursorTime} AND id < #{cursorId}))（倒序，正序方向相反），
+ * 配合 (..., created_at, id) 索引直接定位，不再扫描并丢弃前面的 OFFSET 行，翻到多深代价都相同
+ *
+ * 游标对客户端不透明（Base64 编码的 "createdAt|id"），客户端只需把上一页返回的 nextCursor 原样带回
+ */
+public final class PageCursor {
+    private static final String SEPARATOR = "|";
+
+    private final String createdAt;
+    private final Long id;
+
+    private PageCursor(String createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * 游标位置行的创建时间（yyyy-MM-dd HH:mm:ss）
+     */
+    public String getCreatedAt() { return createdAt; }
+
+    /**
+     * 游标位置行的ID
+     */
+    public Long getId() { return id; }
+
+    public static String encode(String createdAt, Long id) {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析客户端带回的游标
+     * @return 游标；cursor 为空时返回 null（第一页）
+     * @throws IllegalArgumentException 游标格式不正确
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            String createdAt = raw.substring(0, index);
+            Long id = Long.valueOf(raw.substring(index + 1));
+            if (createdAt.isEmpty() || createdAt.equals("null")) {
+                throw new IllegalArgumentException("invalid cursor");
+            }
+            return new PageCursor(createdAt, id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * 根据多查询的一行判断是否还有下一页，并生成下一页游标
+     *
+     * 调用方按 pageSize + 1 查询；结果超过 pageSize 行时截掉多出的一行（rows 会被修改），
+     * 以本页最后一行生成游标
+     *
+     * @param rows 按 pageSize + 1 查询到的结果
+     * @return 下一页游标；没有下一页时返回 null
+     */
+    public static <T> String next(List<T> rows, int pageSize,
+                                  Function<T, String> createdAt, Function<T, Long> id) {
+        if (rows.size() <= pageSize) {
+            return null;
+        }
+        rows.subList(pageSize, rows.size()).clear();
+        T last = rows.get(pageSize - 1);
+        return encode(createdAt.apply(last), id.apply(last));
+    }
+}
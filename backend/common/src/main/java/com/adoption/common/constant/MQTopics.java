@@ -5,4 +5,9 @@ public class MQTopics {
     public static final String ORG_APPLIED = "event.org.applied";
     public static final String PET_ADOPTED = "event.pet.adopted";
     public static final String ADOPTION_COMPLETED = "event.adoption.completed";
+
+    // 缓存失效广播：业务服务在数据变更后发布，网关各实例消费后清除响应缓存
+    public static final String CACHE_EXCHANGE = "cache";
+    public static final String CACHE_INVALIDATE_PET = "cache.invalidate.pet";
+    public static final String CACHE_INVALIDATE_POST = "cache.invalidate.post";
 }
@@ -0,0 +1,72 @@
+package com.adoption.common.service;
+
+import com.adoption.common.constant.MQTopics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 缓存失效消息服务
+ *
+ * 作用：数据变更后通过 RabbitMQ 广播失效消息，网关收到后清除对应的公开接口响应缓存
+ *
+ * 消息格式：
+ * {
+ *   "resource": "pet",  // 资源类型（pet / post）
+ *   "id": 123           // 资源ID，为空表示清除该资源的全部缓存
+ * }
+ *
+ * 不是所有服务都连接 RabbitMQ，因此这里不做组件扫描注册，由需要的服务（pet-service、community-service）
+ * 在 RabbitMQConfig 中声明 Bean
+ */
+public class CacheInvalidationMessageService {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationMessageService.class);
+
+    private final RabbitTemplate rabbitTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    public CacheInvalidationMessageService(RabbitTemplate rabbitTemplate, ObjectMapper objectMapper) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 宠物信息变更后清除宠物列表页和该宠物详情页的缓存
+     *
+     * @param petId 宠物ID
+     */
+    public void invalidatePet(Long petId) {
+        send("pet", MQTopics.CACHE_INVALIDATE_PET, petId);
+    }
+
+    /**
+     * 帖子或其评论变更后清除帖子列表页、该帖子详情页和评论列表的缓存
+     *
+     * @param postId 帖子ID
+     */
+    public void invalidatePost(Long postId) {
+        send("post", MQTopics.CACHE_INVALIDATE_POST, postId);
+    }
+
+    private void send(String resource, String routingKey, Long id) {
+        try {
+            Map<String, Object> message = new HashMap<>();
+            message.put("resource", resource);
+            message.put("id", id);
+
+            String messageJson = objectMapper.writeValueAsString(message);
+            rabbitTemplate.convertAndSend(MQTopics.CACHE_EXCHANGE, routingKey, messageJson);
+
+            log.debug("缓存失效消息已发送: resource={}, id={}", resource, id);
+        } catch (Exception e) {
+            // 失效消息发送失败只会让缓存按 TTL 自然过期，不影响主流程
+            log.warn("发送缓存失效消息失败: resource={}, id={}, error={}", resource, id, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.adoption.common.service;
+
+import com.adoption.common.util.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按内容寻址的去重存储
+ *
+ * 文件按 SHA-256 存放在 blobs/ab/cd/&lt;sha256&gt;.&lt;ext&gt;，相同内容（且扩展名相同）的上传只保存一份；
+ * 每个 blob 旁有一个 .meta 元数据文件（Properties 格式），记录引用计数、大小、首次上传时间，
+ * 删除文件时只减少引用计数，计数归零才真正删除 blob 文件
+ *
+ * 多个服务共用同一上传目录，因此修改元数据时先加进程内锁，再对 .meta 文件加 FileLock 做跨进程互斥
+ */
+public class ContentAddressedStore {
+    private static final Logger log = LoggerFactory.getLogger(ContentAddressedStore.class);
+
+    /**
+     * blob 相对上传目录的前缀
+     */
+    public static final String BLOB_DIR = "blobs";
+
+    private static final String META_SUFFIX = ".meta";
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path root;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public ContentAddressedStore(Path root) {
+        this.root = root;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * 是否为本存储管理的相对路径
+     */
+    public static boolean isBlobPath(String relativePath) {
+        return relativePath != null && relativePath.startsWith(BLOB_DIR + "/");
+    }
+
+    /**
+     * blob 的相对路径：blobs/ab/cd/&lt;sha256&gt;.&lt;ext&gt;
+     */
+    public static String blobPath(String sha256, String extension) {
+        return BLOB_DIR + "/" + sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/"
+                + sha256 + (extension.isEmpty() ? "" : "." + extension);
+    }
+
+    /**
+     * 把已写完的临时文件存入 blob，并增加引用计数
+     * 内容已存在时直接删除临时文件
+     * @param tempFile 已写完的临时文件（需与上传目录位于同一文件系统，调用方不再使用）
+     * @param relativePath blobPath 生成的相对路径
+     * @return 是否命中已有内容（去重）
+     */
+    public boolean store(Path tempFile, String relativePath, long size) throws IOException {
+        Path blob = root.resolve(relativePath);
+        Files.createDirectories(blob.getParent());
+        ReentrantLock lock = lockFor(relativePath);
+        lock.lock();
+        try (FileChannel channel = FileChannel.open(metaPath(blob),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            Properties meta = readMeta(channel);
+            boolean duplicate = Files.exists(blob);
+            if (duplicate) {
+                Files.delete(tempFile);
+            } else {
+                FileUtils.moveAtomically(tempFile, blob);
+                meta.setProperty("size", String.valueOf(size));
+                meta.setProperty("createdAt", String.valueOf(System.currentTimeMillis()));
+            }
+            long refCount = duplicate ? refCount(meta) + 1 : 1;
+            meta.setProperty("refCount", String.valueOf(refCount));
+            writeMeta(channel, meta);
+            log.debug("blob 写入: {}, duplicate={}, refCount={}", relativePath, duplicate, refCount);
+            return duplicate;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 减少引用计数，计数归零时删除 blob
+     * @return blob 是否已被删除
+     */
+    public boolean release(String relativePath) throws IOException {
+        Path blob = root.resolve(relativePath);
+        Path metaPath = metaPath(blob);
+        if (!Files.exists(metaPath)) {
+            // 没有元数据（如手工拷贝进来的文件），按单引用处理
+            return Files.deleteIfExists(blob);
+        }
+        ReentrantLock lock = lockFor(relativePath);
+        lock.lock();
+        try (FileChannel channel = FileChannel.open(metaPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            Properties meta = readMeta(channel);
+            long refCount = refCount(meta) - 1;
+            if (refCount > 0) {
+                meta.setProperty("refCount", String.valueOf(refCount));
+                writeMeta(channel, meta);
+                log.debug("blob 引用减少: {}, refCount={}", relativePath, refCount);
+                return false;
+            }
+            // 元数据文件保留（计数记为 0）：其他进程可能已打开它并在等待锁，删除会让它们写入一个已被删除的文件
+            Files.deleteIfExists(blob);
+            meta.setProperty("refCount", "0");
+            writeMeta(channel, meta);
+            log.debug("blob 已删除: {}", relativePath);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 读取引用计数，blob 不存在时返回 0
+     */
+    public long getRefCount(String relativePath) throws IOException {
+        Path metaPath = metaPath(root.resolve(relativePath));
+        if (!Files.exists(metaPath)) {
+            return 0;
+        }
+        Properties meta = new Properties();
+        meta.load(new ByteArrayInputStream(Files.readAllBytes(metaPath)));
+        return refCount(meta);
+    }
+
+    private ReentrantLock lockFor(String relativePath) {
+        return locks[Math.floorMod(relativePath.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static Path metaPath(Path blob) {
+        return blob.resolveSibling(blob.getFileName() + META_SUFFIX);
+    }
+
+    private static long refCount(Properties meta) {
+        return Long.parseLong(meta.getProperty("refCount", "0"));
+    }
+
+    private static Properties readMeta(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        channel.read(buffer, 0);
+        Properties meta = new Properties();
+        meta.load(new ByteArrayInputStream(buffer.array(), 0, buffer.position()));
+        return meta;
+    }
+
+    private static void writeMeta(FileChannel channel, Properties meta) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        meta.store(out, null);
+        channel.truncate(0);
+        channel.write(ByteBuffer.wrap(out.toByteArray()), 0);
+        channel.force(false);
+    }
+}
@@ -1,41 +1,102 @@
 package com.adoption.common.service;
 
 import com.adoption.common.exception.BusinessException;
+import com.adoption.common.storage.FileStorage;
+import com.adoption.common.storage.LocalFileStorage;
+import com.adoption.common.util.FileUtils;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 文件服务
  * 提供文件上传、下载、删除等功能
  * 不管理数据库，只负责文件存储，返回文件路径供业务模块存储
+ * 文件实际存放位置由 FileStorage 决定（本地磁盘或 S3 兼容对象存储，见 FileStorageConfig）
  */
 @Service
 public class FileService {
     private static final Logger log = LoggerFactory.getLogger(FileService.class);
 
-    @Value("${file.upload.path:./uploads}")
-    private String uploadPath;
-
     @Value("${file.upload.url-prefix:/files}")
     private String urlPrefix;
 
     @Value("${file.upload.max-size:10485760}") // 默认10MB
     private long maxFileSize;
 
+    @Value("${file.upload.dedup:false}") // 按内容寻址去重存储
+    private boolean dedup;
+
+    @Value("${file.storage.presign-ttl-seconds:600}") // 对象存储预签名下载URL的有效期
+    private long presignTtlSeconds;
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    @Value("${file.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${file.cache.max-file-size:131072}") // 不超过该大小（字节）的文件才缓存，默认128KB
+    private long cacheMaxFileSize;
+
+    @Value("${file.cache.max-bytes:67108864}") // 缓存总大小上限（字节，堆外内存），默认64MB
+    private long cacheMaxBytes;
+
+    @Value("${file.cache.revalidate-seconds:30}") // 缓存条目重新检查文件是否变化的间隔
+    private long cacheRevalidateSeconds;
+
+    private ContentAddressedStore contentStore; // 仅本地存储时可用
+
+    private HotFileCache hotFileCache; // 仅本地存储且开启缓存时可用
+
+    @Autowired
+    private FileStorage storage;
+
+    @Autowired(required = false)
+    private ImageDerivativeService imageDerivativeService; // file.derivative.enabled=false 时为 null，不生成衍生图
+
+    @PostConstruct
+    public void init() {
+        // 去重存储依赖本地文件锁维护引用计数，只支持本地存储
+        if (storage instanceof LocalFileStorage) {
+            // 关闭去重后仍需要按引用计数删除此前写入的 blob，因此始终创建
+            contentStore = new ContentAddressedStore(((LocalFileStorage) storage).getRoot());
+            if (cacheEnabled) {
+                hotFileCache = new HotFileCache(Math.min(cacheMaxFileSize, Integer.MAX_VALUE), cacheMaxBytes,
+                        TimeUnit.SECONDS.toMillis(cacheRevalidateSeconds));
+            }
+        } else if (dedup) {
+            throw new IllegalStateException("file.upload.dedup 只支持本地存储（file.storage.type=local）");
+        }
+    }
+
     /**
      * 上传文件
+     * 边读边写到临时文件，同时计算大小和 SHA-256；一旦超过大小限制立即中止并删除临时文件，
+     * 写完后再交给 FileStorage 保存（本地存储原子移动，对象存储上传），读取方不会看到写了一半的文件
+     *
+     * 开启 file.upload.dedup 时按内容寻址存放（见 ContentAddressedStore），此时 category 不再体现在路径中，
+     * 相同内容的重复上传返回同一个路径，只增加引用计数
+     *
+     * 图片上传成功后异步生成缩略图等衍生图（见 ImageDerivativeService），衍生图URL记录在 FileInfo.variantUrls 中
      * @param inputStream 文件输入流
      * @param originalFilename 原始文件名
      * @param category 文件分类（如：pet, org, user等），用于组织文件目录
@@ -53,43 +114,44 @@ public class FileService {
         }
 
         try {
+            String extension = getFileExtension(originalFilename);
+            if (dedup) {
+                return uploadContentAddressed(inputStream, originalFilename, extension);
+            }
+
             // 生成文件路径：category/yyyy-MM-dd/uuid.extension
             String dateDir = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-            String extension = getFileExtension(originalFilename);
             String filename = UUID.randomUUID().toString() + (extension.isEmpty() ? "" : "." + extension);
 
-            Path categoryPath = Paths.get(uploadPath, category, dateDir);
-            Files.createDirectories(categoryPath);
-
-            Path filePath = categoryPath.resolve(filename);
-
-            // 保存文件
-            Files.copy(inputStream, filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            // 获取实际文件大小
-            long fileSize = Files.size(filePath);
-
-            // 检查文件大小
-            if (fileSize > maxFileSize) {
-                // 如果超过限制，删除已保存的文件
-                Files.deleteIfExists(filePath);
-                throw new BusinessException(400, "文件大小超过限制：" + (maxFileSize / 1024 / 1024) + "MB");
-            }
-
             // 构建相对路径和URL
-            String relativePath = Paths.get(category, dateDir, filename).toString().replace("\\", "/");
+            String relativePath = category + "/" + dateDir + "/" + filename;
             String url = urlPrefix + "/" + relativePath;
 
+            // 保存文件：先写临时文件，超限立即中止
+            Path tempPath = storage.createTempFile();
+            MessageDigest digest = newSha256();
+            long fileSize;
+            try {
+                fileSize = copyWithLimit(inputStream, tempPath, digest);
+                storage.put(relativePath, tempPath, FileUtils.getContentType(filename));
+            } finally {
+                Files.deleteIfExists(tempPath);
+            }
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+
             log.info("文件上传成功: {}", relativePath);
 
-            return new FileInfo(
+            FileInfo fileInfo = new FileInfo(
                 relativePath,
                 url,
                 originalFilename,
                 filename,
                 fileSize,
-                getContentType(extension)
+                FileUtils.getContentType(filename),
+                sha256
             );
+            submitDerivatives(fileInfo, relativePath);
+            return fileInfo;
 
         } catch (IOException e) {
             log.error("文件上传失败", e);
@@ -103,6 +165,67 @@ public class FileService {
         }
     }
 
+    /**
+     * 按内容寻址上传：写临时文件时计算 SHA-256，写完后按摘要存入 blob，内容已存在时丢弃临时文件
+     */
+    private FileInfo uploadContentAddressed(InputStream inputStream, String originalFilename, String extension) throws IOException {
+        Path tempPath = storage.createTempFile();
+        try {
+            MessageDigest digest = newSha256();
+            long fileSize = copyWithLimit(inputStream, tempPath, digest);
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+
+            String relativePath = ContentAddressedStore.blobPath(sha256, extension);
+            boolean duplicate = contentStore.store(tempPath, relativePath, fileSize);
+            log.info("文件上传成功: {}{}", relativePath, duplicate ? "（内容已存在，未重复存储）" : "");
+
+            FileInfo fileInfo = new FileInfo(
+                relativePath,
+                urlPrefix + "/" + relativePath,
+                originalFilename,
+                relativePath.substring(relativePath.lastIndexOf('/') + 1),
+                fileSize,
+                FileUtils.getContentType(relativePath),
+                sha256
+            );
+            // 去重命中时衍生图通常已存在，重新生成会覆盖为相同内容
+            submitDerivatives(fileInfo, relativePath);
+            return fileInfo;
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    /**
+     * 把输入流写入目标文件，同时更新摘要
+     * @return 写入的字节数
+     * @throws BusinessException 超过 maxFileSize 时立即抛出，不再继续读取
+     */
+    private long copyWithLimit(InputStream inputStream, Path target, MessageDigest digest) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(target)) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                total += read;
+                if (total > maxFileSize) {
+                    throw new BusinessException(400, "文件大小超过限制：" + (maxFileSize / 1024 / 1024) + "MB");
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+        }
+        return total;
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
     /**
      * 读取文件
      * @param relativePath 相对路径（如：pet/2024-01-01/uuid.jpg）
@@ -114,20 +237,76 @@ public class FileService {
         }
 
         try {
-            Path filePath = Paths.get(uploadPath, relativePath);
-            if (!Files.exists(filePath) || !Files.isRegularFile(filePath)) {
-                throw new BusinessException(404, "文件不存在: " + relativePath);
-            }
-
-            return Files.newInputStream(filePath);
+            return storage.open(relativePath);
+        } catch (NoSuchFileException e) {
+            throw new BusinessException(404, "文件不存在: " + relativePath);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(400, e.getMessage());
         } catch (IOException e) {
             log.error("读取文件失败: {}", relativePath, e);
             throw new BusinessException(500, "读取文件失败: " + e.getMessage());
         }
     }
 
+    /**
+     * 获取文件在磁盘上的路径
+     * 用于需要随机访问文件的场景（如按 Range 分段返回、读取修改时间生成 ETag）
+     * @param relativePath 相对路径（如：pet/2024-01-01/uuid.jpg）
+     * @return 文件路径，保证位于上传目录内且是普通文件；非本地存储返回 null
+     */
+    public Path getFilePath(String relativePath) {
+        if (!StringUtils.hasText(relativePath)) {
+            throw new BusinessException(400, "文件路径不能为空");
+        }
+
+        Path filePath;
+        try {
+            filePath = storage.localPath(relativePath);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(400, e.getMessage());
+        }
+        if (filePath == null) {
+            return null;
+        }
+        if (!Files.isRegularFile(filePath)) {
+            throw new BusinessException(404, "文件不存在: " + relativePath);
+        }
+        return filePath;
+    }
+
+    /**
+     * 获取热点小文件的缓存内容，命中时不再打开文件
+     * @param relativePath 相对路径
+     * @return 缓存的文件内容；文件不存在、超过缓存大小阈值、未开启缓存或不是本地存储时返回 null，调用方改用 getFilePath
+     */
+    public HotFileCache.Entry getCachedFile(String relativePath) {
+        if (hotFileCache == null || !StringUtils.hasText(relativePath)) {
+            return null;
+        }
+        try {
+            Path filePath = storage.localPath(relativePath);
+            return filePath != null ? hotFileCache.get(relativePath, filePath) : null;
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("读取缓存文件失败: {}, error={}", relativePath, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 获取客户端可以直接下载文件的预签名URL（对象存储），客户端不再经过服务中转
+     * @param relativePath 相对路径
+     * @return 预签名URL；本地存储返回 null，仍通过 /files 接口访问
+     */
+    public String getPresignedUrl(String relativePath) {
+        if (!StringUtils.hasText(relativePath)) {
+            return null;
+        }
+        return storage.presignedUrl(relativePath, Duration.ofSeconds(presignTtlSeconds));
+    }
+
     /**
      * 删除文件
+     * 去重存储中的文件只减少引用计数，没有其他引用时才真正删除
      * @param relativePath 相对路径
      */
     public void deleteFile(String relativePath) {
@@ -136,17 +315,36 @@ public class FileService {
         }
 
         try {
-            Path filePath = Paths.get(uploadPath, relativePath);
-            if (Files.exists(filePath)) {
-                Files.delete(filePath);
+            if (contentStore != null && ContentAddressedStore.isBlobPath(relativePath)) {
+                if (contentStore.release(relativePath)) {
+                    deleteDerivatives(relativePath);
+                    invalidateCache(relativePath);
+                    log.info("文件删除成功: {}", relativePath);
+                }
+                return;
+            }
+
+            if (storage.exists(relativePath)) {
+                storage.delete(relativePath);
+                deleteDerivatives(relativePath);
+                invalidateCache(relativePath);
                 log.info("文件删除成功: {}", relativePath);
             }
-        } catch (IOException e) {
+        } catch (IOException | IllegalArgumentException e) {
             log.error("删除文件失败: {}", relativePath, e);
             throw new BusinessException(500, "删除文件失败: " + e.getMessage());
         }
     }
 
+    /**
+     * 失效文件及其衍生图的缓存
+     */
+    private void invalidateCache(String relativePath) {
+        if (hotFileCache != null) {
+            hotFileCache.invalidate(relativePath);
+        }
+    }
+
     /**
      * 检查文件是否存在
      * @param relativePath 相对路径
@@ -157,8 +355,11 @@ public class FileService {
             return false;
         }
 
-        Path filePath = Paths.get(uploadPath, relativePath);
-        return Files.exists(filePath) && Files.isRegularFile(filePath);
+        try {
+            return storage.exists(relativePath);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
     }
 
     /**
@@ -172,14 +373,31 @@ public class FileService {
         }
 
         try {
-            Path filePath = Paths.get(uploadPath, relativePath);
-            if (Files.exists(filePath)) {
-                return Files.size(filePath);
+            return storage.size(relativePath);
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    private void submitDerivatives(FileInfo fileInfo, String relativePath) {
+        if (imageDerivativeService != null) {
+            fileInfo.setVariantUrls(imageDerivativeService.submit(relativePath, urlPrefix));
+        }
+    }
+
+    /**
+     * 删除原图的全部衍生图（不依赖 ImageDerivativeService，关闭衍生图生成的服务删除文件时同样清理）
+     */
+    private void deleteDerivatives(String relativePath) {
+        for (ImageDerivativeService.Variant variant : ImageDerivativeService.Variant.values()) {
+            for (String format : new String[]{"jpg", "webp"}) {
+                try {
+                    storage.delete(FileUtils.derivativePath(relativePath, variant.getName(), format));
+                } catch (IOException e) {
+                    log.warn("删除衍生图失败: {}, error={}", relativePath, e.getMessage());
+                }
             }
-        } catch (IOException e) {
-            log.error("获取文件大小失败: {}", relativePath, e);
         }
-        return 0;
     }
 
     /**
@@ -196,45 +414,6 @@ public class FileService {
         return "";
     }
 
-    /**
-     * 根据扩展名获取Content-Type
-     */
-    private String getContentType(String extension) {
-        if (extension == null || extension.isEmpty()) {
-            return "application/octet-stream";
-        }
-
-        switch (extension.toLowerCase()) {
-            case "jpg":
-            case "jpeg":
-                return "image/jpeg";
-            case "png":
-                return "image/png";
-            case "gif":
-                return "image/gif";
-            case "webp":
-                return "image/webp";
-            case "pdf":
-                return "application/pdf";
-            case "doc":
-                return "application/msword";
-            case "docx":
-                return "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
-            case "xls":
-                return "application/vnd.ms-excel";
-            case "xlsx":
-                return "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
-            case "mp4":
-                return "video/mp4";
-            case "avi":
-                return "video/x-msvideo";
-            case "mov":
-                return "video/quicktime";
-            default:
-                return "application/octet-stream";
-        }
-    }
-
     /**
      * 文件信息DTO
      */
@@ -245,15 +424,23 @@ public class FileService {
         private String filename;      // 存储的文件名
         private long size;            // 文件大小（字节）
         private String contentType;   // 文件类型
+        private String sha256;        // 文件内容的 SHA-256（十六进制）
+        private Map<String, String> variantUrls = Collections.emptyMap(); // 衍生图URL，如 thumb、thumb.webp、medium
 
         public FileInfo(String relativePath, String url, String originalFilename,
                        String filename, long size, String contentType) {
+            this(relativePath, url, originalFilename, filename, size, contentType, null);
+        }
+
+        public FileInfo(String relativePath, String url, String originalFilename,
+                       String filename, long size, String contentType, String sha256) {
             this.relativePath = relativePath;
             this.url = url;
             this.originalFilename = originalFilename;
             this.filename = filename;
             this.size = size;
             this.contentType = contentType;
+            this.sha256 = sha256;
         }
 
         // Getters
@@ -263,6 +450,10 @@ public class FileService {
         public String getFilename() { return filename; }
         public long getSize() { return size; }
         public String getContentType() { return contentType; }
+        public String getSha256() { return sha256; }
+        public Map<String, String> getVariantUrls() { return variantUrls; }
+
+        void setVariantUrls(Map<String, String> variantUrls) { this.variantUrls = variantUrls; }
     }
 }
 
@@ -0,0 +1,308 @@
+package com.adoption.common.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 热点小文件缓存
+ *
+ * 头像、宠物封面、缩略图等小文件被反复访问，每次都打开文件代价较高；这里把不超过 maxFileSize 的文件
+ * 读入堆外内存（direct ByteBuffer），命中时不再打开文件，也不占用堆内存，不增加 GC 压力
+ *
+ * - 按 LRU 淘汰，缓存内容总大小不超过 maxBytes（注意 JVM 的 -XX:MaxDirectMemorySize 需大于该值）
+ * - FileService.deleteFile 会立即失效对应文件及其衍生图
+ * - 文件也可能被其他服务实例删除，因此每个条目每隔 revalidateMillis 检查一次文件大小和修改时间，
+ *   两次检查之间命中不产生任何文件系统调用
+ * - 同一文件的并发未命中只由一个线程读盘，其余线程等待并共用其结果，
+ *   避免热点文件刚过期或刚失效时每个请求各分配一块堆外内存
+ */
+public class HotFileCache {
+    private static final Logger log = LoggerFactory.getLogger(HotFileCache.class);
+
+    private final long maxFileSize;
+    private final long maxBytes;
+    private final long revalidateMillis;
+
+    /**
+     * accessOrder = true：按访问顺序排列，最久未访问的在最前面
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    /**
+     * 正在读入的文件：key -> 读取结果，读取完成后移除
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+
+    public HotFileCache(long maxFileSize, long maxBytes, long revalidateMillis) {
+        this.maxFileSize = maxFileSize;
+        this.maxBytes = maxBytes;
+        this.revalidateMillis = revalidateMillis;
+    }
+
+    /**
+     * 获取文件内容，未缓存时读入缓存
+     * @param key 文件相对路径
+     * @param path 文件在磁盘上的路径
+     * @return 缓存的文件内容；文件不存在或超过 maxFileSize 时返回 null
+     */
+    public Entry get(String key, Path path) throws IOException {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        long now = System.currentTimeMillis();
+        if (entry != null) {
+            if (now - entry.verifiedAt < revalidateMillis) {
+                return entry;
+            }
+            BasicFileAttributes attributes = readAttributes(path);
+            if (attributes != null && attributes.size() == entry.size
+                    && attributes.lastModifiedTime().toMillis() == entry.lastModified) {
+                entry.verifiedAt = now;
+                return entry;
+            }
+            remove(key, entry);
+        }
+        return load(key, path);
+    }
+
+    /**
+     * 失效文件及其衍生图（衍生图路径为原图路径加后缀，见 FileUtils.derivativePath）
+     */
+    public synchronized void invalidate(String key) {
+        String derivativePrefix = key + ".";
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> e = it.next();
+            if (e.getKey().equals(key) || e.getKey().startsWith(derivativePrefix)) {
+                totalBytes -= e.getValue().size;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * 读入文件；同一 key 已有线程在读时等待其结果，不重复读盘
+     */
+    private Entry load(String key, Path path) throws IOException {
+        CompletableFuture<Entry> future = new CompletableFuture<>();
+        CompletableFuture<Entry> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+        try {
+            Entry entry;
+            synchronized (this) {
+                // 另一个线程可能刚读完并移除了读取结果：直接用它放入缓存的条目（过期条目在调用前已移除）
+                entry = entries.get(key);
+            }
+            if (entry == null) {
+                entry = read(key, path);
+            }
+            future.complete(entry);
+            return entry;
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    private static Entry await(CompletableFuture<Entry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待文件读入时被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private Entry read(String key, Path path) throws IOException {
+        BasicFileAttributes attributes = readAttributes(path);
+        if (attributes == null || !attributes.isRegularFile() || attributes.size() > maxFileSize) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) attributes.size());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // 读满为止
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (buffer.hasRemaining()) {
+            // 读取期间文件被截断，不缓存
+            return null;
+        }
+        buffer.flip();
+
+        Entry entry = new Entry(buffer.asReadOnlyBuffer(), attributes.size(),
+                attributes.lastModifiedTime().toMillis(), System.currentTimeMillis());
+        synchronized (this) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                totalBytes -= previous.size;
+            }
+            totalBytes += entry.size;
+            Iterator<Entry> it = entries.values().iterator();
+            while (totalBytes > maxBytes && it.hasNext()) {
+                totalBytes -= it.next().size;
+                it.remove();
+            }
+        }
+        log.debug("小文件缓存载入: {}, size={}, total={}", key, entry.size, totalBytes);
+        return entry;
+    }
+
+    private synchronized void remove(String key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            totalBytes -= entry.size;
+        }
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 缓存的文件内容，不可修改
+     */
+    public static final class Entry {
+        private final ByteBuffer content;
+        private final long size;
+        private final long lastModified;
+        private volatile long verifiedAt;
+
+        private Entry(ByteBuffer content, long size, long lastModified, long verifiedAt) {
+            this.content = content;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.verifiedAt = verifiedAt;
+        }
+
+        public long getSize() { return size; }
+        public long getLastModified() { return lastModified; }
+
+        /**
+         * 以 Resource 形式读取内容，供 ResponseEntity 直接返回（支持 Range）；每次调用返回独立的读取位置
+         */
+        public Resource asResource(String filename) {
+            return new BufferResource(content, filename, lastModified);
+        }
+    }
+
+    private static final class BufferResource extends AbstractResource {
+        private final ByteBuffer content;
+        private final String filename;
+        private final long lastModified;
+
+        private BufferResource(ByteBuffer content, String filename, long lastModified) {
+            this.content = content;
+            this.filename = filename;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return content.remaining();
+        }
+
+        @Override
+        public long lastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public String getDescription() {
+            return "cached file [" + filename + "]";
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new BufferInputStream(content.duplicate());
+        }
+    }
+
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.adoption.common.service;
+
+import com.adoption.common.storage.FileStorage;
+import com.adoption.common.util.FileUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 图片衍生图服务
+ * 图片上传后在有界线程池中异步生成固定尺寸的缩略图（JPEG 与 WebP，WebP 编码器由 webp-imageio 插件提供），
+ * 衍生图与原图放在同一目录，路径规则见 FileUtils.derivativePath，读写都经过 FileStorage
+ *
+ * 变体：
+ * - thumb：长边 320px，用于列表页、头像
+ * - medium：长边 1080px，用于详情页
+ * 原图长边不超过变体尺寸时不生成该变体，文件接口会回退返回原图
+ *
+ * 线程池队列满时直接丢弃任务并记录日志，上传接口不会因为衍生图生成变慢
+ *
+ * 只在 file.derivative.enabled=true 时创建（默认开启），不处理上传的服务（如 ai-service、notification-service）
+ * 关闭后不会启动生成线程；衍生图随原图删除由 FileService 负责，与本服务是否开启无关
+ */
+@Service
+@ConditionalOnProperty(prefix = "file.derivative", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ImageDerivativeService {
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    public enum Variant {
+        THUMB("thumb", 320),
+        MEDIUM("medium", 1080);
+
+        private final String name;
+        private final int maxSide;
+
+        Variant(String name, int maxSide) {
+            this.name = name;
+            this.maxSide = maxSide;
+        }
+
+        public String getName() { return name; }
+        public int getMaxSide() { return maxSide; }
+    }
+
+    @Value("${file.derivative.threads:2}")
+    private int threads;
+
+    @Value("${file.derivative.queue-size:200}")
+    private int queueSize;
+
+    @Value("${file.derivative.max-pixels:40000000}") // 超过 4000 万像素的图片不处理，防止解码耗尽内存
+    private long maxPixels;
+
+    @Value("${file.derivative.quality:0.8}")
+    private float quality;
+
+    @Autowired
+    private FileStorage storage;
+
+    private ThreadPoolExecutor executor;
+    private boolean webpSupported;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivative-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> log.warn("衍生图任务队列已满，丢弃任务"));
+        // 打包为可执行 jar 时插件在嵌套 jar 中，ImageIO 初始化时未必扫描到，这里按上下文类加载器重新扫描
+        ImageIO.scanForPlugins();
+        webpSupported = ImageIO.getImageWritersByFormatName("webp").hasNext();
+        if (!webpSupported) {
+            log.warn("未找到 WebP 编码器（webp-imageio 本地库不支持当前平台？），只生成 JPEG 衍生图");
+        }
+        log.info("图片衍生图服务启动: threads={}, webp={}", threads, webpSupported);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 提交衍生图生成任务
+     * @param relativePath 原图相对路径
+     * @param urlPrefix 文件访问URL前缀
+     * @return 变体名（如 thumb、thumb.webp）到衍生图URL的映射；不生成衍生图时为空
+     */
+    public Map<String, String> submit(String relativePath, String urlPrefix) {
+        Map<String, String> variantUrls = new LinkedHashMap<>();
+        if (!FileUtils.hasDerivatives(relativePath)) {
+            return variantUrls;
+        }
+        for (Variant variant : Variant.values()) {
+            variantUrls.put(variant.getName(),
+                    urlPrefix + "/" + FileUtils.derivativePath(relativePath, variant.getName(), "jpg"));
+            if (webpSupported) {
+                variantUrls.put(variant.getName() + ".webp",
+                        urlPrefix + "/" + FileUtils.derivativePath(relativePath, variant.getName(), "webp"));
+            }
+        }
+        executor.execute(() -> generate(relativePath));
+        return variantUrls;
+    }
+
+    private void generate(String original) {
+        long start = System.nanoTime();
+        // 本地存储直接按文件读取（ImageIO 可随机访问），对象存储按流读取
+        Path localPath = storage.localPath(original);
+        try (InputStream raw = localPath == null ? storage.open(original) : null;
+             ImageInputStream in = localPath != null
+                     ? ImageIO.createImageInputStream(localPath.toFile())
+                     : ImageIO.createImageInputStream(raw)) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                log.debug("无法识别的图片格式，跳过衍生图: {}", original);
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.warn("图片像素过多，跳过衍生图: {} ({}x{})", original, width, height);
+                    return;
+                }
+                int longSide = Math.max(width, height);
+                if (longSide <= Variant.THUMB.getMaxSide()) {
+                    return;
+                }
+
+                // 原图远大于最大的变体时按整数倍降采样解码，减少内存占用和解码时间
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, longSide / (Variant.MEDIUM.getMaxSide() * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage source = reader.read(0, param);
+
+                for (Variant variant : Variant.values()) {
+                    if (longSide <= variant.getMaxSide()) {
+                        continue;
+                    }
+                    BufferedImage scaled = scale(source, variant.getMaxSide());
+                    write(scaled, "jpg", FileUtils.derivativePath(original, variant.getName(), "jpg"));
+                    if (webpSupported) {
+                        write(scaled, "webp", FileUtils.derivativePath(original, variant.getName(), "webp"));
+                    }
+                }
+            } finally {
+                reader.dispose();
+            }
+            log.debug("衍生图生成完成: {}, 耗时 {}ms", original, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            log.warn("生成衍生图失败: {}, error={}", original, e.getMessage());
+        }
+    }
+
+    /**
+     * 按长边等比缩放；缩小超过一半时逐次减半，避免一次性双线性缩放产生锯齿
+     */
+    private static BufferedImage scale(BufferedImage source, int maxSide) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double ratio = (double) maxSide / Math.max(width, height);
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        BufferedImage current = source;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            // JPEG 不支持透明通道，统一绘制到白色背景的 RGB 图上
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    /**
+     * 先写临时文件再交给 FileStorage 保存，文件接口不会读到写了一半的衍生图
+     */
+    private void write(BufferedImage image, String format, String key) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        if (!writers.hasNext()) {
+            return;
+        }
+        ImageWriter writer = writers.next();
+        Path temp = storage.createTempFile();
+        try {
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if (param.canWriteCompressed()) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    if (param.getCompressionType() == null && param.getCompressionTypes() != null) {
+                        param.setCompressionType(param.getCompressionTypes()[0]);
+                    }
+                    param.setCompressionQuality(quality);
+                }
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            storage.put(key, temp, FileUtils.getContentType(key));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.adoption.common.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 文件存储 SPI
+ * FileService 负责校验、限制大小、计算摘要等与存储无关的逻辑，实际的存取交给具体实现：
+ * - LocalFileStorage：本地磁盘（file.storage.type=local，默认）
+ * - S3FileStorage：S3 兼容对象存储，如 AWS S3、MinIO（file.storage.type=s3）
+ *
+ * key 即文件相对路径（如 pet/2024-01-01/uuid.jpg），与数据库中存储的值一致
+ */
+public interface FileStorage {
+
+    /**
+     * 创建用于暂存上传内容的临时文件
+     * 本地存储会放在上传目录所在的文件系统上，保证 put 时可以原子移动
+     */
+    Path createTempFile() throws IOException;
+
+    /**
+     * 把已写完的临时文件存为 key，调用后临时文件不再使用（可能已被移动或删除）
+     */
+    void put(String key, Path source, String contentType) throws IOException;
+
+    /**
+     * 打开文件内容，调用方负责关闭
+     * @throws java.nio.file.NoSuchFileException 文件不存在
+     */
+    InputStream open(String key) throws IOException;
+
+    boolean exists(String key);
+
+    /**
+     * 文件大小（字节），文件不存在时返回 0
+     */
+    long size(String key);
+
+    /**
+     * 删除文件，不存在时不做任何事
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * 文件在本地磁盘上的路径，供零拷贝、按 Range 返回等需要随机访问的场景使用；非本地存储返回 null
+     */
+    Path localPath(String key);
+
+    /**
+     * 客户端可以直接下载的预签名URL，有效期为 ttl；本地存储返回 null，仍通过 /files 接口访问
+     */
+    String presignedUrl(String key, Duration ttl);
+}
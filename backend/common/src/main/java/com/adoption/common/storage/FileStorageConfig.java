@@ -0,0 +1,74 @@
+package com.adoption.common.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.nio.file.Paths;
+
+/**
+ * 文件存储配置
+ * file.storage.type=local（默认）使用本地磁盘；file.storage.type=s3 使用 S3 兼容对象存储
+ *
+ * 本地开发可以用 MinIO 代替 S3：endpoint 指向 MinIO 地址，并开启 path-style-access
+ */
+@Configuration
+public class FileStorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "file.storage", name = "type", havingValue = "local", matchIfMissing = true)
+    public FileStorage localFileStorage(@Value("${file.upload.path:./uploads}") String uploadPath) {
+        return new LocalFileStorage(Paths.get(uploadPath));
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "file.storage", name = "type", havingValue = "s3")
+    public S3Client s3Client(@Value("${file.storage.s3.endpoint:}") String endpoint,
+                             @Value("${file.storage.s3.region:us-east-1}") String region,
+                             @Value("${file.storage.s3.access-key}") String accessKey,
+                             @Value("${file.storage.s3.secret-key}") String secretKey,
+                             @Value("${file.storage.s3.path-style-access:false}") boolean pathStyleAccess) {
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyleAccess).build());
+        if (!endpoint.isEmpty()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "file.storage", name = "type", havingValue = "s3")
+    public S3Presigner s3Presigner(@Value("${file.storage.s3.endpoint:}") String endpoint,
+                                   @Value("${file.storage.s3.region:us-east-1}") String region,
+                                   @Value("${file.storage.s3.access-key}") String accessKey,
+                                   @Value("${file.storage.s3.secret-key}") String secretKey,
+                                   @Value("${file.storage.s3.path-style-access:false}") boolean pathStyleAccess) {
+        S3Presigner.Builder builder = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyleAccess).build());
+        if (!endpoint.isEmpty()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "file.storage", name = "type", havingValue = "s3")
+    public FileStorage s3FileStorage(S3Client s3Client, S3Presigner s3Presigner,
+                                     @Value("${file.storage.s3.bucket}") String bucket,
+                                     @Value("${file.storage.s3.part-size:8388608}") int partSize) {
+        return new S3FileStorage(s3Client, s3Presigner, bucket, partSize);
+    }
+}
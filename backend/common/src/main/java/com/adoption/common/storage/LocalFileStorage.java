@@ -0,0 +1,90 @@
+package com.adoption.common.storage;
+
+import com.adoption.common.util.FileUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 本地磁盘存储
+ * 文件位于上传目录下的 key 路径；临时文件放在上传目录的 .tmp 子目录，put 时原子移动到目标位置
+ */
+public class LocalFileStorage implements FileStorage {
+
+    /**
+     * 临时文件目录（相对上传目录）
+     */
+    public static final String TEMP_DIR = ".tmp";
+
+    private final Path root;
+
+    public LocalFileStorage(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    @Override
+    public Path createTempFile() throws IOException {
+        Path dir = root.resolve(TEMP_DIR);
+        Files.createDirectories(dir);
+        return Files.createTempFile(dir, ".upload-", ".tmp");
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        FileUtils.moveAtomically(source, target);
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(resolve(key));
+    }
+
+    @Override
+    public long size(String key) {
+        try {
+            return Files.size(resolve(key));
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public Path localPath(String key) {
+        return resolve(key);
+    }
+
+    @Override
+    public String presignedUrl(String key, Duration ttl) {
+        return null;
+    }
+
+    /**
+     * 解析 key 对应的路径，越出上传目录的 key（如包含 ..）直接拒绝
+     */
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("非法的文件路径: " + key);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,181 @@
+package com.adoption.common.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * S3 兼容对象存储（AWS S3、MinIO 等）
+ *
+ * - 小于 partSize 的文件一次 PutObject 上传；更大的文件按 partSize 分片做 Multipart Upload，
+ *   内存中同时只保留一个分片，失败时中止分片上传，不会在桶里留下未完成的分片
+ * - 下载通过预签名 GET URL 由客户端直接访问对象存储，媒体字节不再经过服务 JVM
+ */
+public class S3FileStorage implements FileStorage {
+    private static final Logger log = LoggerFactory.getLogger(S3FileStorage.class);
+
+    private final S3Client s3;
+    private final S3Presigner presigner;
+    private final String bucket;
+    private final int partSize;
+
+    public S3FileStorage(S3Client s3, S3Presigner presigner, String bucket, int partSize) {
+        this.s3 = s3;
+        this.presigner = presigner;
+        this.bucket = bucket;
+        this.partSize = partSize;
+    }
+
+    @Override
+    public Path createTempFile() throws IOException {
+        return Files.createTempFile("upload-", ".tmp");
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        try {
+            long size = Files.size(source);
+            if (size <= partSize) {
+                s3.putObject(PutObjectRequest.builder()
+                                .bucket(bucket)
+                                .key(key)
+                                .contentType(contentType)
+                                .build(),
+                        RequestBody.fromFile(source));
+            } else {
+                multipartUpload(key, source, contentType);
+            }
+        } catch (S3Exception e) {
+            throw new IOException("上传到对象存储失败: " + e.getMessage(), e);
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    private void multipartUpload(String key, Path source, String contentType) throws IOException {
+        String uploadId = s3.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)
+                .build()).uploadId();
+        try (InputStream in = Files.newInputStream(source)) {
+            List<CompletedPart> parts = new ArrayList<>();
+            byte[] buffer = new byte[partSize];
+            int partNumber = 1;
+            int length;
+            while ((length = in.readNBytes(buffer, 0, partSize)) > 0) {
+                String etag = s3.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucket)
+                                .key(key)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .build(),
+                        RequestBody.fromByteBuffer(ByteBuffer.wrap(buffer, 0, length))).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(etag).build());
+                partNumber++;
+            }
+            s3.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+        } catch (IOException | RuntimeException e) {
+            try {
+                s3.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .uploadId(uploadId)
+                        .build());
+            } catch (RuntimeException abortError) {
+                log.warn("中止分片上传失败: key={}, uploadId={}, error={}", key, uploadId, abortError.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        try {
+            return s3.getObject(GetObjectRequest.builder().bucket(bucket).key(key).build());
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(key);
+        } catch (S3Exception e) {
+            throw new IOException("读取对象存储失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return headObject(key) != null;
+    }
+
+    @Override
+    public long size(String key) {
+        Long size = headObject(key);
+        return size != null ? size : 0;
+    }
+
+    /**
+     * 查询对象大小，对象不存在时返回 null
+     */
+    private Long headObject(String key) {
+        try {
+            return s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build()).contentLength();
+        } catch (NoSuchKeyException e) {
+            return null;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+        } catch (S3Exception e) {
+            throw new IOException("删除对象存储文件失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Path localPath(String key) {
+        return null;
+    }
+
+    @Override
+    public String presignedUrl(String key, Duration ttl) {
+        return presigner.presignGetObject(GetObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .getObjectRequest(GetObjectRequest.builder().bucket(bucket).key(key).build())
+                .build()).url().toString();
+    }
+}
@@ -4,6 +4,10 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 /**
  * 文件工具类
@@ -52,6 +56,130 @@ public class FileUtils {
         return extension.matches("mp4|avi|mov|wmv|flv|mkv");
     }
 
+    /**
+     * 根据文件名的扩展名获取Content-Type，未知类型返回 application/octet-stream
+     */
+    public static String getContentType(String filename) {
+        switch (getFileExtension(filename)) {
+            case "jpg":
+            case "jpeg":
+                return "image/jpeg";
+            case "png":
+                return "image/png";
+            case "gif":
+                return "image/gif";
+            case "webp":
+                return "image/webp";
+            case "bmp":
+                return "image/bmp";
+            case "pdf":
+                return "application/pdf";
+            case "doc":
+                return "application/msword";
+            case "docx":
+                return "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+            case "xls":
+                return "application/vnd.ms-excel";
+            case "xlsx":
+                return "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+            case "mp4":
+                return "video/mp4";
+            case "avi":
+                return "video/x-msvideo";
+            case "mov":
+                return "video/quicktime";
+            default:
+                return "application/octet-stream";
+        }
+    }
+
+    /**
+     * 相对路径是否允许通过 /files/** 公开访问
+     * 以 . 开头的路径段（.tmp 临时目录、.. 等）和 .meta 元数据文件（见 ContentAddressedStore）只供内部使用，
+     * 在解析到上传目录之前拒绝
+     */
+    public static boolean isPublicPath(String relativePath) {
+        if (relativePath == null || relativePath.isEmpty() || relativePath.toLowerCase().endsWith(".meta")) {
+            return false;
+        }
+        for (String segment : relativePath.split("[/\\\\]")) {
+            if (segment.startsWith(".")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 生成文件的强 ETag
+     * 上传的文件名是 UUID、内容写入后不再修改，用 “修改时间 + 大小” 即可唯一标识文件内容；
+     * 网关直出与 FileController 使用同一算法，客户端在两条路径之间切换时缓存仍然有效
+     */
+    public static String etag(long size, long lastModifiedMillis) {
+        return "\"" + Long.toHexString(lastModifiedMillis) + "-" + Long.toHexString(size) + "\"";
+    }
+
+    /**
+     * 衍生图（缩略图等）的路径或URL：在原文件名后追加 “.变体名.格式”，
+     * 如 community/2025-11-07/uuid.png -> community/2025-11-07/uuid.png.thumb.jpg
+     * 路径可以由原图路径直接算出，列表接口不需要额外存储即可返回缩略图地址
+     */
+    public static String derivativePath(String original, String variant, String format) {
+        return original + "." + variant + "." + format;
+    }
+
+    /**
+     * 由衍生图路径得到原图路径，不是衍生图路径时返回 null
+     */
+    public static String originalOfDerivative(String path) {
+        if (path == null) {
+            return null;
+        }
+        int formatDot = path.lastIndexOf('.');
+        if (formatDot <= 0) {
+            return null;
+        }
+        int variantDot = path.lastIndexOf('.', formatDot - 1);
+        if (variantDot <= 0) {
+            return null;
+        }
+        String variant = path.substring(variantDot + 1, formatDot);
+        String original = path.substring(0, variantDot);
+        if (!variant.matches("thumb|medium") || !isImage(original)) {
+            return null;
+        }
+        return original;
+    }
+
+    /**
+     * 图片的缩略图URL；视频、GIF（保留动画）等不生成缩略图的文件原样返回
+     * 缩略图尚未生成完成时，文件接口会回退返回原图
+     */
+    public static String thumbnailUrl(String url) {
+        if (url == null || url.isEmpty() || !hasDerivatives(url)) {
+            return url;
+        }
+        return derivativePath(url, "thumb", "jpg");
+    }
+
+    /**
+     * 是否为会生成衍生图的图片类型（GIF 保留动画，不生成）
+     */
+    public static boolean hasDerivatives(String filename) {
+        return isImage(filename) && !"gif".equals(getFileExtension(filename));
+    }
+
+    /**
+     * 移动文件，文件系统支持时使用原子移动，读取方不会看到写了一半的目标文件
+     */
+    public static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     /**
      * 检查文件大小是否在限制内
      */
@@ -1,25 +1,36 @@
 package com.adoption.common.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
-import java.security.Key;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class JwtUtils {
 
+    // 每个密钥对应一个 JwtParser（不可变、线程安全），避免每次解析都重新生成 HMAC Key
+    private static final Map<String, JwtParser> PARSERS = new ConcurrentHashMap<>();
+
     /**
      * 解析 JWT，返回 Claims
      */
     public static Claims parseToken(String token, String secret) {
-        Key key = Keys.hmacShaKeyFor(secret.getBytes());
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
+        return getParser(secret)
                 .parseClaimsJws(token)
                 .getBody();
     }
 
+    /**
+     * 获取指定密钥的 JwtParser，首次调用时构建并缓存
+     */
+    public static JwtParser getParser(String secret) {
+        return PARSERS.computeIfAbsent(secret, s -> Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(s.getBytes()))
+                .build());
+    }
+
     /**
      * 获取用户 ID
      */
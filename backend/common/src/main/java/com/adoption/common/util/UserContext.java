@@ -24,4 +24,18 @@ public class UserContext {
         String rolesHeader = request.getHeader("X-Roles");
         return rolesHeader != null ? Arrays.asList(rolesHeader.split(",")) : List.of();
     }
+
+    /**
+     * 客户端IP
+     * 经网关转发时取 X-Forwarded-For 的最后一项（网关追加的、它看到的对端地址；前面的项可由客户端伪造），
+     * 没有该请求头时取直连地址
+     */
+    public String getClientIp() {
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor != null && !forwardedFor.isBlank()) {
+            String[] parts = forwardedFor.split(",");
+            return parts[parts.length - 1].trim();
+        }
+        return request.getRemoteAddr();
+    }
 }
@@ -4,6 +4,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 社区服务启动类
@@ -15,6 +16,7 @@ import org.springframework.cloud.openfeign.EnableFeignClients;
  *   * scanBasePackages: 指定扫描的包路径，包括community和common包
  * - @EnableDiscoveryClient: 启用服务发现（如Eureka、Nacos），用于微服务注册和发现
  * - @EnableFeignClients: 启用Feign客户端，用于调用其他微服务（如auth-service）
+ * - @EnableScheduling: 启用定时任务（点赞数、评论数的批量写回和定期校准，见 PostCounterService；线程池见 SchedulingConfig）
  * 
  * 主要功能模块：
  * - 帖子管理（发布、查询、删除）
@@ -28,6 +30,7 @@ import org.springframework.cloud.openfeign.EnableFeignClients;
 @SpringBootApplication(scanBasePackages = {"com.adoption.community", "com.adoption.common"})
 @EnableDiscoveryClient
 @EnableFeignClients
+@EnableScheduling
 public class CommunityServiceApplication {
     /**
      * 应用启动入口
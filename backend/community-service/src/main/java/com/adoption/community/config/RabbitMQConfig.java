@@ -1,5 +1,8 @@
 package com.adoption.community.config;
 
+import com.adoption.common.constant.MQTopics;
+import com.adoption.common.service.CacheInvalidationMessageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -41,6 +44,21 @@ public class RabbitMQConfig {
      */
     public static final String ROUTING_KEY_PREFIX = "notify.";
 
+    /**
+     * 社区事件 Exchange：本服务内部的异步任务（新帖子分发到粉丝的关注时间线）
+     */
+    public static final String COMMUNITY_EXCHANGE = "community";
+
+    /**
+     * 新帖子发布事件 Routing Key
+     */
+    public static final String POST_PUBLISHED_ROUTING_KEY = "community.post.published";
+
+    /**
+     * 新帖子分发队列（持久化，服务重启不丢失未处理的分发任务）
+     */
+    public static final String POST_FANOUT_QUEUE = "community.post.fanout.queue";
+
     /**
      * 创建 Topic Exchange（主题交换机）
      *
@@ -58,6 +76,47 @@ public class RabbitMQConfig {
         return new TopicExchange(NOTIFY_EXCHANGE, true, false);
     }
 
+    /**
+     * 缓存失效交换机（与 gateway 中的一致），数据变更后在此广播失效消息
+     */
+    @Bean
+    public TopicExchange cacheExchange() {
+        return new TopicExchange(MQTopics.CACHE_EXCHANGE, true, false);
+    }
+
+    /**
+     * 缓存失效消息发布（实现在 common 中，与 MQTopics.CACHE_EXCHANGE 放在一起）
+     */
+    @Bean
+    public CacheInvalidationMessageService cacheInvalidationMessageService(RabbitTemplate rabbitTemplate,
+                                                                           ObjectMapper objectMapper) {
+        return new CacheInvalidationMessageService(rabbitTemplate, objectMapper);
+    }
+
+    /**
+     * 社区事件交换机
+     */
+    @Bean
+    public TopicExchange communityExchange() {
+        return new TopicExchange(COMMUNITY_EXCHANGE, true, false);
+    }
+
+    /**
+     * 新帖子分发队列，多个实例共同消费
+     */
+    @Bean
+    public Queue postFanoutQueue() {
+        return QueueBuilder.durable(POST_FANOUT_QUEUE).build();
+    }
+
+    @Bean
+    public Binding postFanoutBinding() {
+        return BindingBuilder
+                .bind(postFanoutQueue())
+                .to(communityExchange())
+                .with(POST_PUBLISHED_ROUTING_KEY);
+    }
+
     /**
      * JSON 消息转换器
      *
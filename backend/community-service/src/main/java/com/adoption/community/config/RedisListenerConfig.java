@@ -0,0 +1,36 @@
+package com.adoption.community.config;
+
+import com.adoption.community.service.PostCacheService;
+import com.adoption.community.service.PostSearchService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Redis pub/sub 订阅配置（所有订阅共用一个连接）
+ *
+ * - PostCacheService.INVALIDATION_CHANNEL：任一实例修改帖子后，所有实例据此清除本地（L1）缓存
+ * - PostSearchService.REINDEX_CHANNEL：任一实例发布、删除帖子或修改状态后，其他实例据此更新本地全文索引
+ */
+@Configuration
+public class RedisListenerConfig {
+
+    @Bean
+    public RedisMessageListenerContainer redisListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                PostCacheService postCacheService,
+                                                                PostSearchService postSearchService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> postCacheService.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(PostCacheService.INVALIDATION_CHANNEL));
+        container.addMessageListener(
+                (message, pattern) -> postSearchService.onReindex(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(PostSearchService.REINDEX_CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,31 @@
+package com.adoption.community.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * 定时任务线程池配置
+ *
+ * Spring 默认的调度器只有一个线程：每小时的计数校准（分批执行、批间暂停）和每天的热度重建
+ * 会把计数写回（1 秒）、点赞写回（500 毫秒）等高频任务阻塞住，内存中的增量越积越多
+ *
+ * 这里提供名为 taskScheduler 的调度器替换默认调度器，各定时任务在独立线程上执行
+ */
+@Configuration
+public class SchedulingConfig {
+
+    @Value("${community.scheduling.pool-size:4}")
+    private int poolSize;
+
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduling-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(10);
+        return scheduler;
+    }
+}
@@ -0,0 +1,24 @@
+package com.adoption.community.config;
+
+import com.adoption.common.service.ViewCountService;
+import com.adoption.common.util.UserContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 帖子浏览人数统计配置
+ */
+@Configuration
+public class ViewCountConfig {
+
+    /**
+     * 帖子详情浏览人数的 HyperLogLog key 前缀（须与 gateway.yml 中 /community/posts/{id} 路由的 view-key-prefix 一致）
+     */
+    public static final String POST_VIEW_KEY_PREFIX = "community:views:post:";
+
+    @Bean
+    public ViewCountService viewCountService(StringRedisTemplate redisTemplate, UserContext userContext) {
+        return new ViewCountService(redisTemplate, userContext, POST_VIEW_KEY_PREFIX);
+    }
+}
@@ -22,6 +22,7 @@ import java.util.Map;
  *   * 处理举报
  * - 管理员功能：
  *   * 推荐/取消推荐帖子
+ *   * 查看热度排行（推荐参考）
  *
  * 权限要求：
  * - 客服功能需要CS（客服）角色
@@ -81,19 +82,20 @@ public class AdminController {
 
     /**
      * 获取举报列表（客服）
-     * GET /reports
+     * GET /reports（支持 cursor 游标分页）
      */
     @GetMapping("/reports")
     public ApiResponse<Map<String, Object>> getReports(
             @RequestParam(name = "status", required = false) String status,
             @RequestParam(name = "page", required = false) Integer page,
-            @RequestParam(name = "pageSize", required = false) Integer pageSize) {
+            @RequestParam(name = "pageSize", required = false) Integer pageSize,
+            @RequestParam(name = "cursor", required = false) String cursor) {
         // TODO: 验证用户是否为客服角色
         Long currentUserId = userContext.getCurrentUserId();
         if (currentUserId == null) {
             return ApiResponse.error(401, "用户未登录");
         }
-        return reportService.getReports(status, page, pageSize);
+        return reportService.getReports(status, page, pageSize, cursor);
     }
 
     /**
@@ -116,6 +118,23 @@ public class AdminController {
         return reportService.handleReport(id, status, currentUserId);
     }
 
+    /**
+     * 获取热度排行（超级管理员，推荐参考）
+     * GET /posts/hot
+     */
+    @GetMapping("/posts/hot")
+    public ApiResponse<Map<String, Object>> getHotPosts(
+            @RequestParam(name = "type", required = false) String type,
+            @RequestParam(name = "page", required = false) Integer page,
+            @RequestParam(name = "pageSize", required = false) Integer pageSize) {
+        // 超级管理员角色由网关校验（RoutePermissionConfig）
+        Long currentUserId = userContext.getCurrentUserId();
+        if (currentUserId == null) {
+            return ApiResponse.error(401, "用户未登录");
+        }
+        return postService.getHotPosts(type, page, pageSize);
+    }
+
     /**
      * 推荐/取消推荐帖子（超级管理员）
      * POST /posts/{id}/recommend
@@ -32,14 +32,15 @@ public class CommentController {
 
     /**
      * 获取评论列表
-     * GET /posts/{id}/comments
+     * GET /posts/{id}/comments（支持 cursor 游标分页）
      */
     @GetMapping
     public ApiResponse<Map<String, Object>> getComments(
             @PathVariable("id") Long postId,
             @RequestParam(name = "page", required = false) Integer page,
-            @RequestParam(name = "pageSize", required = false) Integer pageSize) {
-        return commentService.getComments(postId, page, pageSize);
+            @RequestParam(name = "pageSize", required = false) Integer pageSize,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        return commentService.getComments(postId, page, pageSize, cursor);
     }
 
     /**
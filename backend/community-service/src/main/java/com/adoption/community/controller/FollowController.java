@@ -0,0 +1,108 @@
+package com.adoption.community.controller;
+
+import com.adoption.common.api.ApiResponse;
+import com.adoption.common.util.UserContext;
+import com.adoption.community.service.FollowService;
+import com.adoption.community.service.PostService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 关注控制器
+ *
+ * 作用：处理用户关注关系和关注时间线的HTTP请求
+ *
+ * 主要功能：
+ * - 关注 / 取消关注用户（幂等操作）
+ * - 粉丝列表、关注列表、关注计数
+ * - 关注时间线（关注的用户发布的帖子）
+ */
+@RestController
+@RequestMapping("/community")
+public class FollowController {
+
+    @Autowired
+    private FollowService followService;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private UserContext userContext;
+
+    /**
+     * 关注用户（幂等）
+     * POST /follows/{userId}
+     */
+    @PostMapping("/follows/{userId}")
+    public ApiResponse<Map<String, Object>> follow(@PathVariable("userId") Long userId) {
+        Long currentUserId = userContext.getCurrentUserId();
+        if (currentUserId == null) {
+            return ApiResponse.error(401, "用户未登录");
+        }
+        return followService.follow(currentUserId, userId);
+    }
+
+    /**
+     * 取消关注用户（幂等）
+     * DELETE /follows/{userId}
+     */
+    @DeleteMapping("/follows/{userId}")
+    public ApiResponse<Map<String, Object>> unfollow(@PathVariable("userId") Long userId) {
+        Long currentUserId = userContext.getCurrentUserId();
+        if (currentUserId == null) {
+            return ApiResponse.error(401, "用户未登录");
+        }
+        return followService.unfollow(currentUserId, userId);
+    }
+
+    /**
+     * 粉丝列表
+     * GET /users/{userId}/followers?cursor=xxx&pageSize=20
+     */
+    @GetMapping("/users/{userId}/followers")
+    public ApiResponse<Map<String, Object>> getFollowers(
+            @PathVariable("userId") Long userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "pageSize", required = false, defaultValue = "20") Integer pageSize) {
+        return followService.getFollowers(userId, cursor, pageSize);
+    }
+
+    /**
+     * 关注列表
+     * GET /users/{userId}/following?cursor=xxx&pageSize=20
+     */
+    @GetMapping("/users/{userId}/following")
+    public ApiResponse<Map<String, Object>> getFollowing(
+            @PathVariable("userId") Long userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "pageSize", required = false, defaultValue = "20") Integer pageSize) {
+        return followService.getFollowing(userId, cursor, pageSize);
+    }
+
+    /**
+     * 粉丝数、关注数，以及当前用户是否已关注
+     * GET /users/{userId}/follow-stats
+     */
+    @GetMapping("/users/{userId}/follow-stats")
+    public ApiResponse<Map<String, Object>> getFollowStats(@PathVariable("userId") Long userId) {
+        return followService.getFollowStats(userId, userContext.getCurrentUserId());
+    }
+
+    /**
+     * 关注时间线
+     * GET /feed/following?cursor=xxx&pageSize=10
+     */
+    @GetMapping("/feed/following")
+    public ApiResponse<Map<String, Object>> getFollowingTimeline(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "pageSize", required = false, defaultValue = "10") Integer pageSize) {
+        Long currentUserId = userContext.getCurrentUserId();
+        if (currentUserId == null) {
+            return ApiResponse.error(401, "用户未登录");
+        }
+        return postService.getFollowingTimeline(currentUserId, cursor, pageSize);
+    }
+}
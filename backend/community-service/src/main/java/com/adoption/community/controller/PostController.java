@@ -7,6 +7,7 @@ import com.adoption.common.util.UserContext;
 import com.adoption.community.model.Post;
 import com.adoption.community.service.PostService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -15,6 +16,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 /**
  * 帖子控制器
@@ -32,7 +35,7 @@ import java.util.Map;
  * 文件上传功能说明：
  * - 支持图片和视频文件
  * - 单个文件上传：POST /posts/upload
- * - 批量文件上传：POST /posts/upload/batch（最多9个文件）
+ * - 批量文件上传：POST /posts/upload/batch（最多9个文件，并行处理）
  * - 上传后返回文件URL，用于帖子发布时存储到mediaUrls字段
  */
 @RestController
@@ -48,8 +51,12 @@ public class PostController {
     @Autowired
     private FileService fileService;
 
+    @Autowired
+    @Qualifier("uploadExecutor")
+    private ExecutorService uploadExecutor;
+
     /**
-     * 获取帖子列表（支持 type、sort、page）
+     * 获取帖子列表（支持 type、sort、page，最新排序支持 cursor 游标分页）
      * GET /posts
      */
     @GetMapping
@@ -57,8 +64,22 @@ public class PostController {
             @RequestParam(name = "type", required = false) String type,
             @RequestParam(name = "sort", required = false) String sort,
             @RequestParam(name = "page", required = false) Integer page,
+            @RequestParam(name = "pageSize", required = false) Integer pageSize,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        return postService.getPostList(type, sort, page, pageSize, cursor);
+    }
+
+    /**
+     * 搜索帖子（标题和正文全文检索，支持 type、page）
+     * GET /posts/search
+     */
+    @GetMapping("/search")
+    public ApiResponse<Map<String, Object>> searchPosts(
+            @RequestParam(name = "keyword", required = false) String keyword,
+            @RequestParam(name = "type", required = false) String type,
+            @RequestParam(name = "page", required = false) Integer page,
             @RequestParam(name = "pageSize", required = false) Integer pageSize) {
-        return postService.getPostList(type, sort, page, pageSize);
+        return postService.searchPosts(keyword, type, page, pageSize);
     }
 
     /**
@@ -169,6 +190,7 @@ public class PostController {
             result.put("filename", fileInfo.getFilename());
             result.put("size", fileInfo.getSize());
             result.put("contentType", fileInfo.getContentType());
+            result.put("variants", fileInfo.getVariantUrls()); // 缩略图等衍生图URL（仅图片），异步生成
 
             return ApiResponse.success(result);
 
@@ -185,21 +207,22 @@ public class PostController {
      * 功能说明：
      * - 批量上传多个图片或视频文件（最多9个）
      * - 支持混合上传（图片和视频可以一起上传）
-     * - 逐个处理文件，部分失败不影响其他文件
-     * - 返回成功上传的文件列表和错误信息（如果有）
+     * - 多个文件并行处理，部分失败不影响其他文件
+     * - 返回成功上传的文件列表、每个文件的处理结果和错误信息（如果有）
      *
      * 使用场景：
      * - 发布包含多张图片的帖子
      * - 发布包含图片和视频的帖子
      *
      * 技术实现：
-     * - 接收MultipartFile数组
-     * - 遍历数组，逐个验证和上传
-     * - 收集成功和失败的结果
+     * - 接收MultipartFile数组；multipart 各部分由容器落盘（file-size-threshold: 0），不会把整个文件读进内存
+     * - 每个文件作为一个任务提交到有界线程池 uploadExecutor（见 UploadExecutorConfig），
+     *   任务内按流读取并写入存储，总耗时接近最慢的单个文件而不是所有文件之和
+     * - 按上传顺序收集结果：results 中每项对应一个文件（index 从 1 开始，success 表示是否成功）
      * - 如果所有文件都失败，返回错误；否则返回部分成功的结果
      *
      * @param files 上传的文件数组（multipart/form-data格式，字段名为files）
-     * @return 包含成功文件列表、成功数量、总数量、错误信息的响应
+     * @return 包含成功文件列表、逐个文件结果、成功数量、总数量、错误信息的响应
      */
     @PostMapping("/upload/batch")
     public ApiResponse<Map<String, Object>> uploadFiles(@RequestParam("files") MultipartFile[] files) {
@@ -214,52 +237,34 @@ public class PostController {
                 return ApiResponse.error(400, "最多只能上传9个文件");
             }
 
+            // 并行上传：每个文件一个任务，任务内部捕获异常，单个文件失败不影响其他文件
+            List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>(files.length);
+            for (int i = 0; i < files.length; i++) {
+                final int index = i + 1;
+                final MultipartFile file = files[i];
+                futures.add(CompletableFuture.supplyAsync(() -> uploadOne(index, file), uploadExecutor));
+            }
+
+            // 按上传顺序收集结果
+            List<Map<String, Object>> results = new ArrayList<>(files.length);
             // 用于存储成功上传的文件信息
             List<Map<String, Object>> fileList = new ArrayList<>();
             // 用于存储上传失败的错误信息
             List<String> errors = new ArrayList<>();
-
-            // 逐个上传文件：遍历文件数组，逐个处理
-            for (int i = 0; i < files.length; i++) {
-                MultipartFile file = files[i];
-                try {
-                    // 验证单个文件：检查文件是否为空
-                    if (file == null || file.isEmpty()) {
-                        errors.add("文件 " + (i + 1) + " 为空");
-                        continue;  // 跳过当前文件，继续处理下一个
-                    }
-
-                    // 检查文件类型：只支持图片和视频
-                    String filename = file.getOriginalFilename();
-                    if (!FileUtils.isImage(filename) && !FileUtils.isVideo(filename)) {
-                        errors.add("文件 " + (i + 1) + " 格式不支持（只支持图片或视频）");
-                        continue;  // 跳过当前文件，继续处理下一个
-                    }
-
-                    // 上传文件到文件服务器
-                    InputStream inputStream = FileUtils.toInputStream(file);
-                    FileService.FileInfo fileInfo = fileService.uploadFile(
-                            inputStream,
-                            filename,
-                            "community"  // 社区文件分类
-                    );
-
-                    Map<String, Object> fileData = new HashMap<>();
-                    fileData.put("url", fileInfo.getUrl());
-                    fileData.put("relativePath", fileInfo.getRelativePath());
-                    fileData.put("filename", fileInfo.getFilename());
-                    fileData.put("size", fileInfo.getSize());
-                    fileData.put("contentType", fileInfo.getContentType());
-                    fileList.add(fileData);
-
-                } catch (Exception e) {
-                    errors.add("文件 " + (i + 1) + " 上传失败: " + e.getMessage());
+            for (CompletableFuture<Map<String, Object>> future : futures) {
+                Map<String, Object> fileResult = future.join();
+                results.add(fileResult);
+                if (Boolean.TRUE.equals(fileResult.get("success"))) {
+                    fileList.add(fileResult);
+                } else {
+                    errors.add((String) fileResult.get("error"));
                 }
             }
 
             // 构建返回结果
             Map<String, Object> result = new HashMap<>();
             result.put("files", fileList);  // 成功上传的文件列表
+            result.put("results", results);  // 每个文件的处理结果（与上传顺序一致）
             result.put("successCount", fileList.size());  // 成功数量
             result.put("totalCount", files.length);  // 总数量
             if (!errors.isEmpty()) {
@@ -267,7 +272,7 @@ public class PostController {
             }
 
             // 如果所有文件都上传失败，返回错误
-            // 否则返回部分成功的结果（前端可以根据errors判断哪些文件失败了）
+            // 否则返回部分成功的结果（前端可以根据errors或results判断哪些文件失败了）
             if (fileList.isEmpty()) {
                 return ApiResponse.error(500, "所有文件上传失败: " + String.join(", ", errors));
             }
@@ -279,6 +284,55 @@ public class PostController {
         }
     }
 
+    /**
+     * 批量上传中的单个文件：校验并上传，异常转换为失败结果
+     * @param index 文件序号（从 1 开始）
+     */
+    private Map<String, Object> uploadOne(int index, MultipartFile file) {
+        Map<String, Object> fileData = new HashMap<>();
+        fileData.put("index", index);
+        try {
+            // 验证单个文件：检查文件是否为空
+            if (file == null || file.isEmpty()) {
+                return failure(fileData, "文件 " + index + " 为空");
+            }
+
+            // 检查文件类型：只支持图片和视频
+            String filename = file.getOriginalFilename();
+            if (!FileUtils.isImage(filename) && !FileUtils.isVideo(filename)) {
+                return failure(fileData, "文件 " + index + " 格式不支持（只支持图片或视频）");
+            }
+
+            // 上传文件到文件服务器：直接读取容器落盘的临时文件，边读边写入存储
+            FileService.FileInfo fileInfo;
+            try (InputStream inputStream = FileUtils.toInputStream(file)) {
+                fileInfo = fileService.uploadFile(
+                        inputStream,
+                        filename,
+                        "community"  // 社区文件分类
+                );
+            }
+
+            fileData.put("success", true);
+            fileData.put("url", fileInfo.getUrl());
+            fileData.put("relativePath", fileInfo.getRelativePath());
+            fileData.put("filename", fileInfo.getFilename());
+            fileData.put("size", fileInfo.getSize());
+            fileData.put("contentType", fileInfo.getContentType());
+            fileData.put("variants", fileInfo.getVariantUrls());
+            return fileData;
+
+        } catch (Exception e) {
+            return failure(fileData, "文件 " + index + " 上传失败: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> failure(Map<String, Object> fileData, String error) {
+        fileData.put("success", false);
+        fileData.put("error", error);
+        return fileData;
+    }
+
     /**
      * AI 服务回调：更新帖子 AI 标记状态
      * POST /posts/ai/update-flagged
@@ -6,6 +6,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -14,6 +15,7 @@ import java.util.Map;
  * 用途：
  * - 根据角色获取用户列表
  * - 获取用户基本信息
+ * - 批量获取用户基本信息（列表页填充作者）
  */
 @FeignClient(name = "auth-service", path = "/auth")
 public interface AuthServiceClient {
@@ -33,6 +35,16 @@ public interface AuthServiceClient {
             @RequestParam("pageSize") int pageSize
     );
 
+    /**
+     * 获取用户列表（游标分页）
+     * 第一页传空字符串，之后传上一页返回的 nextCursor；nextCursor 为 null 表示没有更多数据
+     */
+    @GetMapping("/users")
+    ApiResponse<Map<String, Object>> getUserListByCursor(
+            @RequestParam("cursor") String cursor,
+            @RequestParam("pageSize") int pageSize
+    );
+
     /**
      * 根据用户ID获取用户信息
      *
@@ -41,5 +53,14 @@ public interface AuthServiceClient {
      */
     @GetMapping("/users/{id}")
     ApiResponse<Map<String, Object>> getUserById(@PathVariable("id") Long userId);
+
+    /**
+     * 根据用户ID列表批量获取用户基本信息
+     *
+     * @param userIds 用户ID列表
+     * @return 用户信息列表，包含id、username、avatarUrl字段；不存在的用户不返回
+     */
+    @GetMapping("/users/batch")
+    ApiResponse<List<Map<String, Object>>> getUsersByIds(@RequestParam("ids") List<Long> userIds);
 }
 
@@ -0,0 +1,50 @@
+package com.adoption.community.listener;
+
+import com.adoption.community.config.RabbitMQConfig;
+import com.adoption.community.service.TimelineService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 新帖子分发监听器
+ * 监听 community.post.published 事件，把新帖子写入粉丝的关注时间线并通知粉丝
+ */
+@Component
+public class PostFanoutListener {
+
+    private static final Logger log = LoggerFactory.getLogger(PostFanoutListener.class);
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 监听新帖子发布事件
+     */
+    @RabbitListener(queues = RabbitMQConfig.POST_FANOUT_QUEUE)
+    public void handlePostPublished(String message) {
+        try {
+            Map<String, Object> eventData = objectMapper.readValue(message, Map.class);
+            Object postIdObj = eventData.get("postId");
+            Object authorIdObj = eventData.get("authorId");
+            if (postIdObj == null || authorIdObj == null) {
+                log.warn("分发消息缺少 postId 或 authorId，忽略处理: {}", message);
+                return;
+            }
+            Object title = eventData.get("title");
+            timelineService.fanOut(Long.valueOf(postIdObj.toString()), Long.valueOf(authorIdObj.toString()),
+                    title != null ? title.toString() : "");
+        } catch (Exception e) {
+            // 不重新投递：没有写入的时间线在过期重建时会从数据库补齐
+            log.error("处理帖子分发消息失败: {}", message, e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.adoption.community.model;
+
+/**
+ * 关注关系实体类
+ *
+ * 作用：表示一个用户（follower，粉丝）关注了另一个用户（followee，被关注者）
+ *
+ * 字段说明：
+ * - id: 关注记录唯一标识
+ * - followerId: 粉丝用户ID
+ * - followeeId: 被关注者用户ID
+ * - createdAt: 关注时间
+ *
+ * 注意：同一对用户只能有一条记录（唯一索引 follower_id + followee_id），关注 / 取消关注都是幂等操作
+ */
+public class Follow {
+    /** 关注记录唯一标识 */
+    private Long id;
+
+    /** 粉丝用户ID */
+    private Long followerId;
+
+    /** 被关注者用户ID */
+    private Long followeeId;
+
+    /** 关注时间（格式：yyyy-MM-dd HH:mm:ss） */
+    private String createdAt;
+
+    /** 列表中展示的用户（粉丝列表为粉丝，关注列表为被关注者）的用户名（非数据库字段，动态查询） */
+    private String username;
+
+    /** 列表中展示的用户的头像URL（非数据库字段，动态查询） */
+    private String avatarUrl;
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getFollowerId() {
+        return followerId;
+    }
+
+    public void setFollowerId(Long followerId) {
+        this.followerId = followerId;
+    }
+
+    public Long getFolloweeId() {
+        return followeeId;
+    }
+
+    public void setFolloweeId(Long followeeId) {
+        this.followeeId = followeeId;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getAvatarUrl() {
+        return avatarUrl;
+    }
+
+    public void setAvatarUrl(String avatarUrl) {
+        this.avatarUrl = avatarUrl;
+    }
+}
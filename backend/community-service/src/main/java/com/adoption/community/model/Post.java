@@ -1,5 +1,7 @@
 package com.adoption.community.model;
 
+import java.util.List;
+
 /**
  * 帖子实体类
  *
@@ -85,14 +87,14 @@ public class Post {
     /** 更新时间（格式：yyyy-MM-dd HH:mm:ss） */
     private String updatedAt;
 
-    // === 以下字段不存储在数据库，仅用于前端显示 ===
-
-    /** 点赞数（非数据库字段，动态统计） */
+    /** 点赞数（like_count 计数列，读取时加上尚未写回的增量，见 PostCounterService） */
     private Integer likeCount;
 
-    /** 评论数（非数据库字段，动态统计） */
+    /** 评论数（comment_count 计数列，读取时加上尚未写回的增量，见 PostCounterService） */
     private Integer commentCount;
 
+    // === 以下字段不存储在数据库，仅用于前端显示 ===
+
     /** 当前用户是否已点赞（非数据库字段，动态查询） */
     private Boolean isLiked;
 
@@ -102,6 +104,21 @@ public class Post {
     /** 帖子作者头像URL（非数据库字段，动态查询） */
     private String authorAvatarUrl;
 
+    /** 媒体文件对应的缩略图URL列表，顺序与mediaUrls一致（非数据库字段，列表页使用） */
+    private List<String> thumbnailUrls;
+
+    /** 热度分（非数据库字段，热门排序和管理员推荐使用，见 HotRankingService） */
+    private Double hotScore;
+
+    /** 浏览人数，按访客去重的近似值（非数据库字段，见 ViewCountService） */
+    private Long viewCount;
+
+    /** 高亮后的标题，命中词用 em 标签包裹、其余内容已做 HTML 转义（非数据库字段，搜索结果使用，见 PostSearchService） */
+    private String titleHighlight;
+
+    /** 正文中命中词附近的高亮片段（非数据库字段，搜索结果使用，见 PostSearchService） */
+    private String snippet;
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -246,5 +263,44 @@ public class Post {
     public void setAuthorAvatarUrl(String authorAvatarUrl) {
         this.authorAvatarUrl = authorAvatarUrl;
     }
-}
 
+    public List<String> getThumbnailUrls() {
+        return thumbnailUrls;
+    }
+
+    public void setThumbnailUrls(List<String> thumbnailUrls) {
+        this.thumbnailUrls = thumbnailUrls;
+    }
+
+    public Double getHotScore() {
+        return hotScore;
+    }
+
+    public void setHotScore(Double hotScore) {
+        this.hotScore = hotScore;
+    }
+
+    public Long getViewCount() {
+        return viewCount;
+    }
+
+    public void setViewCount(Long viewCount) {
+        this.viewCount = viewCount;
+    }
+
+    public String getTitleHighlight() {
+        return titleHighlight;
+    }
+
+    public void setTitleHighlight(String titleHighlight) {
+        this.titleHighlight = titleHighlight;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
+    }
+}
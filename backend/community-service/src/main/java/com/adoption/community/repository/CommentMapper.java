@@ -3,7 +3,9 @@ package com.adoption.community.repository;
 import com.adoption.community.model.Comment;
 import org.apache.ibatis.annotations.*;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 评论数据访问层（Mapper）
@@ -25,7 +27,8 @@ public interface CommentMapper {
      * @param id 评论ID
      * @return 评论对象，如果不存在返回null
      */
-    @Select("SELECT id, post_id AS postId, author_id AS authorId, content, status, created_at AS createdAt " +
+    @Select("SELECT id, post_id AS postId, author_id AS authorId, content, status, like_count AS likeCount, " +
+            "created_at AS createdAt " +
             "FROM comment WHERE id = #{id}")
     Comment findById(Long id);
 
@@ -34,15 +37,27 @@ public interface CommentMapper {
      * 
      * 注意：按创建时间正序排列，最早发布的评论在前
      * 
+     * 游标分页：传入 cursorTime / cursorId 时从该位置之后开始，offset 传 0，见 PageCursor
+     *
      * @param postId 帖子ID
+     * @param cursorTime 游标位置的创建时间（可选，null表示按offset分页）
+     * @param cursorId 游标位置的评论ID（与cursorTime同时传入）
      * @param offset 偏移量（用于分页）
      * @param limit 每页数量
      * @return 评论列表（按创建时间正序）
      */
-    @Select("SELECT id, post_id AS postId, author_id AS authorId, content, status, created_at AS createdAt " +
-            "FROM comment WHERE post_id = #{postId} AND status = 'VISIBLE' " +
-            "ORDER BY created_at ASC LIMIT #{limit} OFFSET #{offset}")
+    @Select({
+        "<script>",
+        "SELECT id, post_id AS postId, author_id AS authorId, content, status, like_count AS likeCount, ",
+        "created_at AS createdAt ",
+        "FROM comment WHERE post_id = #{postId} AND status = 'VISIBLE' ",
+        "<if test='cursorId != null'> AND (created_at &gt; #{cursorTime} OR (created_at = #{cursorTime} AND id &gt; #{cursorId})) </if>",
+        "ORDER BY created_at ASC, id ASC LIMIT #{limit} OFFSET #{offset}",
+        "</script>"
+    })
     List<Comment> findByPostId(@Param("postId") Long postId,
+                               @Param("cursorTime") String cursorTime,
+                               @Param("cursorId") Long cursorId,
                                @Param("offset") int offset,
                                @Param("limit") int limit);
 
@@ -55,6 +70,51 @@ public interface CommentMapper {
     @Select("SELECT COUNT(*) FROM comment WHERE post_id = #{postId} AND status = 'VISIBLE'")
     int countByPostId(Long postId);
 
+    /**
+     * 批量累加评论点赞数（PostCounterService 写回内存中的增量）
+     * 
+     * @param deltas 评论ID -> 点赞数增量
+     * @return 更新的行数
+     */
+    @Update({
+        "<script>",
+        "UPDATE comment SET like_count = GREATEST(like_count + CASE id ",
+        "<foreach collection='deltas' index='id' item='delta'> WHEN #{id} THEN #{delta} </foreach>",
+        "END, 0) WHERE id IN ",
+        "<foreach collection='deltas' index='id' open='(' separator=',' close=')'>#{id}</foreach>",
+        "</script>"
+    })
+    int addLikeCounts(@Param("deltas") Map<Long, Long> deltas);
+
+    /**
+     * 按实际点赞记录重新计算ID区间内评论的点赞数（修复 write-behind 产生的偏差）
+     * 
+     * @param afterId 区间起点（不含）
+     * @param toId 区间终点（含）
+     * @param excludedIds 跳过的评论ID（仍有未写回的点赞或计数增量，本轮不校准）
+     * @return 更新的行数
+     */
+    @Update({
+        "<script>",
+        "UPDATE comment SET like_count = ",
+        "(SELECT COUNT(*) FROM reaction WHERE reaction.comment_id = comment.id AND reaction.type = 'LIKE') ",
+        "WHERE id > #{afterId} AND id &lt;= #{toId}",
+        "<if test='excludedIds != null and !excludedIds.isEmpty()'>",
+        " AND id NOT IN <foreach collection='excludedIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+        "</if>",
+        "</script>"
+    })
+    int reconcileLikeCounts(@Param("afterId") long afterId, @Param("toId") long toId,
+                            @Param("excludedIds") Collection<Long> excludedIds);
+
+    /**
+     * 查询最大评论ID（计数校准按ID区间分批）
+     * 
+     * @return 最大ID，没有评论时返回null
+     */
+    @Select("SELECT MAX(id) FROM comment")
+    Long findMaxId();
+
     /**
      * 插入新评论
      * 
@@ -0,0 +1,158 @@
+package com.adoption.community.repository;
+
+import com.adoption.community.model.Follow;
+import org.apache.ibatis.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 关注关系数据访问层（Mapper）
+ *
+ * 作用：提供关注 / 取消关注、粉丝和关注列表、关注计数的数据库操作接口
+ *
+ * 注意：
+ * - 通过唯一索引 (follower_id, followee_id) 保证关注幂等
+ * - 计数保存在 user_follow_stat 表，随关注 / 取消关注在同一事务中增减，不再对 user_follow 做 COUNT(*)
+ */
+@Mapper
+public interface FollowMapper {
+
+    /**
+     * 关注（已关注时忽略）
+     *
+     * @return 插入的行数（0表示已关注）
+     */
+    @Insert("INSERT IGNORE INTO user_follow (follower_id, followee_id, created_at) " +
+            "VALUES (#{followerId}, #{followeeId}, NOW())")
+    int insert(@Param("followerId") Long followerId, @Param("followeeId") Long followeeId);
+
+    /**
+     * 取消关注
+     *
+     * @return 删除的行数（0表示未关注）
+     */
+    @Delete("DELETE FROM user_follow WHERE follower_id = #{followerId} AND followee_id = #{followeeId}")
+    int delete(@Param("followerId") Long followerId, @Param("followeeId") Long followeeId);
+
+    /**
+     * 是否已关注
+     */
+    @Select("SELECT COUNT(*) FROM user_follow WHERE follower_id = #{followerId} AND followee_id = #{followeeId}")
+    int exists(@Param("followerId") Long followerId, @Param("followeeId") Long followeeId);
+
+    /**
+     * 查询用户的粉丝列表（按关注时间倒序）
+     *
+     * 游标分页：传入 cursorTime / cursorId 时从该位置之后开始，见 PageCursor
+     *
+     * @param followeeId 被关注者用户ID
+     * @param cursorTime 游标位置的关注时间（可选）
+     * @param cursorId 游标位置的关注记录ID（与cursorTime同时传入）
+     * @param limit 每页数量
+     * @return 关注记录列表
+     */
+    @Select({
+        "<script>",
+        "SELECT id, follower_id AS followerId, followee_id AS followeeId, created_at AS createdAt ",
+        "FROM user_follow WHERE followee_id = #{followeeId} ",
+        "<if test='cursorId != null'> AND (created_at &lt; #{cursorTime} OR (created_at = #{cursorTime} AND id &lt; #{cursorId})) </if>",
+        "ORDER BY created_at DESC, id DESC LIMIT #{limit}",
+        "</script>"
+    })
+    List<Follow> findFollowers(@Param("followeeId") Long followeeId,
+                               @Param("cursorTime") String cursorTime,
+                               @Param("cursorId") Long cursorId,
+                               @Param("limit") int limit);
+
+    /**
+     * 查询用户的关注列表（按关注时间倒序）
+     *
+     * @param followerId 粉丝用户ID
+     * @param cursorTime 游标位置的关注时间（可选）
+     * @param cursorId 游标位置的关注记录ID（与cursorTime同时传入）
+     * @param limit 每页数量
+     * @return 关注记录列表
+     */
+    @Select({
+        "<script>",
+        "SELECT id, follower_id AS followerId, followee_id AS followeeId, created_at AS createdAt ",
+        "FROM user_follow WHERE follower_id = #{followerId} ",
+        "<if test='cursorId != null'> AND (created_at &lt; #{cursorTime} OR (created_at = #{cursorTime} AND id &lt; #{cursorId})) </if>",
+        "ORDER BY created_at DESC, id DESC LIMIT #{limit}",
+        "</script>"
+    })
+    List<Follow> findFollowing(@Param("followerId") Long followerId,
+                               @Param("cursorTime") String cursorTime,
+                               @Param("cursorId") Long cursorId,
+                               @Param("limit") int limit);
+
+    /**
+     * 按粉丝ID分批查询粉丝（新帖子分发）
+     *
+     * @param followeeId 被关注者用户ID
+     * @param afterId 从该粉丝ID之后开始（不含）
+     * @param limit 每批数量
+     * @return 粉丝用户ID（升序）
+     */
+    @Select("SELECT follower_id FROM user_follow WHERE followee_id = #{followeeId} AND follower_id > #{afterId} " +
+            "ORDER BY follower_id LIMIT #{limit}")
+    List<Long> findFollowerIds(@Param("followeeId") Long followeeId,
+                               @Param("afterId") long afterId,
+                               @Param("limit") int limit);
+
+    /**
+     * 查询用户关注的、粉丝数不超过阈值的用户（新帖子已推送到时间线的作者，重建时间线使用）
+     *
+     * @param followerId 粉丝用户ID
+     * @param threshold 推送模式的粉丝数上限
+     * @return 被关注者用户ID
+     */
+    @Select("SELECT f.followee_id FROM user_follow f " +
+            "LEFT JOIN user_follow_stat s ON s.user_id = f.followee_id " +
+            "WHERE f.follower_id = #{followerId} AND COALESCE(s.follower_count, 0) <= #{threshold}")
+    List<Long> findPushFolloweeIds(@Param("followerId") Long followerId, @Param("threshold") int threshold);
+
+    /**
+     * 查询用户关注的、粉丝数超过阈值的用户（新帖子不推送，读取时间线时拉取）
+     *
+     * @param followerId 粉丝用户ID
+     * @param threshold 推送模式的粉丝数上限
+     * @return 被关注者用户ID
+     */
+    @Select("SELECT f.followee_id FROM user_follow f " +
+            "JOIN user_follow_stat s ON s.user_id = f.followee_id " +
+            "WHERE f.follower_id = #{followerId} AND s.follower_count > #{threshold}")
+    List<Long> findPullFolloweeIds(@Param("followerId") Long followerId, @Param("threshold") int threshold);
+
+    /**
+     * 查询用户的关注计数
+     *
+     * @return followerCount、followingCount；没有记录时返回null
+     */
+    @Select("SELECT follower_count AS followerCount, following_count AS followingCount " +
+            "FROM user_follow_stat WHERE user_id = #{userId}")
+    Map<String, Object> findStat(Long userId);
+
+    /**
+     * 查询粉丝数
+     *
+     * @return 粉丝数；没有记录时返回null
+     */
+    @Select("SELECT follower_count FROM user_follow_stat WHERE user_id = #{userId}")
+    Integer findFollowerCount(Long userId);
+
+    /**
+     * 增减粉丝数（没有记录时插入）
+     */
+    @Insert("INSERT INTO user_follow_stat (user_id, follower_count, following_count) VALUES (#{userId}, GREATEST(#{delta}, 0), 0) " +
+            "ON DUPLICATE KEY UPDATE follower_count = GREATEST(follower_count + #{delta}, 0)")
+    void addFollowerCount(@Param("userId") Long userId, @Param("delta") int delta);
+
+    /**
+     * 增减关注数（没有记录时插入）
+     */
+    @Insert("INSERT INTO user_follow_stat (user_id, follower_count, following_count) VALUES (#{userId}, 0, GREATEST(#{delta}, 0)) " +
+            "ON DUPLICATE KEY UPDATE following_count = GREATEST(following_count + #{delta}, 0)")
+    void addFollowingCount(@Param("userId") Long userId, @Param("delta") int delta);
+}
@@ -3,7 +3,9 @@ package com.adoption.community.repository;
 import com.adoption.community.model.Post;
 import org.apache.ibatis.annotations.*;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 帖子数据访问层（Mapper）
@@ -28,7 +30,8 @@ public interface PostMapper {
      */
     @Select("SELECT id, author_id AS authorId, type, title, content, media_urls AS mediaUrls, " +
             "bind_pet_id AS bindPetId, ai_summary AS aiSummary, ai_flagged AS aiFlagged, " +
-            "status, recommend, created_at AS createdAt, updated_at AS updatedAt " +
+            "status, recommend, like_count AS likeCount, comment_count AS commentCount, " +
+            "created_at AS createdAt, updated_at AS updatedAt " +
             "FROM post WHERE id = #{id}")
     Post findById(Long id);
 
@@ -41,11 +44,14 @@ public interface PostMapper {
      * - 支持按推荐状态（recommend）筛选：true-只查推荐，false-只查非推荐，null-全部
      * - 支持排序方式：
      *   * latest或null：按创建时间倒序（最新优先）
-     *   * popular：按点赞数倒序，相同点赞数按时间倒序（最热优先）
+     *   * popular：按点赞数（like_count 列）倒序，相同点赞数按时间倒序（最热优先）
+     * - 支持游标分页（仅 latest）：传入 cursorTime / cursorId 时从该位置之后开始，offset 传 0，见 PageCursor
      *
      * @param type 帖子类型（可选，null表示不筛选）
      * @param sort 排序方式（latest-最新，popular-最热）
      * @param recommend 是否推荐（可选，null表示不筛选）
+     * @param cursorTime 游标位置的创建时间（可选，null表示按offset分页）
+     * @param cursorId 游标位置的帖子ID（与cursorTime同时传入）
      * @param offset 偏移量（用于分页）
      * @param limit 每页数量
      * @return 帖子列表
@@ -54,14 +60,16 @@ public interface PostMapper {
         "<script>",
         "SELECT id, author_id AS authorId, type, title, content, media_urls AS mediaUrls, ",
         "bind_pet_id AS bindPetId, ai_summary AS aiSummary, ai_flagged AS aiFlagged, ",
-        "status, recommend, created_at AS createdAt, updated_at AS updatedAt ",
+        "status, recommend, like_count AS likeCount, comment_count AS commentCount, ",
+        "created_at AS createdAt, updated_at AS updatedAt ",
         "FROM post WHERE status = 'PUBLISHED'",
         "<if test='type != null and type != \"\"'> AND type = #{type} </if>",
         "<if test='recommend != null'> AND recommend = #{recommend} </if>",
+        "<if test='cursorId != null'> AND (created_at &lt; #{cursorTime} OR (created_at = #{cursorTime} AND id &lt; #{cursorId})) </if>",
         "<choose>",
-        "  <when test='sort == \"latest\" or sort == null'> ORDER BY created_at DESC </when>",
-        "  <when test='sort == \"popular\"'> ORDER BY (SELECT COUNT(*) FROM reaction WHERE reaction.post_id = post.id) DESC, created_at DESC </when>",
-        "  <otherwise> ORDER BY created_at DESC </otherwise>",
+        "  <when test='sort == \"latest\" or sort == null'> ORDER BY created_at DESC, id DESC </when>",
+        "  <when test='sort == \"popular\"'> ORDER BY like_count DESC, created_at DESC </when>",
+        "  <otherwise> ORDER BY created_at DESC, id DESC </otherwise>",
         "</choose>",
         "LIMIT #{limit} OFFSET #{offset}",
         "</script>"
@@ -69,6 +77,8 @@ public interface PostMapper {
     List<Post> findAll(@Param("type") String type,
                        @Param("sort") String sort,
                        @Param("recommend") Boolean recommend,
+                       @Param("cursorTime") String cursorTime,
+                       @Param("cursorId") Long cursorId,
                        @Param("offset") int offset,
                        @Param("limit") int limit);
 
@@ -98,7 +108,8 @@ public interface PostMapper {
      */
     @Select("SELECT id, author_id AS authorId, type, title, content, media_urls AS mediaUrls, " +
             "bind_pet_id AS bindPetId, ai_summary AS aiSummary, ai_flagged AS aiFlagged, " +
-            "status, recommend, created_at AS createdAt, updated_at AS updatedAt " +
+            "status, recommend, like_count AS likeCount, comment_count AS commentCount, " +
+            "created_at AS createdAt, updated_at AS updatedAt " +
             "FROM post WHERE author_id = #{authorId} ORDER BY created_at DESC " +
             "LIMIT #{limit} OFFSET #{offset}")
     List<Post> findByAuthorId(@Param("authorId") Long authorId,
@@ -123,7 +134,8 @@ public interface PostMapper {
      */
     @Select("SELECT id, author_id AS authorId, type, title, content, media_urls AS mediaUrls, " +
             "bind_pet_id AS bindPetId, ai_summary AS aiSummary, ai_flagged AS aiFlagged, " +
-            "status, recommend, created_at AS createdAt, updated_at AS updatedAt " +
+            "status, recommend, like_count AS likeCount, comment_count AS commentCount, " +
+            "created_at AS createdAt, updated_at AS updatedAt " +
             "FROM post WHERE ai_flagged = TRUE ORDER BY created_at DESC " +
             "LIMIT #{limit} OFFSET #{offset}")
     List<Post> findFlaggedPosts(@Param("offset") int offset, @Param("limit") int limit);
@@ -199,6 +211,131 @@ public interface PostMapper {
     @Update("UPDATE post SET ai_flagged = #{aiFlagged}, updated_at = NOW() WHERE id = #{id}")
     void updateAiFlagged(@Param("id") Long id, @Param("aiFlagged") Boolean aiFlagged);
 
+    /**
+     * 批量累加点赞数（PostCounterService 写回内存中的增量）
+     *
+     * 注意：updated_at = updated_at 防止计数变化刷新帖子的更新时间
+     *
+     * @param deltas 帖子ID -> 点赞数增量
+     * @return 更新的行数
+     */
+    @Update({
+        "<script>",
+        "UPDATE post SET like_count = GREATEST(like_count + CASE id ",
+        "<foreach collection='deltas' index='id' item='delta'> WHEN #{id} THEN #{delta} </foreach>",
+        "END, 0), updated_at = updated_at WHERE id IN ",
+        "<foreach collection='deltas' index='id' open='(' separator=',' close=')'>#{id}</foreach>",
+        "</script>"
+    })
+    int addLikeCounts(@Param("deltas") Map<Long, Long> deltas);
+
+    /**
+     * 批量累加评论数（PostCounterService 写回内存中的增量）
+     *
+     * @param deltas 帖子ID -> 评论数增量
+     * @return 更新的行数
+     */
+    @Update({
+        "<script>",
+        "UPDATE post SET comment_count = GREATEST(comment_count + CASE id ",
+        "<foreach collection='deltas' index='id' item='delta'> WHEN #{id} THEN #{delta} </foreach>",
+        "END, 0), updated_at = updated_at WHERE id IN ",
+        "<foreach collection='deltas' index='id' open='(' separator=',' close=')'>#{id}</foreach>",
+        "</script>"
+    })
+    int addCommentCounts(@Param("deltas") Map<Long, Long> deltas);
+
+    /**
+     * 按实际点赞、评论记录重新计算ID区间内帖子的计数列（修复 write-behind 产生的偏差）
+     *
+     * @param afterId 区间起点（不含）
+     * @param toId 区间终点（含）
+     * @param excludedIds 跳过的帖子ID（仍有未写回的点赞或计数增量，本轮不校准）
+     * @return 更新的行数
+     */
+    @Update({
+        "<script>",
+        "UPDATE post SET ",
+        "like_count = (SELECT COUNT(*) FROM reaction WHERE reaction.post_id = post.id AND reaction.type = 'LIKE'), ",
+        "comment_count = (SELECT COUNT(*) FROM comment WHERE comment.post_id = post.id AND comment.status = 'VISIBLE'), ",
+        "updated_at = updated_at ",
+        "WHERE id > #{afterId} AND id &lt;= #{toId}",
+        "<if test='excludedIds != null and !excludedIds.isEmpty()'>",
+        " AND id NOT IN <foreach collection='excludedIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+        "</if>",
+        "</script>"
+    })
+    int reconcileCounts(@Param("afterId") long afterId, @Param("toId") long toId,
+                        @Param("excludedIds") Collection<Long> excludedIds);
+
+    /**
+     * 查询最大帖子ID（计数校准按ID区间分批）
+     *
+     * @return 最大ID，没有帖子时返回null
+     */
+    @Select("SELECT MAX(id) FROM post")
+    Long findMaxId();
+
+    /**
+     * 根据ID批量查询帖子（热门列表按 HotRankingService 给出的ID取帖子）
+     *
+     * @param ids 帖子ID列表
+     * @return 帖子列表（顺序不保证与ids一致）
+     */
+    @Select({
+        "<script>",
+        "SELECT id, author_id AS authorId, type, title, content, media_urls AS mediaUrls, ",
+        "bind_pet_id AS bindPetId, ai_summary AS aiSummary, ai_flagged AS aiFlagged, ",
+        "status, recommend, like_count AS likeCount, comment_count AS commentCount, ",
+        "created_at AS createdAt, updated_at AS updatedAt ",
+        "FROM post WHERE id IN ",
+        "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+        "</script>"
+    })
+    List<Post> findByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * 按ID分批查询已发布帖子的热度相关字段（重建热度排行）
+     *
+     * @param afterId 从该ID之后开始（不含）
+     * @param limit 每批数量
+     * @return 帖子列表（只包含 id、type、likeCount、commentCount、createdAt，按ID升序）
+     */
+    @Select("SELECT id, type, like_count AS likeCount, comment_count AS commentCount, created_at AS createdAt " +
+            "FROM post WHERE status = 'PUBLISHED' AND id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<Post> findPublishedForRanking(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 按ID分批查询已发布帖子的检索字段（重建全文索引）
+     *
+     * @param afterId 从该ID之后开始（不含）
+     * @param limit 每批数量
+     * @return 帖子列表（只包含 id、authorId、type、title、content、createdAt，按ID升序）
+     */
+    @Select("SELECT id, author_id AS authorId, type, title, content, created_at AS createdAt " +
+            "FROM post WHERE status = 'PUBLISHED' AND id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<Post> findPublishedForSearch(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 查询若干作者最新的已发布帖子ID（关注时间线）
+     *
+     * @param authorIds 作者用户ID列表（不能为空）
+     * @param beforeId 只查询ID小于该值的帖子（可选，null表示从最新开始）
+     * @param limit 最多返回数量
+     * @return 帖子ID（降序）
+     */
+    @Select({
+        "<script>",
+        "SELECT id FROM post WHERE status = 'PUBLISHED' AND author_id IN ",
+        "<foreach collection='authorIds' item='authorId' open='(' separator=',' close=')'>#{authorId}</foreach>",
+        "<if test='beforeId != null'> AND id &lt; #{beforeId} </if>",
+        "ORDER BY id DESC LIMIT #{limit}",
+        "</script>"
+    })
+    List<Long> findPublishedIdsByAuthors(@Param("authorIds") List<Long> authorIds,
+                                         @Param("beforeId") Long beforeId,
+                                         @Param("limit") int limit);
+
     /**
      * 删除帖子（只能删除自己的帖子）
      *
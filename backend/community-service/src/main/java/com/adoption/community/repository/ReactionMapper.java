@@ -3,6 +3,8 @@ package com.adoption.community.repository;
 import com.adoption.community.model.Reaction;
 import org.apache.ibatis.annotations.*;
 
+import java.util.List;
+
 /**
  * 互动反应数据访问层（Mapper）
  * 
@@ -58,6 +60,54 @@ public interface ReactionMapper {
     @Select("SELECT COUNT(*) FROM reaction WHERE post_id = #{postId} AND type = 'LIKE'")
     int countByPostId(Long postId);
 
+    /**
+     * 查询用户点赞过的帖子（列表页一次查询整页的"是否已点赞"）
+     * 
+     * @param userId 用户ID
+     * @param postIds 帖子ID列表（不能为空）
+     * @return 其中用户已点赞的帖子ID
+     */
+    @Select({
+        "<script>",
+        "SELECT post_id FROM reaction WHERE user_id = #{userId} AND type = 'LIKE' AND post_id IN ",
+        "<foreach collection='postIds' item='postId' open='(' separator=',' close=')'>#{postId}</foreach>",
+        "</script>"
+    })
+    List<Long> findLikedPostIds(@Param("userId") Long userId, @Param("postIds") List<Long> postIds);
+
+    /**
+     * 查询用户点赞过的评论（评论列表一次查询整页的"是否已点赞"）
+     * 
+     * @param userId 用户ID
+     * @param commentIds 评论ID列表（不能为空）
+     * @return 其中用户已点赞的评论ID
+     */
+    @Select({
+        "<script>",
+        "SELECT comment_id FROM reaction WHERE user_id = #{userId} AND type = 'LIKE' AND comment_id IN ",
+        "<foreach collection='commentIds' item='commentId' open='(' separator=',' close=')'>#{commentId}</foreach>",
+        "</script>"
+    })
+    List<Long> findLikedCommentIds(@Param("userId") Long userId, @Param("commentIds") List<Long> commentIds);
+
+    /**
+     * 查询点赞了帖子的全部用户（LikeService 载入点赞集合）
+     * 
+     * @param postId 帖子ID
+     * @return 用户ID列表
+     */
+    @Select("SELECT user_id FROM reaction WHERE post_id = #{postId} AND type = 'LIKE'")
+    List<Long> findLikeUserIdsByPostId(Long postId);
+
+    /**
+     * 查询点赞了评论的全部用户（LikeService 载入点赞集合）
+     * 
+     * @param commentId 评论ID
+     * @return 用户ID列表
+     */
+    @Select("SELECT user_id FROM reaction WHERE comment_id = #{commentId} AND type = 'LIKE'")
+    List<Long> findLikeUserIdsByCommentId(Long commentId);
+
     /**
      * 统计评论的点赞数
      * 
@@ -79,6 +129,50 @@ public interface ReactionMapper {
     @Options(useGeneratedKeys = true, keyProperty = "id")
     void insert(Reaction reaction);
 
+    /**
+     * 批量插入点赞记录（LikeService 异步写回）
+     * 
+     * 注意：INSERT IGNORE，已存在的记录（唯一索引冲突）和已删除的帖子/评论（外键失败）直接跳过
+     * 
+     * @param reactions 点赞记录（postId 和 commentId 二选一）
+     * @return 实际插入的行数
+     */
+    @Insert({
+        "<script>",
+        "INSERT IGNORE INTO reaction (post_id, comment_id, user_id, type, created_at) VALUES ",
+        "<foreach collection='reactions' item='r' separator=','>(#{r.postId}, #{r.commentId}, #{r.userId}, 'LIKE', NOW())</foreach>",
+        "</script>"
+    })
+    int insertLikes(@Param("reactions") List<Reaction> reactions);
+
+    /**
+     * 批量删除帖子点赞记录（LikeService 异步写回）
+     * 
+     * @param reactions 点赞记录（userId、postId）
+     * @return 删除的行数
+     */
+    @Delete({
+        "<script>",
+        "DELETE FROM reaction WHERE type = 'LIKE' AND (user_id, post_id) IN ",
+        "<foreach collection='reactions' item='r' open='(' separator=',' close=')'>(#{r.userId}, #{r.postId})</foreach>",
+        "</script>"
+    })
+    int deletePostLikes(@Param("reactions") List<Reaction> reactions);
+
+    /**
+     * 批量删除评论点赞记录（LikeService 异步写回）
+     * 
+     * @param reactions 点赞记录（userId、commentId）
+     * @return 删除的行数
+     */
+    @Delete({
+        "<script>",
+        "DELETE FROM reaction WHERE type = 'LIKE' AND (user_id, comment_id) IN ",
+        "<foreach collection='reactions' item='r' open='(' separator=',' close=')'>(#{r.userId}, #{r.commentId})</foreach>",
+        "</script>"
+    })
+    int deleteCommentLikes(@Param("reactions") List<Reaction> reactions);
+
     /**
      * 删除用户对帖子的互动记录（取消点赞）
      * 
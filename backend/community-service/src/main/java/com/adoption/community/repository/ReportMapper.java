@@ -35,7 +35,11 @@ public interface ReportMapper {
      * 
      * 用于客服查看待处理或已处理的举报
      * 
+     * 游标分页：传入 cursorTime / cursorId 时从该位置之后开始，offset 传 0，见 PageCursor
+     *
      * @param status 处理状态（可选，PENDING-待处理，REVIEWED-已处理，null-全部）
+     * @param cursorTime 游标位置的创建时间（可选，null表示按offset分页）
+     * @param cursorId 游标位置的举报ID（与cursorTime同时传入）
      * @param offset 偏移量（用于分页）
      * @param limit 每页数量
      * @return 举报列表（按创建时间倒序）
@@ -46,10 +50,13 @@ public interface ReportMapper {
         "reason, status, reviewed_by AS reviewedBy, reviewed_at AS reviewedAt, created_at AS createdAt ",
         "FROM report WHERE 1=1",
         "<if test='status != null and status != \"\"'> AND status = #{status} </if>",
-        "ORDER BY created_at DESC LIMIT #{limit} OFFSET #{offset}",
+        "<if test='cursorId != null'> AND (created_at &lt; #{cursorTime} OR (created_at = #{cursorTime} AND id &lt; #{cursorId})) </if>",
+        "ORDER BY created_at DESC, id DESC LIMIT #{limit} OFFSET #{offset}",
         "</script>"
     })
     List<Report> findAll(@Param("status") String status,
+                         @Param("cursorTime") String cursorTime,
+                         @Param("cursorId") Long cursorId,
                          @Param("offset") int offset,
                          @Param("limit") int limit);
 
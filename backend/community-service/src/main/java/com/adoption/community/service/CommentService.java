@@ -1,20 +1,23 @@
 package com.adoption.community.service;
 
 import com.adoption.common.api.ApiResponse;
+import com.adoption.common.api.PageCursor;
+import com.adoption.common.service.CacheInvalidationMessageService;
 import com.adoption.common.util.UserContext;
 import com.adoption.community.feign.AuthServiceClient;
 import com.adoption.community.model.Comment;
 import com.adoption.community.model.Post;
-import com.adoption.community.model.Reaction;
 import com.adoption.community.repository.CommentMapper;
 import com.adoption.community.repository.PostMapper;
-import com.adoption.community.repository.ReactionMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 评论服务层
@@ -32,18 +35,26 @@ import java.util.Map;
 public class CommentService {
     private final CommentMapper commentMapper;
     private final PostMapper postMapper;
-    private final ReactionMapper reactionMapper;
     @Autowired
     private final NotificationMessageService notificationMessageService;
     @Autowired
     private final AuthServiceClient authServiceClient;
     @Autowired
     private UserContext userContext;
+    @Autowired
+    private CacheInvalidationMessageService cacheInvalidationMessageService;
+    @Autowired
+    private PostCounterService postCounterService;
+    @Autowired
+    private HotRankingService hotRankingService;
+    @Autowired
+    private LikeService likeService;
+    @Autowired
+    private PostCacheService postCacheService;
 
-    public CommentService(CommentMapper commentMapper, PostMapper postMapper, ReactionMapper reactionMapper, NotificationMessageService notificationMessageService, AuthServiceClient authServiceClient) {
+    public CommentService(CommentMapper commentMapper, PostMapper postMapper, NotificationMessageService notificationMessageService, AuthServiceClient authServiceClient) {
         this.commentMapper = commentMapper;
         this.postMapper = postMapper;
-        this.reactionMapper = reactionMapper;
         this.notificationMessageService = notificationMessageService;
         this.authServiceClient = authServiceClient;
     }
@@ -59,9 +70,10 @@ public class CommentService {
      * @param postId 帖子ID
      * @param page 页码（从1开始，默认1）
      * @param pageSize 每页数量（默认20，最大100）
+     * @param cursor 游标（可选，传入时使用游标分页，第一页传空字符串，之后传上一页返回的 nextCursor）
      * @return 包含评论列表、总数、页码等信息的响应
      */
-    public ApiResponse<Map<String, Object>> getComments(Long postId, Integer page, Integer pageSize) {
+    public ApiResponse<Map<String, Object>> getComments(Long postId, Integer page, Integer pageSize, String cursor) {
         Post post = postMapper.findById(postId);
         if (post == null) {
             return ApiResponse.error(404, "帖子不存在");
@@ -77,26 +89,42 @@ public class CommentService {
             pageSize = 100;
         }
 
-        int offset = (page - 1) * pageSize;
-        List<Comment> comments = commentMapper.findByPostId(postId, offset, pageSize);
-        int total = commentMapper.countByPostId(postId);
+        PageCursor pageCursor;
+        try {
+            pageCursor = PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(400, "无效的分页游标");
+        }
+        List<Comment> comments;
+        String nextCursor = null;
+        if (cursor != null) {
+            comments = commentMapper.findByPostId(postId, pageCursor != null ? pageCursor.getCreatedAt() : null,
+                    pageCursor != null ? pageCursor.getId() : null, 0, pageSize + 1);
+            nextCursor = PageCursor.next(comments, pageSize, Comment::getCreatedAt, Comment::getId);
+        } else {
+            int offset = (page - 1) * pageSize;
+            comments = commentMapper.findByPostId(postId, null, null, offset, pageSize);
+        }
+        int total = postCounterService.getPostCommentCount(postId, post.getCommentCount());
 
         // 获取当前用户ID（如果未登录则为null）
         Long currentUserId = userContext.getCurrentUserId();
 
+        // 一次查询整页评论的"是否已点赞"（如果已登录）
+        Set<Long> likedCommentIds = new HashSet<>();
+        if (currentUserId != null && !comments.isEmpty()) {
+            List<Long> commentIds = new ArrayList<>(comments.size());
+            for (Comment comment : comments) {
+                commentIds.add(comment.getId());
+            }
+            likedCommentIds = likeService.findLikedCommentIds(currentUserId, commentIds);
+        }
+
         // 为每个评论统计点赞数、是否已点赞，并填充用户信息
         for (Comment comment : comments) {
-            // 统计点赞数
-            int likeCount = reactionMapper.countByCommentId(comment.getId());
-            comment.setLikeCount(likeCount);
-
-            // 查询当前用户是否已点赞（如果已登录）
-            if (currentUserId != null) {
-                Reaction reaction = reactionMapper.findByUserIdAndCommentId(currentUserId, comment.getId(), "LIKE");
-                comment.setIsLiked(reaction != null);
-            } else {
-                comment.setIsLiked(false);
-            }
+            // 点赞数：计数列 + 尚未写回的增量
+            comment.setLikeCount(postCounterService.getCommentLikeCount(comment.getId(), comment.getLikeCount()));
+            comment.setIsLiked(likedCommentIds.contains(comment.getId()));
 
             // 填充用户信息（userId、userName、userAvatarUrl）
             if (comment.getAuthorId() != null) {
@@ -124,7 +152,11 @@ public class CommentService {
         Map<String, Object> result = new HashMap<>();
         result.put("list", comments);
         result.put("total", total);
-        result.put("page", page);
+        if (cursor != null) {
+            result.put("nextCursor", nextCursor);
+        } else {
+            result.put("page", page);
+        }
         result.put("pageSize", pageSize);
 
         return ApiResponse.success(result);
@@ -165,6 +197,12 @@ public class CommentService {
         }
 
         commentMapper.insert(comment);
+        if ("VISIBLE".equals(comment.getStatus())) {
+            postCounterService.addPostComment(postId, 1);
+            hotRankingService.onPostCommented(post, 1);
+        }
+        cacheInvalidationMessageService.invalidatePost(postId);
+        postCacheService.invalidatePostDetail(postId);
 
         // 发送通知给帖子作者
         try {
@@ -216,6 +254,15 @@ public class CommentService {
 
         int deleted = commentMapper.deleteByIdAndAuthorId(id, authorId);
         if (deleted > 0) {
+            if ("VISIBLE".equals(comment.getStatus())) {
+                postCounterService.addPostComment(comment.getPostId(), -1);
+                Post post = postMapper.findById(comment.getPostId());
+                if (post != null && "PUBLISHED".equals(post.getStatus())) {
+                    hotRankingService.onPostCommented(post, -1);
+                }
+            }
+            cacheInvalidationMessageService.invalidatePost(comment.getPostId());
+            postCacheService.invalidatePostDetail(comment.getPostId());
             return ApiResponse.success("删除成功");
         } else {
             return ApiResponse.error(500, "删除失败");
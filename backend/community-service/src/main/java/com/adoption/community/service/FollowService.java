@@ -0,0 +1,243 @@
+package com.adoption.community.service;
+
+import com.adoption.common.api.ApiResponse;
+import com.adoption.common.api.PageCursor;
+import com.adoption.community.feign.AuthServiceClient;
+import com.adoption.community.model.Follow;
+import com.adoption.community.repository.FollowMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 关注服务层
+ *
+ * 作用：处理用户之间关注关系的业务逻辑
+ *
+ * 主要功能：
+ * - 关注 / 取消关注（幂等操作）
+ * - 粉丝列表、关注列表（游标分页）
+ * - 粉丝数、关注数
+ *
+ * 注意：关注计数保存在 user_follow_stat 表，与关注关系在同一事务中更新；
+ * 关注 / 取消关注的事务提交后再调整粉丝的关注时间线（Redis，不随事务回滚），见 TimelineService
+ */
+@Service
+public class FollowService {
+    private static final Logger log = LoggerFactory.getLogger(FollowService.class);
+
+    private final FollowMapper followMapper;
+    @Autowired
+    private AuthServiceClient authServiceClient;
+    @Autowired
+    private TimelineService timelineService;
+
+    public FollowService(FollowMapper followMapper) {
+        this.followMapper = followMapper;
+    }
+
+    /**
+     * 关注用户（幂等）
+     *
+     * @param followerId 当前用户ID
+     * @param followeeId 被关注的用户ID
+     * @return 包含isFollowing和followerCount（被关注用户的粉丝数）的响应
+     */
+    @Transactional
+    public ApiResponse<Map<String, Object>> follow(Long followerId, Long followeeId) {
+        if (followerId.equals(followeeId)) {
+            return ApiResponse.error(400, "不能关注自己");
+        }
+        if (!userExists(followeeId)) {
+            return ApiResponse.error(404, "用户不存在");
+        }
+
+        if (followMapper.insert(followerId, followeeId) > 0) {
+            followMapper.addFollowerCount(followeeId, 1);
+            followMapper.addFollowingCount(followerId, 1);
+            afterCommit(() -> timelineService.onFollow(followerId, followeeId));
+        }
+        return ApiResponse.success(followResult(true, followeeId));
+    }
+
+    /**
+     * 取消关注（幂等）
+     *
+     * @param followerId 当前用户ID
+     * @param followeeId 被取消关注的用户ID
+     * @return 包含isFollowing和followerCount（被取消关注用户的粉丝数）的响应
+     */
+    @Transactional
+    public ApiResponse<Map<String, Object>> unfollow(Long followerId, Long followeeId) {
+        if (followMapper.delete(followerId, followeeId) > 0) {
+            followMapper.addFollowerCount(followeeId, -1);
+            followMapper.addFollowingCount(followerId, -1);
+            afterCommit(() -> timelineService.onUnfollow(followerId, followeeId));
+        }
+        return ApiResponse.success(followResult(false, followeeId));
+    }
+
+    /**
+     * 当前事务提交后执行（事务回滚时不执行）；没有事务时立即执行
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * 获取用户的粉丝列表（按关注时间倒序，游标分页）
+     *
+     * @param userId 用户ID
+     * @param cursor 游标（可选，第一页不传，之后传上一页返回的 nextCursor）
+     * @param pageSize 每页数量（默认20，最大100）
+     * @return 包含粉丝列表（用户ID为followerId）和下一页游标的响应
+     */
+    public ApiResponse<Map<String, Object>> getFollowers(Long userId, String cursor, Integer pageSize) {
+        return listFollows(userId, cursor, pageSize, true);
+    }
+
+    /**
+     * 获取用户的关注列表（按关注时间倒序，游标分页）
+     *
+     * @param userId 用户ID
+     * @param cursor 游标（可选，第一页不传，之后传上一页返回的 nextCursor）
+     * @param pageSize 每页数量（默认20，最大100）
+     * @return 包含关注列表（用户ID为followeeId）和下一页游标的响应
+     */
+    public ApiResponse<Map<String, Object>> getFollowing(Long userId, String cursor, Integer pageSize) {
+        return listFollows(userId, cursor, pageSize, false);
+    }
+
+    /**
+     * 获取用户的粉丝数和关注数
+     *
+     * @param userId 用户ID
+     * @param currentUserId 当前用户ID（未登录为null）
+     * @return 包含followerCount、followingCount、isFollowing（当前用户是否已关注）的响应
+     */
+    public ApiResponse<Map<String, Object>> getFollowStats(Long userId, Long currentUserId) {
+        Map<String, Object> stat = followMapper.findStat(userId);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("userId", userId);
+        result.put("followerCount", stat != null ? stat.get("followerCount") : 0);
+        result.put("followingCount", stat != null ? stat.get("followingCount") : 0);
+        result.put("isFollowing", currentUserId != null && followMapper.exists(currentUserId, userId) > 0);
+        return ApiResponse.success(result);
+    }
+
+    private ApiResponse<Map<String, Object>> listFollows(Long userId, String cursor, Integer pageSize, boolean followers) {
+        if (pageSize == null || pageSize < 1) {
+            pageSize = 20;
+        }
+        if (pageSize > 100) {
+            pageSize = 100;
+        }
+        PageCursor pageCursor;
+        try {
+            pageCursor = PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(400, "无效的分页游标");
+        }
+
+        String cursorTime = pageCursor != null ? pageCursor.getCreatedAt() : null;
+        Long cursorId = pageCursor != null ? pageCursor.getId() : null;
+        List<Follow> follows = followers
+                ? followMapper.findFollowers(userId, cursorTime, cursorId, pageSize + 1)
+                : followMapper.findFollowing(userId, cursorTime, cursorId, pageSize + 1);
+        String nextCursor = PageCursor.next(follows, pageSize, Follow::getCreatedAt, Follow::getId);
+        fillUsers(follows, followers);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("list", follows);
+        result.put("pageSize", pageSize);
+        result.put("nextCursor", nextCursor);
+        return ApiResponse.success(result);
+    }
+
+    /**
+     * 一次批量 Feign 调用填充列表中展示的用户（粉丝列表为粉丝，关注列表为被关注者）的用户名和头像
+     * 获取失败不影响主流程，用户信息留空
+     */
+    private void fillUsers(List<Follow> follows, boolean followers) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (Follow follow : follows) {
+            userIds.add(followers ? follow.getFollowerId() : follow.getFolloweeId());
+        }
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Map<String, Object>> users = new HashMap<>();
+        try {
+            ApiResponse<List<Map<String, Object>>> response = authServiceClient.getUsersByIds(new ArrayList<>(userIds));
+            if (response != null && response.getCode() == 200 && response.getData() != null) {
+                for (Map<String, Object> user : response.getData()) {
+                    Object id = user.get("id");
+                    if (id != null) {
+                        users.put(((Number) id).longValue(), user);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("批量获取关注列表用户信息失败，userIds: {}, error: {}", userIds, e.getMessage());
+        }
+
+        for (Follow follow : follows) {
+            Map<String, Object> user = users.get(followers ? follow.getFollowerId() : follow.getFolloweeId());
+            if (user == null) {
+                continue;
+            }
+            Object usernameObj = user.get("username");
+            if (usernameObj != null) {
+                follow.setUsername(usernameObj.toString());
+            }
+            Object avatarUrlObj = user.get("avatarUrl");
+            if (avatarUrlObj != null) {
+                follow.setAvatarUrl(avatarUrlObj.toString());
+            }
+        }
+    }
+
+    /**
+     * 检查用户是否存在
+     * auth-service 不可用时不阻止关注，只记录日志
+     */
+    private boolean userExists(Long userId) {
+        try {
+            ApiResponse<Map<String, Object>> response = authServiceClient.getUserById(userId);
+            return response != null && response.getCode() == 200 && response.getData() != null;
+        } catch (Exception e) {
+            log.warn("获取被关注用户信息失败，userId: {}, error: {}", userId, e.getMessage());
+            return true;
+        }
+    }
+
+    private Map<String, Object> followResult(boolean isFollowing, Long followeeId) {
+        Integer followerCount = followMapper.findFollowerCount(followeeId);
+        Map<String, Object> result = new HashMap<>();
+        result.put("isFollowing", isFollowing);
+        result.put("followerCount", followerCount != null ? followerCount : 0);
+        return result;
+    }
+}
@@ -0,0 +1,348 @@
+package com.adoption.community.service;
+
+import com.adoption.common.service.ViewCountService;
+import com.adoption.community.model.Post;
+import com.adoption.community.repository.PostMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 帖子热度排行
+ *
+ * 热度 = Σ 权重 × 2^(-(现在 - 事件时间) / 半衰期)，事件包括发帖、点赞、评论和新访客浏览；越新的互动贡献越大，
+ * 没有新互动的帖子热度每过一个半衰期减半
+ *
+ * 实现：Redis ZSET（community:hot:all 及按类型的 community:hot:{type}），
+ * 成员为帖子ID，分值为 log2(Σ 权重 × 2^((事件时间 - 基准时间) / 半衰期))。
+ * 所有帖子的衰减因子相同，因此按该分值排序与按当前热度排序一致，分值不需要随时间重算；
+ * 每个事件通过 Lua 脚本在对数域上原子累加（log-sum-exp），点赞 / 取消点赞、评论 / 删除评论都是 O(log N)
+ *
+ * - 热门列表按排名直接取帖子ID，不再对全部帖子做关联子查询和文件排序
+ * - ZSET 只保留前 max-size 名，超出范围的分页以及 Redis 不可用时回退到数据库按点赞数排序
+ * - 启动时 ZSET 为空则从数据库重建，之后每天重建一次，修复漏掉的事件
+ *   （重建时把点赞、评论、浏览视为发帖时发生，互动的时间分布以后续增量事件为准）
+ */
+@Service
+public class HotRankingService {
+    private static final Logger log = LoggerFactory.getLogger(HotRankingService.class);
+
+    private static final String KEY_PREFIX = "community:hot:";
+    private static final String ALL_KEY = KEY_PREFIX + "all";
+
+    /**
+     * 帖子类型，与 post.type 枚举一致
+     */
+    private static final List<String> TYPES = Arrays.asList("PET_PUBLISH", "DAILY", "GUIDE");
+
+    /**
+     * 分值基准时间（2024-01-01 00:00 UTC），分值 = log2(权重) + (事件时间 - 基准时间) / 半衰期
+     */
+    private static final long EPOCH_MILLIS = 1704067200000L;
+
+    private static final DateTimeFormatter DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * ARGV: 帖子ID, 事件分值, 操作（1 累加，-1 扣减，0 直接设置为初始分值）, 初始分值, 最多保留数量
+     * 帖子不在 ZSET 中时以初始分值（按发帖时间和当前计数估算）为起点
+     */
+    private static final DefaultRedisScript<String> UPDATE_SCRIPT = new DefaultRedisScript<>(
+            "local member = ARGV[1]\n" +
+            "local x = tonumber(ARGV[2])\n" +
+            "local op = tonumber(ARGV[3])\n" +
+            "local base = tonumber(ARGV[4])\n" +
+            "local maxSize = tonumber(ARGV[5])\n" +
+            "local result = base\n" +
+            "for _, key in ipairs(KEYS) do\n" +
+            "  local s = tonumber(redis.call('ZSCORE', key, member) or base)\n" +
+            "  if op == 0 then\n" +
+            "    s = base\n" +
+            "  elseif op > 0 then\n" +
+            "    local hi = math.max(s, x)\n" +
+            "    local lo = math.min(s, x)\n" +
+            "    s = hi + math.log(1 + math.pow(2, lo - hi)) / math.log(2)\n" +
+            "  elseif x < s then\n" +
+            "    s = s + math.log(1 - math.pow(2, x - s)) / math.log(2)\n" +
+            "  end\n" +
+            "  redis.call('ZADD', key, s, member)\n" +
+            "  redis.call('ZREMRANGEBYRANK', key, 0, -maxSize - 1)\n" +
+            "  result = s\n" +
+            "end\n" +
+            "return tostring(result)",
+            String.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final PostMapper postMapper;
+
+    @Value("${community.hot.half-life-hours:24}")
+    private double halfLifeHours;
+
+    @Value("${community.hot.post-weight:3}") // 发帖本身的权重，新帖子有初始热度
+    private double postWeight;
+
+    @Value("${community.hot.like-weight:1}")
+    private double likeWeight;
+
+    @Value("${community.hot.comment-weight:2}")
+    private double commentWeight;
+
+    @Value("${community.hot.view-weight:0.2}") // 每个新访客的权重，浏览比点赞容易得多，权重较低
+    private double viewWeight;
+
+    @Value("${community.hot.max-size:10000}")
+    private int maxSize;
+
+    @Autowired
+    private ViewCountService viewCountService;
+
+    public HotRankingService(StringRedisTemplate redisTemplate, PostMapper postMapper) {
+        this.redisTemplate = redisTemplate;
+        this.postMapper = postMapper;
+    }
+
+    /**
+     * 帖子发布（或恢复为已发布）：按发帖时间和当前计数设置初始热度
+     */
+    public void onPostPublished(Post post) {
+        update(post, 0, 0);
+    }
+
+    /**
+     * 帖子被点赞（delta = 1）或取消点赞（delta = -1）
+     */
+    public void onPostLiked(Post post, int delta) {
+        update(post, likeWeight, delta);
+    }
+
+    /**
+     * 帖子新增（delta = 1）或删除（delta = -1）评论
+     */
+    public void onPostCommented(Post post, int delta) {
+        update(post, commentWeight, delta);
+    }
+
+    /**
+     * 帖子有新访客（按 ViewCountService 去重）
+     */
+    public void onPostViewed(Post post) {
+        update(post, viewWeight, 1);
+    }
+
+    /**
+     * 帖子删除或下架：移出排行
+     */
+    public void remove(Post post) {
+        try {
+            redisTemplate.opsForZSet().remove(ALL_KEY, post.getId().toString());
+            if (post.getType() != null) {
+                redisTemplate.opsForZSet().remove(KEY_PREFIX + post.getType(), post.getId().toString());
+            }
+        } catch (Exception e) {
+            log.warn("移出热度排行失败: postId={}, error={}", post.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 按热度取一页帖子ID
+     * @param type 帖子类型（null 表示全部）
+     * @return 帖子ID（热度从高到低）；超出排行范围、排行尚未建立或 Redis 不可用时返回 null，调用方回退到数据库排序
+     */
+    public List<Long> getHotPostIds(String type, int offset, int limit) {
+        if (offset + limit > maxSize) {
+            return null;
+        }
+        String key = type != null && !type.isEmpty() ? KEY_PREFIX + type : ALL_KEY;
+        try {
+            Set<String> members = redisTemplate.opsForZSet().reverseRange(key, offset, offset + limit - 1);
+            if (members == null || (members.isEmpty() && offset == 0 && !Boolean.TRUE.equals(redisTemplate.hasKey(key)))) {
+                return null;
+            }
+            List<Long> ids = new ArrayList<>(members.size());
+            for (String member : members) {
+                ids.add(Long.valueOf(member));
+            }
+            return ids;
+        } catch (Exception e) {
+            log.warn("读取热度排行失败，回退到数据库排序: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 查询帖子当前热度（已按半衰期衰减到当前时间，相当于"当前等效互动数"）
+     * @return 帖子ID -> 热度；不在排行中的帖子不返回
+     */
+    public Map<Long, Double> getHotScores(List<Long> postIds) {
+        Map<Long, Double> scores = new HashMap<>();
+        if (postIds.isEmpty()) {
+            return scores;
+        }
+        try {
+            Object[] members = new Object[postIds.size()];
+            for (int i = 0; i < postIds.size(); i++) {
+                members[i] = postIds.get(i).toString();
+            }
+            List<Double> raw = redisTemplate.opsForZSet().score(ALL_KEY, members);
+            double now = units(System.currentTimeMillis());
+            for (int i = 0; i < postIds.size() && raw != null; i++) {
+                if (raw.get(i) != null) {
+                    scores.put(postIds.get(i), Math.round(Math.pow(2, raw.get(i) - now) * 100) / 100.0);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("读取热度失败: {}", e.getMessage());
+        }
+        return scores;
+    }
+
+    /**
+     * 启动时排行为空则从数据库重建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        try {
+            Long size = redisTemplate.opsForZSet().zCard(ALL_KEY);
+            if (size == null || size == 0) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.warn("初始化热度排行失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 从数据库全量重建排行：先写入临时 key，完成后 RENAME 原子替换
+     */
+    @Scheduled(cron = "${community.hot.rebuild-cron:0 30 4 * * *}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        String suffix = ":rebuild:" + start;
+        Set<String> written = new HashSet<>();
+        long afterId = 0;
+        int total = 0;
+        try {
+            List<Post> batch;
+            while (!(batch = postMapper.findPublishedForRanking(afterId, 1000)).isEmpty()) {
+                List<Long> ids = new ArrayList<>(batch.size());
+                for (Post post : batch) {
+                    ids.add(post.getId());
+                }
+                Map<Long, Long> viewCounts = viewCountService.getViewCounts(ids);
+                Map<String, Set<ZSetOperations.TypedTuple<String>>> tuples = new HashMap<>();
+                for (Post post : batch) {
+                    post.setViewCount(viewCounts.get(post.getId()));
+                    ZSetOperations.TypedTuple<String> tuple =
+                            ZSetOperations.TypedTuple.of(post.getId().toString(), baseScore(post));
+                    tuples.computeIfAbsent(ALL_KEY, k -> new HashSet<>()).add(tuple);
+                    if (post.getType() != null) {
+                        tuples.computeIfAbsent(KEY_PREFIX + post.getType(), k -> new HashSet<>()).add(tuple);
+                    }
+                    afterId = post.getId();
+                }
+                for (Map.Entry<String, Set<ZSetOperations.TypedTuple<String>>> entry : tuples.entrySet()) {
+                    String tempKey = entry.getKey() + suffix;
+                    redisTemplate.opsForZSet().add(tempKey, entry.getValue());
+                    redisTemplate.opsForZSet().removeRange(tempKey, 0, -maxSize - 1L);
+                    written.add(entry.getKey());
+                }
+                total += batch.size();
+            }
+
+            List<String> keys = new ArrayList<>();
+            keys.add(ALL_KEY);
+            for (String type : TYPES) {
+                keys.add(KEY_PREFIX + type);
+            }
+            for (String key : keys) {
+                if (written.contains(key)) {
+                    redisTemplate.rename(key + suffix, key);
+                } else {
+                    redisTemplate.delete(key);
+                }
+            }
+            log.info("热度排行重建完成: {} 个帖子, 耗时 {}ms", total, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("热度排行重建失败", e);
+            for (String key : written) {
+                redisTemplate.delete(key + suffix);
+            }
+        }
+    }
+
+    private void update(Post post, double weight, int delta) {
+        if (post == null || post.getId() == null) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(2);
+        keys.add(ALL_KEY);
+        if (post.getType() != null) {
+            keys.add(KEY_PREFIX + post.getType());
+        }
+        double eventScore = weight > 0 ? log2(weight * Math.abs(delta)) + units(System.currentTimeMillis()) : 0;
+        try {
+            redisTemplate.execute(UPDATE_SCRIPT, keys,
+                    post.getId().toString(),
+                    String.valueOf(eventScore),
+                    String.valueOf(Integer.signum(delta)),
+                    String.valueOf(baseScore(post)),
+                    String.valueOf(maxSize));
+        } catch (Exception e) {
+            // 排行只影响热门排序，更新失败不影响主流程，每日重建会修复
+            log.warn("更新热度排行失败: postId={}, error={}", post.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 按发帖时间和当前计数估算的分值（把已有互动视为发帖时发生）
+     */
+    private double baseScore(Post post) {
+        double weight = postWeight
+                + likeWeight * (post.getLikeCount() != null ? post.getLikeCount() : 0)
+                + commentWeight * (post.getCommentCount() != null ? post.getCommentCount() : 0)
+                + viewWeight * (post.getViewCount() != null ? post.getViewCount() : 0);
+        return log2(weight) + units(createdAtMillis(post));
+    }
+
+    /**
+     * 基准时间到 millis 经过的半衰期数
+     */
+    private double units(long millis) {
+        return (millis - EPOCH_MILLIS) / (halfLifeHours * 3600_000d);
+    }
+
+    private static double log2(double value) {
+        return Math.log(value) / Math.log(2);
+    }
+
+    private static long createdAtMillis(Post post) {
+        String createdAt = post.getCreatedAt();
+        if (createdAt != null && createdAt.length() >= 19) {
+            try {
+                return LocalDateTime.parse(createdAt.substring(0, 19).replace('T', ' '), DATETIME)
+                        .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            } catch (Exception e) {
+                // 格式异常时按当前时间处理
+            }
+        }
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,563 @@
+package com.adoption.community.service;
+
+import com.adoption.common.api.ApiResponse;
+import com.adoption.community.feign.AuthServiceClient;
+import com.adoption.community.model.Comment;
+import com.adoption.community.model.Post;
+import com.adoption.community.model.Reaction;
+import com.adoption.community.repository.ReactionMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 点赞引擎
+ *
+ * 每个帖子 / 评论的点赞用户保存在一个 Redis SET 中（community:like:post:{id}、community:like:comment:{id}），
+ * 点赞 / 取消点赞是一次 Lua 脚本调用：原子地切换成员并返回新状态和点赞数，连续点击、多实例并发都不会产生唯一索引冲突
+ *
+ * - 集合按需从 reaction 表载入（写入临时 key 后 RENAMENX，避免和并发切换互相覆盖），
+ *   集合中始终有一个占位成员，用来区分"没有人点赞"和"尚未载入"；每次切换刷新过期时间，冷数据过期后再次访问时重新载入
+ * - reaction 表异步写回：切换后只记录 (目标, 用户) 待写回，每隔 flush-interval-ms 合并成批量 INSERT IGNORE / DELETE；
+ *   同一用户在一个周期内反复点击只写回一次，写回时以 Redis 中的当前状态为准，多实例写回顺序不影响结果
+ * - 点赞通知按 (接收人, 帖子 / 评论) 聚合：写回后计入聚合窗口，每隔 notify-window-ms 每个目标只发一条消息，
+ *   带点赞人数和前几个点赞者用户名（每 200 人一次批量查询），由 notification-service 合并为一条收件箱消息；
+ *   窗口内又取消的点赞不计入
+ * - 进程异常退出时未写回的记录会丢失，计数列由 PostCounterService 定期校准
+ */
+@Service
+public class LikeService {
+    private static final Logger log = LoggerFactory.getLogger(LikeService.class);
+
+    private static final String POST_KEY = "community:like:post:";
+    private static final String COMMENT_KEY = "community:like:comment:";
+
+    /**
+     * 占位成员（用户ID不会是该值），集合存在即表示已载入
+     */
+    private static final String PLACEHOLDER = "-";
+
+    /**
+     * 载入集合时每次 SADD 的成员数
+     */
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    /**
+     * 点赞通知中展示用户名的点赞者数量
+     */
+    private static final int NOTIFY_ACTOR_NAMES = 3;
+
+    /**
+     * 每次批量查询用户名的最大用户数（auth-service 批量接口的上限）
+     */
+    private static final int USER_LOOKUP_BATCH_SIZE = 200;
+
+    /**
+     * KEYS[1]: 集合 key；ARGV: 用户ID, 过期时间（秒）
+     * 返回 {新状态（1 已点赞，0 未点赞，-1 集合尚未载入）, 点赞数}
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> TOGGLE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then\n" +
+            "  return {-1, 0}\n" +
+            "end\n" +
+            "local liked = 1\n" +
+            "if redis.call('SREM', KEYS[1], ARGV[1]) == 1 then\n" +
+            "  liked = 0\n" +
+            "else\n" +
+            "  redis.call('SADD', KEYS[1], ARGV[1])\n" +
+            "end\n" +
+            "redis.call('EXPIRE', KEYS[1], ARGV[2])\n" +
+            "return {liked, redis.call('SCARD', KEYS[1]) - 1}",
+            List.class);
+
+    /**
+     * KEYS: 集合 key；ARGV[i]: 对应 KEYS[i] 要查询的用户ID
+     * 返回每个 key 的结果：1 已点赞，0 未点赞，-1 集合尚未载入
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> MEMBERSHIP_SCRIPT = new DefaultRedisScript<>(
+            "local result = {}\n" +
+            "for i, key in ipairs(KEYS) do\n" +
+            "  if redis.call('EXISTS', key) == 0 then\n" +
+            "    result[i] = -1\n" +
+            "  else\n" +
+            "    result[i] = redis.call('SISMEMBER', key, ARGV[i])\n" +
+            "  end\n" +
+            "end\n" +
+            "return result",
+            List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ReactionMapper reactionMapper;
+    private final AuthServiceClient authServiceClient;
+    private final NotificationMessageService notificationMessageService;
+
+    /**
+     * 待写回的点赞状态，key 为 集合key|用户ID，同一用户多次切换只保留最后一次
+     */
+    private final ConcurrentHashMap<String, PendingLike> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 聚合窗口内的点赞通知，key 为 接收人|目标；只在 compute 中修改
+     */
+    private final ConcurrentHashMap<String, LikeDigest> digests = new ConcurrentHashMap<>();
+
+    @Value("${community.like.ttl-hours:168}")
+    private long ttlHours;
+
+    @Value("${community.like.batch-size:500}")
+    private int batchSize;
+
+    public LikeService(StringRedisTemplate redisTemplate, ReactionMapper reactionMapper,
+                       AuthServiceClient authServiceClient, NotificationMessageService notificationMessageService) {
+        this.redisTemplate = redisTemplate;
+        this.reactionMapper = reactionMapper;
+        this.authServiceClient = authServiceClient;
+        this.notificationMessageService = notificationMessageService;
+    }
+
+    /**
+     * 切换用户对帖子的点赞状态
+     * @return 切换后的状态和点赞数
+     * @throws RuntimeException Redis 不可用时
+     */
+    public LikeResult togglePostLike(Post post, Long userId) {
+        String key = POST_KEY + post.getId();
+        LikeResult result = toggle(key, () -> reactionMapper.findLikeUserIdsByPostId(post.getId()), userId);
+        enqueue(new PendingLike(key, post.getId(), null, userId, result.isLiked(),
+                post.getAuthorId(), "post:" + post.getId(), "您的帖子收到新点赞", "点赞了您的帖子《" + post.getTitle() + "》"));
+        return result;
+    }
+
+    /**
+     * 切换用户对评论的点赞状态
+     * @return 切换后的状态和点赞数
+     * @throws RuntimeException Redis 不可用时
+     */
+    public LikeResult toggleCommentLike(Comment comment, Long userId) {
+        String key = COMMENT_KEY + comment.getId();
+        LikeResult result = toggle(key, () -> reactionMapper.findLikeUserIdsByCommentId(comment.getId()), userId);
+        String content = comment.getContent();
+        String preview = content != null && content.length() > 20 ? content.substring(0, 20) + "..." : content;
+        enqueue(new PendingLike(key, null, comment.getId(), userId, result.isLiked(),
+                comment.getAuthorId(), "comment:" + comment.getId(), "您的评论收到新点赞", "点赞了您的评论：" + preview));
+        return result;
+    }
+
+    /**
+     * 查询用户是否已点赞帖子
+     */
+    public boolean isPostLiked(Long postId, Long userId) {
+        return findLikedPostIds(userId, Collections.singletonList(postId)).contains(postId);
+    }
+
+    /**
+     * 查询用户点赞过的帖子（一次 Redis 调用，集合尚未载入的帖子查数据库）
+     * @return 其中用户已点赞的帖子ID
+     */
+    public Set<Long> findLikedPostIds(Long userId, List<Long> postIds) {
+        return findLiked(POST_KEY, userId, postIds, missing -> reactionMapper.findLikedPostIds(userId, missing));
+    }
+
+    /**
+     * 查询用户点赞过的评论（一次 Redis 调用，集合尚未载入的评论查数据库）
+     * @return 其中用户已点赞的评论ID
+     */
+    public Set<Long> findLikedCommentIds(Long userId, List<Long> commentIds) {
+        return findLiked(COMMENT_KEY, userId, commentIds, missing -> reactionMapper.findLikedCommentIds(userId, missing));
+    }
+
+    /**
+     * 把待写回的点赞状态批量写入 reaction 表，并计入点赞通知的聚合窗口
+     */
+    @Scheduled(fixedDelayString = "${community.like.flush-interval-ms:500}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<PendingLike> drained = new ArrayList<>();
+        for (Map.Entry<String, PendingLike> entry : pending.entrySet()) {
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                drained.add(entry.getValue());
+            }
+        }
+        for (int from = 0; from < drained.size(); from += batchSize) {
+            persist(drained.subList(from, Math.min(from + batchSize, drained.size())));
+        }
+    }
+
+    /**
+     * 写回待写入的点赞后执行 action，执行期间暂停写回（计数校准用，见 PostCounterService.reconcile）：
+     * action 看到的 reaction 表不会被并发修改，期间新产生的点赞留在内存中，可由 pendingPostIds / pendingCommentIds 查到
+     */
+    public synchronized <T> T flushAndHold(Supplier<T> action) {
+        flush();
+        return action.get();
+    }
+
+    /**
+     * 仍有点赞未写入 reaction 表的帖子ID
+     */
+    public Set<Long> pendingPostIds() {
+        Set<Long> ids = new HashSet<>();
+        for (PendingLike like : pending.values()) {
+            if (like.postId != null) {
+                ids.add(like.postId);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 仍有点赞未写入 reaction 表的评论ID
+     */
+    public Set<Long> pendingCommentIds() {
+        Set<Long> ids = new HashSet<>();
+        for (PendingLike like : pending.values()) {
+            if (like.commentId != null) {
+                ids.add(like.commentId);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 发送聚合窗口内的点赞通知：每个 (接收人, 目标) 一条消息
+     */
+    @Scheduled(fixedDelayString = "${community.like.notify-window-ms:60000}")
+    public synchronized void sendNotifications() {
+        if (digests.isEmpty()) {
+            return;
+        }
+        List<LikeDigest> drained = new ArrayList<>();
+        for (String key : digests.keySet()) {
+            LikeDigest digest = digests.remove(key);
+            if (digest != null && !digest.actorIds.isEmpty()) {
+                drained.add(digest);
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (LikeDigest digest : drained) {
+            userIds.addAll(digest.recentActorIds());
+        }
+        Map<Long, String> userNames = findUserNames(userIds);
+
+        for (LikeDigest digest : drained) {
+            List<String> actorNames = new ArrayList<>();
+            for (Long actorId : digest.recentActorIds()) {
+                actorNames.add(userNames.getOrDefault(actorId, "用户"));
+            }
+            notificationMessageService.sendLikeNotification(digest.ownerId, digest.target, digest.title, digest.body,
+                    actorNames, new ArrayList<>(digest.actorIds));
+        }
+        log.debug("点赞通知已聚合发送: {} 条", drained.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        sendNotifications();
+    }
+
+    private LikeResult toggle(String key, Supplier<List<Long>> loader, Long userId) {
+        String ttlSeconds = String.valueOf(ttlHours * 3600);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            List<?> result = redisTemplate.execute(TOGGLE_SCRIPT, Collections.singletonList(key),
+                    userId.toString(), ttlSeconds);
+            long state = ((Number) result.get(0)).longValue();
+            if (state >= 0) {
+                return new LikeResult(state == 1, ((Number) result.get(1)).intValue());
+            }
+            load(key, loader);
+        }
+        throw new IllegalStateException("点赞集合载入失败: " + key);
+    }
+
+    /**
+     * 从数据库载入点赞集合，叠加本实例尚未写回的状态
+     */
+    private void load(String key, Supplier<List<Long>> loader) {
+        Set<String> members = new LinkedHashSet<>();
+        members.add(PLACEHOLDER);
+        for (Long userId : loader.get()) {
+            members.add(userId.toString());
+        }
+        for (PendingLike like : pending.values()) {
+            if (like.key.equals(key)) {
+                if (like.liked) {
+                    members.add(like.userId.toString());
+                } else {
+                    members.remove(like.userId.toString());
+                }
+            }
+        }
+
+        String tempKey = key + ":load:" + UUID.randomUUID();
+        List<String> list = new ArrayList<>(members);
+        for (int from = 0; from < list.size(); from += LOAD_CHUNK_SIZE) {
+            List<String> chunk = list.subList(from, Math.min(from + LOAD_CHUNK_SIZE, list.size()));
+            redisTemplate.opsForSet().add(tempKey, chunk.toArray(new String[0]));
+        }
+        redisTemplate.expire(tempKey, Duration.ofHours(ttlHours));
+        if (!Boolean.TRUE.equals(redisTemplate.renameIfAbsent(tempKey, key))) {
+            // 其他请求已先载入
+            redisTemplate.delete(tempKey);
+        }
+    }
+
+    private Set<Long> findLiked(String prefix, Long userId, List<Long> ids, DatabaseLookup database) {
+        Set<Long> liked = new HashSet<>();
+        if (userId == null || ids.isEmpty()) {
+            return liked;
+        }
+        List<Long> missing = new ArrayList<>();
+        try {
+            List<String> keys = new ArrayList<>(ids.size());
+            String[] args = new String[ids.size()];
+            for (int i = 0; i < ids.size(); i++) {
+                keys.add(prefix + ids.get(i));
+                args[i] = userId.toString();
+            }
+            List<?> result = redisTemplate.execute(MEMBERSHIP_SCRIPT, keys, (Object[]) args);
+            for (int i = 0; i < ids.size(); i++) {
+                long state = ((Number) result.get(i)).longValue();
+                if (state == 1) {
+                    liked.add(ids.get(i));
+                } else if (state < 0) {
+                    missing.add(ids.get(i));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("查询点赞状态失败，回退到数据库: {}", e.getMessage());
+            liked.clear();
+            missing = ids;
+        }
+        if (!missing.isEmpty()) {
+            liked.addAll(database.find(missing));
+        }
+        return liked;
+    }
+
+    private void enqueue(PendingLike like) {
+        pending.put(like.key + "|" + like.userId, like);
+    }
+
+    private void persist(List<PendingLike> batch) {
+        resolveStates(batch);
+
+        List<Reaction> inserts = new ArrayList<>();
+        List<Reaction> postDeletes = new ArrayList<>();
+        List<Reaction> commentDeletes = new ArrayList<>();
+        for (PendingLike like : batch) {
+            Reaction reaction = new Reaction();
+            reaction.setPostId(like.postId);
+            reaction.setCommentId(like.commentId);
+            reaction.setUserId(like.userId);
+            reaction.setType("LIKE");
+            if (like.liked) {
+                inserts.add(reaction);
+            } else if (like.postId != null) {
+                postDeletes.add(reaction);
+            } else {
+                commentDeletes.add(reaction);
+            }
+        }
+
+        try {
+            if (!inserts.isEmpty()) {
+                reactionMapper.insertLikes(inserts);
+            }
+            if (!postDeletes.isEmpty()) {
+                reactionMapper.deletePostLikes(postDeletes);
+            }
+            if (!commentDeletes.isEmpty()) {
+                reactionMapper.deleteCommentLikes(commentDeletes);
+            }
+        } catch (Exception e) {
+            // 写回失败：放回待写回表，下次重试（期间有新的切换则以新的为准）
+            log.warn("点赞写回失败: {} 条, error={}", batch.size(), e.getMessage());
+            for (PendingLike like : batch) {
+                pending.putIfAbsent(like.key + "|" + like.userId, like);
+            }
+            return;
+        }
+        log.debug("点赞写回: 新增 {} 条, 删除 {} 条", inserts.size(), postDeletes.size() + commentDeletes.size());
+
+        addToDigests(batch);
+    }
+
+    /**
+     * 以 Redis 中的当前状态为准修正待写回状态（集合已过期时保留切换时的状态）
+     */
+    private void resolveStates(List<PendingLike> batch) {
+        try {
+            List<String> keys = new ArrayList<>(batch.size());
+            String[] args = new String[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                keys.add(batch.get(i).key);
+                args[i] = batch.get(i).userId.toString();
+            }
+            List<?> result = redisTemplate.execute(MEMBERSHIP_SCRIPT, keys, (Object[]) args);
+            for (int i = 0; i < batch.size(); i++) {
+                long state = ((Number) result.get(i)).longValue();
+                if (state >= 0) {
+                    batch.get(i).liked = state == 1;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("读取点赞状态失败，按切换时的状态写回: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 把写回的点赞计入聚合窗口，窗口内取消的点赞从中移除
+     */
+    private void addToDigests(List<PendingLike> batch) {
+        for (PendingLike like : batch) {
+            if (like.ownerId == null) {
+                continue;
+            }
+            digests.compute(like.ownerId + "|" + like.target, (key, digest) -> {
+                if (like.liked) {
+                    if (digest == null) {
+                        digest = new LikeDigest(like.ownerId, like.target, like.title, like.body);
+                    }
+                    digest.actorIds.add(like.userId);
+                } else if (digest != null) {
+                    digest.actorIds.remove(like.userId);
+                }
+                return digest;
+            });
+        }
+    }
+
+    /**
+     * 分批调用 auth-service 获取用户名，每批不超过 USER_LOOKUP_BATCH_SIZE 个用户
+     * 获取失败不影响通知，该批用户名使用默认值
+     */
+    private Map<Long, String> findUserNames(Set<Long> userIds) {
+        Map<Long, String> userNames = new HashMap<>();
+        List<Long> ids = new ArrayList<>(userIds);
+        for (int from = 0; from < ids.size(); from += USER_LOOKUP_BATCH_SIZE) {
+            List<Long> chunk = new ArrayList<>(ids.subList(from, Math.min(from + USER_LOOKUP_BATCH_SIZE, ids.size())));
+            try {
+                ApiResponse<List<Map<String, Object>>> response = authServiceClient.getUsersByIds(chunk);
+                if (response != null && response.getCode() == 200 && response.getData() != null) {
+                    for (Map<String, Object> user : response.getData()) {
+                        Object id = user.get("id");
+                        Object username = user.get("username");
+                        if (id != null && username != null) {
+                            userNames.put(((Number) id).longValue(), username.toString());
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("批量获取点赞者用户名失败: {} 人, error={}", chunk.size(), e.getMessage());
+            }
+        }
+        return userNames;
+    }
+
+    /**
+     * 点赞切换结果
+     */
+    public static final class LikeResult {
+        private final boolean liked;
+        private final int count;
+
+        private LikeResult(boolean liked, int count) {
+            this.liked = liked;
+            this.count = count;
+        }
+
+        public boolean isLiked() { return liked; }
+        public int getCount() { return count; }
+    }
+
+    /**
+     * 待写回的点赞状态
+     */
+    private static final class PendingLike {
+        private final String key;
+        private final Long postId;
+        private final Long commentId;
+        private final Long userId;
+        private volatile boolean liked;
+        /** 被点赞内容的作者（通知接收人） */
+        private final Long ownerId;
+        /** 被点赞内容（post:{id} 或 comment:{id}），通知按接收人和该值聚合 */
+        private final String target;
+        private final String title;
+        /** 通知正文（不含点赞者用户名） */
+        private final String body;
+
+        private PendingLike(String key, Long postId, Long commentId, Long userId, boolean liked,
+                            Long ownerId, String target, String title, String body) {
+            this.key = key;
+            this.postId = postId;
+            this.commentId = commentId;
+            this.userId = userId;
+            this.liked = liked;
+            this.ownerId = ownerId;
+            this.target = target;
+            this.title = title;
+            this.body = body;
+        }
+    }
+
+    /**
+     * 聚合窗口内同一 (接收人, 目标) 的点赞
+     */
+    private static final class LikeDigest {
+        private final Long ownerId;
+        private final String target;
+        private final String title;
+        private final String body;
+        /** 点赞者（按点赞顺序，同一用户只计一次） */
+        private final Set<Long> actorIds = new LinkedHashSet<>();
+
+        private LikeDigest(Long ownerId, String target, String title, String body) {
+            this.ownerId = ownerId;
+            this.target = target;
+            this.title = title;
+            this.body = body;
+        }
+
+        /**
+         * 通知中展示用户名的点赞者（最近点赞的几位，最新的在前）
+         */
+        private List<Long> recentActorIds() {
+            List<Long> ids = new ArrayList<>(actorIds);
+            List<Long> recent = new ArrayList<>(ids.subList(Math.max(0, ids.size() - NOTIFY_ACTOR_NAMES), ids.size()));
+            Collections.reverse(recent);
+            return recent;
+        }
+    }
+
+    private interface DatabaseLookup {
+        List<Long> find(List<Long> ids);
+    }
+}
@@ -108,6 +108,43 @@ public class NotificationMessageService {
         sendSystemNotification(userId, title, body, null);
     }
 
+    /**
+     * 发送批量系统通知：同一条通知发给多个用户，只发送一条消息，
+     * notification-service 批量写入每个用户的收件箱（如新帖子通知粉丝，见 TimelineService）
+     *
+     * @param userIds 接收者用户ID
+     * @param title 通知标题
+     * @param body 通知内容
+     */
+    public void sendBulkSystemNotification(List<Long> userIds, String title, String body) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("userIds", userIds);
+            payload.put("title", title);
+            payload.put("body", body);
+
+            Map<String, Object> message = new HashMap<>();
+            message.put("eventType", "notify.bulk"); // 事件类型：批量系统通知
+            message.put("payload", payload);
+
+            String messageJson = objectMapper.writeValueAsString(message);
+
+            rabbitTemplate.convertAndSend(
+                    RabbitMQConfig.NOTIFY_EXCHANGE,
+                    "notify.bulk",
+                    messageJson
+            );
+
+            log.info("批量系统通知已发送: {} 人, title={}", userIds.size(), title);
+
+        } catch (Exception e) {
+            log.error("发送批量系统通知失败: {} 人, error={}", userIds.size(), e.getMessage(), e);
+        }
+    }
+
     /**
      * 发送私信通知消息
      *
@@ -143,18 +180,29 @@ public class NotificationMessageService {
     }
 
     /**
-     * 发送点赞通知消息
+     * 发送点赞通知消息（聚合窗口内同一目标的多次点赞合并为一条，见 LikeService）
+     *
+     * notification-service 按 (userId, groupKey) 把同一目标的点赞合并到一条未读收件箱消息，
+     * 正文形如"张三、李四等13人点赞了您的帖子《xxx》"
      *
      * @param userId 接收者用户ID
+     * @param groupKey 被点赞内容（post:{id} 或 comment:{id}）
      * @param title 通知标题
-     * @param body 通知内容
+     * @param body 通知内容（不含点赞者，如"点赞了您的帖子《xxx》"）
+     * @param actorNames 最近几个点赞者的用户名（最新的在前）
+     * @param actorIds 本窗口内的全部点赞者ID（notification-service 跨窗口去重后得出"等N人"）
      */
-    public void sendLikeNotification(Long userId, String title, String body) {
+    public void sendLikeNotification(Long userId, String groupKey, String title, String body,
+                                     List<String> actorNames, List<Long> actorIds) {
         try {
             Map<String, Object> payload = new HashMap<>();
             payload.put("userId", userId);
+            payload.put("groupKey", groupKey);
             payload.put("title", title);
             payload.put("body", body);
+            payload.put("actorNames", actorNames);
+            payload.put("actorIds", actorIds);
+            payload.put("actorCount", actorIds.size());
 
             Map<String, Object> message = new HashMap<>();
             message.put("eventType", "notify.likes"); // 事件类型：点赞通知
@@ -168,7 +216,7 @@ public class NotificationMessageService {
                     messageJson
             );
 
-            log.info("点赞通知已发送: userId={}", userId);
+            log.info("点赞通知已发送: userId={}, groupKey={}, actorCount={}", userId, groupKey, actorIds.size());
 
         } catch (Exception e) {
             log.error("发送点赞通知失败: userId={}, error={}", userId, e.getMessage(), e);
@@ -186,13 +234,12 @@ public class NotificationMessageService {
     public List<Long> getUserIdsByRole(String role) {
         List<Long> userIds = new ArrayList<>();
         try {
-            // 分页获取用户列表，每页100条
-            int page = 1;
+            // 游标分页获取用户列表，每页100条（按上一页最后一行定位，翻到多深代价都相同）
+            String cursor = "";
             int pageSize = 100;
-            boolean hasMore = true;
 
-            while (hasMore) {
-                ApiResponse<Map<String, Object>> response = authServiceClient.getUserList(page, pageSize);
+            while (cursor != null) {
+                ApiResponse<Map<String, Object>> response = authServiceClient.getUserListByCursor(cursor, pageSize);
 
                 if (response != null && response.getCode() == 200 && response.getData() != null) {
                     Map<String, Object> data = response.getData();
@@ -215,13 +262,11 @@ public class NotificationMessageService {
                         }
                     }
 
-                    // 检查是否还有更多数据
-                    Integer total = (Integer) data.get("total");
-                    int currentCount = page * pageSize;
-                    hasMore = total != null && currentCount < total;
-                    page++;
+                    // 检查是否还有更多数据（nextCursor 为 null 表示已是最后一页）
+                    Object nextCursor = data.get("nextCursor");
+                    cursor = nextCursor != null ? nextCursor.toString() : null;
                 } else {
-                    hasMore = false;
+                    cursor = null;
                 }
             }
 
@@ -0,0 +1,306 @@
+package com.adoption.community.service;
+
+import com.adoption.community.model.Post;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 帖子列表页 / 帖子详情的两级缓存
+ *
+ * 帖子列表前几页和帖子详情对所有用户都相同，只有"是否已点赞"因人而异：
+ * 缓存中只保存共享部分（帖子、作者信息、缩略图、计数），调用方取出后再按当前用户填充 isLiked
+ *
+ * - L1：本实例 Caffeine 缓存，命中时不访问 Redis 和数据库
+ * - L2：Redis 字符串，各实例共享；列表页 key 带有按类型递增的版本号（community:cache:feed:gen:{type}），
+ *   失效时只需递增版本号，旧版本的页面不再被读到，按 TTL 自然过期
+ * - 失效：帖子发布、删除、状态变化、推荐、AI 回调后，删除 L2 并通过 Redis pub/sub 通知所有实例清除 L1；
+ *   只清除该帖子的详情和"全部"、该帖子类型的列表页，其他类型的列表页不受影响
+ *
+ * 点赞、评论不触发列表页失效，缓存中的点赞数、评论数最多滞后 L2 TTL；
+ * pub/sub 消息丢失（Redis 断线）时 L1 最多滞后 L1 TTL
+ */
+@Service
+public class PostCacheService {
+    private static final Logger log = LoggerFactory.getLogger(PostCacheService.class);
+
+    /**
+     * 失效通知频道，消息为逗号分隔的 L1 key：post:{id} 清除帖子详情，feed:{type} 清除该类型的全部列表页
+     */
+    public static final String INVALIDATION_CHANNEL = "community:cache:invalidate";
+
+    private static final String POST_KEY = "community:cache:post:";
+    private static final String FEED_KEY = "community:cache:feed:";
+    private static final String FEED_GEN_KEY = "community:cache:feed:gen:";
+
+    /**
+     * 不按类型筛选的列表页
+     */
+    private static final String ALL_TYPES = "all";
+
+    /**
+     * KEYS[1]: 版本号 key；ARGV[1]: 页面 key 前缀（拼接版本号得到页面 key）
+     * 返回 {版本号, 页面内容（不存在时为 nil）}，一次往返同时取得版本号和页面
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> FEED_GET_SCRIPT = new DefaultRedisScript<>(
+            "local gen = redis.call('GET', KEYS[1]) or '0'\n" +
+            "return {gen, redis.call('GET', ARGV[1] .. gen)}",
+            List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * L1 保存 JSON 字符串而不是对象：每次读取反序列化出新对象，调用方填充 isLiked 不会影响其他请求
+     */
+    private final Cache<String, String> localCache;
+
+    /**
+     * 本实例收到的失效次数；读取 L2 / 数据库期间发生过失效时，结果不写入 L1，避免把失效前读到的旧数据放回去
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Value("${community.cache.l2-ttl-seconds:30}")
+    private long l2TtlSeconds;
+
+    @Value("${community.cache.feed-max-page:3}") // 只缓存前几页，更深的页访问少，直接查询数据库
+    private int feedMaxPage;
+
+    public PostCacheService(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                            @Value("${community.cache.l1-maximum-size:1000}") long l1MaximumSize,
+                            @Value("${community.cache.l1-ttl-seconds:5}") long l1TtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(l1MaximumSize)
+                .expireAfterWrite(l1TtlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * 获取帖子列表页（页码分页）
+     * 超出缓存页数范围时直接调用 loader
+     *
+     * @param type 帖子类型（null 表示全部）
+     * @param sort 排序方式
+     * @param loader 缓存未命中时从数据库加载（不含当前用户相关字段）
+     * @return 列表页，其中的帖子对象由调用方独占
+     */
+    public FeedPage getFeedPage(String type, String sort, int page, int pageSize, Supplier<FeedPage> loader) {
+        if (page > feedMaxPage) {
+            return loader.get();
+        }
+        String typeKey = typeKey(type);
+        String pageKey = typeKey + ":" + ("popular".equals(sort) ? "popular" : "latest") + ":" + page + ":" + pageSize;
+        String localKey = "feed:" + pageKey;
+        long epoch = invalidations.get();
+
+        String json = localCache.getIfPresent(localKey);
+        if (json == null) {
+            json = loadFeedPage(typeKey, pageKey, loader);
+            if (json == null) {
+                return loader.get();
+            }
+            if (invalidations.get() == epoch) {
+                localCache.put(localKey, json);
+            }
+        }
+        return fromJson(json, FeedPage.class, loader);
+    }
+
+    /**
+     * 获取帖子详情（只缓存已发布的帖子）
+     *
+     * @param loader 缓存未命中时从数据库加载（不含当前用户相关字段），帖子不存在或未发布时返回 null
+     * @return 帖子，由调用方独占；不存在或未发布时返回 null
+     */
+    public Post getPost(Long postId, Supplier<Post> loader) {
+        String localKey = "post:" + postId;
+        long epoch = invalidations.get();
+
+        String json = localCache.getIfPresent(localKey);
+        if (json == null) {
+            json = readRedis(POST_KEY + postId);
+            if (json == null) {
+                Post post = loader.get();
+                if (post == null || !"PUBLISHED".equals(post.getStatus())) {
+                    return post;
+                }
+                json = toJson(post);
+                if (json == null) {
+                    return post;
+                }
+                writeRedis(POST_KEY + postId, json);
+            }
+            if (invalidations.get() == epoch) {
+                localCache.put(localKey, json);
+            }
+        }
+        return fromJson(json, Post.class, loader);
+    }
+
+    /**
+     * 帖子发布、删除、状态 / 推荐 / AI 标记变化后失效：该帖子的详情，以及"全部"和该帖子类型的列表页
+     *
+     * @param type 帖子类型；为 null 时失效所有类型的列表页
+     */
+    public void invalidatePost(Long postId, String type) {
+        List<String> localKeys = new ArrayList<>();
+        localKeys.add("post:" + postId);
+        localKeys.add("feed:" + ALL_TYPES);
+        if (type != null) {
+            localKeys.add("feed:" + type);
+        } else {
+            for (String t : new String[]{"PET_PUBLISH", "DAILY", "GUIDE"}) {
+                localKeys.add("feed:" + t);
+            }
+        }
+        invalidate(localKeys);
+    }
+
+    /**
+     * 只失效帖子详情（评论变化等不影响列表页排序和内容的变更）
+     */
+    public void invalidatePostDetail(Long postId) {
+        List<String> localKeys = new ArrayList<>();
+        localKeys.add("post:" + postId);
+        invalidate(localKeys);
+    }
+
+    /**
+     * 收到失效通知（包括本实例发出的），清除 L1
+     */
+    public void onInvalidation(String message) {
+        invalidations.incrementAndGet();
+        for (String localKey : message.split(",")) {
+            if (localKey.startsWith("feed:")) {
+                String prefix = localKey + ":";
+                localCache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+            } else {
+                localCache.invalidate(localKey);
+            }
+        }
+    }
+
+    private void invalidate(List<String> localKeys) {
+        String message = String.join(",", localKeys);
+        // 先清除本实例，不依赖 pub/sub 往返
+        onInvalidation(message);
+        try {
+            for (String localKey : localKeys) {
+                if (localKey.startsWith("feed:")) {
+                    redisTemplate.opsForValue().increment(FEED_GEN_KEY + localKey.substring("feed:".length()));
+                } else {
+                    redisTemplate.delete(POST_KEY + localKey.substring("post:".length()));
+                }
+            }
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (Exception e) {
+            // 失效失败时其他实例的缓存按 TTL 自然过期，不影响主流程
+            log.warn("帖子缓存失效失败: keys={}, error={}", message, e.getMessage());
+        }
+    }
+
+    /**
+     * 读取 L2 列表页，未命中时调用 loader 并写入当前版本号下的 key
+     * @return JSON；Redis 不可用且序列化失败时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    private String loadFeedPage(String typeKey, String pageKey, Supplier<FeedPage> loader) {
+        String gen = null;
+        try {
+            List<Object> result = redisTemplate.execute(FEED_GET_SCRIPT,
+                    Collections.singletonList(FEED_GEN_KEY + typeKey), FEED_KEY + pageKey + ":");
+            if (result != null && !result.isEmpty()) {
+                gen = String.valueOf(result.get(0));
+                if (result.size() > 1 && result.get(1) != null) {
+                    return (String) result.get(1);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("读取帖子列表缓存失败: key={}, error={}", pageKey, e.getMessage());
+        }
+
+        String json = toJson(loader.get());
+        if (json != null && gen != null) {
+            // 加载期间版本号已递增时，写入的是旧版本的 key，不会被读到
+            writeRedis(FEED_KEY + pageKey + ":" + gen, json);
+        }
+        return json;
+    }
+
+    private String readRedis(String key) {
+        try {
+            return redisTemplate.opsForValue().get(key);
+        } catch (Exception e) {
+            log.warn("读取帖子缓存失败: key={}, error={}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(String key, String json) {
+        try {
+            redisTemplate.opsForValue().set(key, json, Duration.ofSeconds(l2TtlSeconds));
+        } catch (Exception e) {
+            log.warn("写入帖子缓存失败: key={}, error={}", key, e.getMessage());
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            log.warn("序列化帖子缓存失败: error={}", e.getMessage());
+            return null;
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type, Supplier<T> loader) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (Exception e) {
+            log.warn("反序列化帖子缓存失败: error={}", e.getMessage());
+            return loader.get();
+        }
+    }
+
+    private static String typeKey(String type) {
+        return type == null || type.isEmpty() ? ALL_TYPES : type;
+    }
+
+    /**
+     * 缓存的列表页：帖子和总数
+     */
+    public static class FeedPage {
+        private List<Post> list;
+        private int total;
+
+        public FeedPage() {}
+
+        public FeedPage(List<Post> list, int total) {
+            this.list = list;
+            this.total = total;
+        }
+
+        public List<Post> getList() { return list; }
+        public void setList(List<Post> list) { this.list = list; }
+
+        public int getTotal() { return total; }
+        public void setTotal(int total) { this.total = total; }
+    }
+}
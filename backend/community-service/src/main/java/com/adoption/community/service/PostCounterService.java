@@ -0,0 +1,268 @@
+package com.adoption.community.service;
+
+import com.adoption.community.repository.CommentMapper;
+import com.adoption.community.repository.PostMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 帖子 / 评论计数服务（点赞数、评论数）
+ *
+ * 计数保存在 post.like_count、post.comment_count、comment.like_count 列中，读取时直接取列值，不再 COUNT(*)
+ *
+ * 写入采用 write-behind：点赞、评论时只在内存中按 ID 累加增量（每个 ID 一个 LongAdder，热点帖子的并发点赞不会争用同一把锁），
+ * 每隔 flush-interval-ms 把各 ID 的增量合并成一条批量 UPDATE 写回数据库；读取时返回 列值 + 尚未写回的增量
+ *
+ * 进程异常退出时未写回的增量会丢失，增量清理时与并发写入也存在极小的竞争窗口，
+ * 因此定期按 ID 区间分批用 COUNT(*) 重新校准计数列（reconcile-interval-ms），修复偏差；新增列后的首次回填也由它完成
+ *
+ * 点赞的增量在切换时就已累加，而 reaction 记录由 LikeService 稍后批量写入，两者之间计数列与 COUNT(*) 本就不一致；
+ * 校准时跳过仍有未写回点赞或增量的 ID，留给下一轮，避免校准本身覆盖掉尚未落库的点赞
+ */
+@Service
+public class PostCounterService {
+    private static final Logger log = LoggerFactory.getLogger(PostCounterService.class);
+
+    /**
+     * 单条批量 UPDATE 最多包含的 ID 数
+     */
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
+    private final PostMapper postMapper;
+    private final CommentMapper commentMapper;
+    private final LikeService likeService;
+
+    private final ConcurrentHashMap<Long, LongAdder> postLikes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, LongAdder> postComments = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, LongAdder> commentLikes = new ConcurrentHashMap<>();
+
+    @Value("${community.counter.reconcile-batch-size:500}")
+    private int reconcileBatchSize;
+
+    @Value("${community.counter.reconcile-pause-millis:50}") // 每批校准之间的间隔，避免长时间占用数据库
+    private long reconcilePauseMillis;
+
+    public PostCounterService(PostMapper postMapper, CommentMapper commentMapper, LikeService likeService) {
+        this.postMapper = postMapper;
+        this.commentMapper = commentMapper;
+        this.likeService = likeService;
+    }
+
+    public void addPostLike(Long postId, int delta) {
+        add(postLikes, postId, delta);
+    }
+
+    public void addPostComment(Long postId, int delta) {
+        add(postComments, postId, delta);
+    }
+
+    public void addCommentLike(Long commentId, int delta) {
+        add(commentLikes, commentId, delta);
+    }
+
+    /**
+     * 帖子当前点赞数
+     * @param stored 数据库中的 like_count
+     */
+    public int getPostLikeCount(Long postId, Integer stored) {
+        return current(postLikes, postId, stored);
+    }
+
+    /**
+     * 帖子当前评论数
+     * @param stored 数据库中的 comment_count
+     */
+    public int getPostCommentCount(Long postId, Integer stored) {
+        return current(postComments, postId, stored);
+    }
+
+    /**
+     * 评论当前点赞数
+     * @param stored 数据库中的 like_count
+     */
+    public int getCommentLikeCount(Long commentId, Integer stored) {
+        return current(commentLikes, commentId, stored);
+    }
+
+    /**
+     * 把内存中的增量写回数据库
+     */
+    @Scheduled(fixedDelayString = "${community.counter.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        flush(postLikes, postMapper::addLikeCounts, "post.like_count");
+        flush(postComments, postMapper::addCommentCounts, "post.comment_count");
+        flush(commentLikes, commentMapper::addLikeCounts, "comment.like_count");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * 用 COUNT(*) 重新校准计数列
+     * 按 ID 区间分批更新，每批之间暂停 reconcile-pause-millis
+     *
+     * 每批先写回 LikeService 中待写入的点赞和本服务的增量，再在两者的写回都暂停时执行校准 UPDATE，
+     * 并跳过此时仍有未写回点赞或增量的 ID：
+     * - 点赞已计入增量但记录未落库时，COUNT(*) 会漏掉它并覆盖掉刚写回的增量
+     * - 记录已落库但增量未写回时，COUNT(*) 计入后增量又会再加一次
+     * 批间暂停在锁外进行，校准期间写回照常执行
+     */
+    @Scheduled(initialDelayString = "${community.counter.reconcile-initial-delay-ms:60000}",
+            fixedDelayString = "${community.counter.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        try {
+            int posts = reconcile(postMapper.findMaxId(), postMapper::reconcileCounts, this::pendingPostIds);
+            int comments = reconcile(commentMapper.findMaxId(), commentMapper::reconcileLikeCounts, this::pendingCommentIds);
+            log.info("计数校准完成: 帖子 {} 条, 评论 {} 条, 耗时 {}ms", posts, comments, System.currentTimeMillis() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("计数校准失败", e);
+        }
+    }
+
+    private int reconcile(Long maxId, RangeUpdater updater, Supplier<Set<Long>> pendingIds) throws InterruptedException {
+        if (maxId == null) {
+            return 0;
+        }
+        int updated = 0;
+        for (long afterId = 0; afterId < maxId; afterId += reconcileBatchSize) {
+            long from = afterId;
+            long to = afterId + reconcileBatchSize;
+            updated += likeService.flushAndHold(() -> {
+                synchronized (this) {
+                    flush();
+                    List<Long> excluded = new ArrayList<>();
+                    for (Long id : pendingIds.get()) {
+                        if (id > from && id <= to) {
+                            excluded.add(id);
+                        }
+                    }
+                    return updater.update(from, to, excluded);
+                }
+            });
+            Thread.sleep(reconcilePauseMillis);
+        }
+        return updated;
+    }
+
+    /**
+     * 计数可能尚未落库的帖子：有未写入的点赞记录，或有未写回的点赞数 / 评论数增量
+     */
+    private Set<Long> pendingPostIds() {
+        Set<Long> ids = likeService.pendingPostIds();
+        addPending(postLikes, ids);
+        addPending(postComments, ids);
+        return ids;
+    }
+
+    /**
+     * 计数可能尚未落库的评论：有未写入的点赞记录，或有未写回的点赞数增量
+     */
+    private Set<Long> pendingCommentIds() {
+        Set<Long> ids = likeService.pendingCommentIds();
+        addPending(commentLikes, ids);
+        return ids;
+    }
+
+    private static void addPending(ConcurrentHashMap<Long, LongAdder> deltas, Set<Long> ids) {
+        deltas.forEach((id, delta) -> {
+            if (delta.sum() != 0) {
+                ids.add(id);
+            }
+        });
+    }
+
+    private static void add(ConcurrentHashMap<Long, LongAdder> deltas, Long id, long delta) {
+        if (id == null || delta == 0) {
+            return;
+        }
+        deltas.computeIfAbsent(id, k -> new LongAdder()).add(delta);
+    }
+
+    private static int current(ConcurrentHashMap<Long, LongAdder> deltas, Long id, Integer stored) {
+        LongAdder pending = id != null ? deltas.get(id) : null;
+        long count = (stored != null ? stored : 0) + (pending != null ? pending.sum() : 0);
+        return (int) Math.max(0, count);
+    }
+
+    private void flush(ConcurrentHashMap<Long, LongAdder> deltas, Function<Map<Long, Long>, Integer> writer, String column) {
+        Map<Long, Long> drained = drain(deltas);
+        if (drained.isEmpty()) {
+            return;
+        }
+        List<Map<Long, Long>> chunks = chunk(drained);
+        for (int i = 0; i < chunks.size(); i++) {
+            try {
+                writer.apply(chunks.get(i));
+            } catch (Exception e) {
+                // 写回失败：把本批及之后的增量放回内存，下次重试
+                log.warn("计数写回失败: {}, error={}", column, e.getMessage());
+                for (int j = i; j < chunks.size(); j++) {
+                    chunks.get(j).forEach((id, delta) -> add(deltas, id, delta));
+                }
+                return;
+            }
+        }
+        log.debug("计数写回: {}, {} 条", column, drained.size());
+    }
+
+    /**
+     * 取出所有增量并清零；上一轮已为 0 的 ID 从表中移除，避免表无限增长
+     */
+    private static Map<Long, Long> drain(ConcurrentHashMap<Long, LongAdder> deltas) {
+        Map<Long, Long> drained = new HashMap<>();
+        Iterator<Map.Entry<Long, LongAdder>> it = deltas.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, LongAdder> entry = it.next();
+            long delta = entry.getValue().sumThenReset();
+            if (delta != 0) {
+                drained.put(entry.getKey(), delta);
+            } else {
+                deltas.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        return drained;
+    }
+
+    private static List<Map<Long, Long>> chunk(Map<Long, Long> drained) {
+        List<Map<Long, Long>> chunks = new ArrayList<>();
+        Map<Long, Long> current = new HashMap<>();
+        for (Map.Entry<Long, Long> entry : drained.entrySet()) {
+            current.put(entry.getKey(), entry.getValue());
+            if (current.size() >= FLUSH_CHUNK_SIZE) {
+                chunks.add(current);
+                current = new HashMap<>();
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    /**
+     * 按 ID 区间 (afterId, toId] 校准计数，跳过 excludedIds
+     */
+    private interface RangeUpdater {
+        int update(long afterId, long toId, List<Long> excludedIds);
+    }
+}
@@ -0,0 +1,531 @@
+package com.adoption.community.service;
+
+import com.adoption.community.model.Post;
+import com.adoption.community.repository.PostMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.cjk.CJKAnalyzer;
+import org.apache.lucene.analysis.cjk.CJKBigramFilter;
+import org.apache.lucene.analysis.cjk.CJKWidthFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queries.function.FunctionScoreQuery;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.DoubleValues;
+import org.apache.lucene.search.DoubleValuesSource;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.NullFragmenter;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleHTMLEncoder;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.search.highlight.SimpleSpanFragmenter;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.QueryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 帖子全文检索
+ *
+ * 已发布帖子的标题和正文建立在进程内的 Lucene 倒排索引中（内存目录，不落盘），查询不访问数据库：
+ * - 分词：中文索引时同时写入单字和相邻两字（bigram），查询时多字按两字切分、单字按单字匹配，
+ *   "猫"这样的单字查询也能命中"猫粮""小猫"；英文按单词切分；查询词的每个词元都要在标题或正文中出现
+ * - 排序：相关度（标题权重更高）乘以时间加成 1 + recency-weight × 0.5^(帖子天数 / recency-half-life-days)，新帖子更靠前
+ * - 高亮：返回标题和正文片段，按单字标出关键词中的字（两字词元互相重叠，按词元高亮会把整段连续中文都包进去），
+ *   命中的字用 em 标签包裹，其余内容做 HTML 转义
+ *
+ * 索引维护：
+ * - 启动后在后台线程从 post 表分批全量构建，构建完成前搜索接口返回 503
+ * - 帖子发布、删除、状态变化后按ID从数据库重新读取并更新索引（已发布则写入，否则删除），
+ *   同时通过 Redis pub/sub 通知其他实例做同样的更新，各实例索引保持一致
+ * - 构建期间已增量更新过的帖子，构建时跳过，避免用构建开始时读到的旧数据覆盖
+ */
+@Service
+public class PostSearchService {
+    private static final Logger log = LoggerFactory.getLogger(PostSearchService.class);
+
+    /**
+     * 索引更新通知频道，消息为 实例ID|帖子ID
+     */
+    public static final String REINDEX_CHANNEL = "community:search:reindex";
+
+    private static final String ID_FIELD = "id";
+    private static final String TYPE_FIELD = "type";
+    private static final String TITLE_FIELD = "title";
+    private static final String CONTENT_FIELD = "content";
+    private static final String AUTHOR_ID_FIELD = "authorId";
+    private static final String CREATED_AT_FIELD = "createdAt";
+    private static final String CREATED_AT_MILLIS_FIELD = "createdAtMillis";
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    /**
+     * 全量构建失败（例如启动时数据库不可用）后的重试间隔
+     */
+    private static final long REBUILD_RETRY_MILLIS = 30_000;
+
+    private static final DateTimeFormatter DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final PostMapper postMapper;
+    private final StringRedisTemplate redisTemplate;
+    /**
+     * 索引分词：中文单字 + 两字
+     */
+    private final Analyzer indexAnalyzer = cjkAnalyzer(true, true);
+
+    /**
+     * 查询分词：中文两字，单独的一个字输出单字
+     */
+    private final Analyzer queryAnalyzer = new CJKAnalyzer();
+
+    /**
+     * 高亮分词：中文单字
+     */
+    private final Analyzer highlightAnalyzer = cjkAnalyzer(false, true);
+    private final Directory directory = new ByteBuffersDirectory();
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private IndexWriter indexWriter;
+    private SearcherManager searcherManager;
+
+    /**
+     * 全量构建是否完成
+     */
+    private volatile boolean ready;
+
+    /**
+     * 全量构建期间增量更新过的帖子ID，构建完成后为 null
+     */
+    private volatile Set<Long> updatedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    @Value("${community.search.title-boost:3}")
+    private float titleBoost;
+
+    @Value("${community.search.recency-weight:1}")
+    private double recencyWeight;
+
+    @Value("${community.search.recency-half-life-days:30}")
+    private double recencyHalfLifeDays;
+
+    @Value("${community.search.snippet-length:100}")
+    private int snippetLength;
+
+    @Value("${community.search.max-window:1000}") // 最多能翻到的结果条数（page × pageSize）
+    private int maxWindow;
+
+    public PostSearchService(PostMapper postMapper, StringRedisTemplate redisTemplate) {
+        this.postMapper = postMapper;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        indexWriter = new IndexWriter(directory,
+                new IndexWriterConfig(indexAnalyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+        searcherManager = new SearcherManager(indexWriter, null);
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            searcherManager.close();
+            indexWriter.close();
+            directory.close();
+        } catch (IOException e) {
+            log.warn("关闭帖子索引失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 启动后在后台线程构建索引，不阻塞服务启动；失败时定期重试直到成功
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRebuild() {
+        Thread thread = new Thread(() -> {
+            while (!rebuild()) {
+                try {
+                    Thread.sleep(REBUILD_RETRY_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "post-search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 是否可以搜索（全量构建完成）
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 搜索已发布帖子
+     *
+     * @param keyword 关键词（不能为空）
+     * @param type 帖子类型（可选，null表示不筛选）
+     * @param offset 跳过的结果数
+     * @param limit 返回的结果数
+     * @return 命中的帖子（只包含 id、authorId、type、title、createdAt 和高亮字段）和命中总数
+     */
+    public SearchResult search(String keyword, String type, int offset, int limit) throws IOException {
+        Query textQuery = buildTextQuery(keyword);
+        if (textQuery == null || offset >= maxWindow) {
+            return new SearchResult(new ArrayList<>(), 0);
+        }
+
+        BooleanQuery.Builder filtered = new BooleanQuery.Builder()
+                .add(textQuery, BooleanClause.Occur.MUST);
+        if (type != null && !type.isEmpty()) {
+            filtered.add(new TermQuery(new Term(TYPE_FIELD, type)), BooleanClause.Occur.FILTER);
+        }
+        Query query = FunctionScoreQuery.boostByValue(filtered.build(),
+                new RecencyBoost(System.currentTimeMillis(), recencyWeight, recencyHalfLifeDays));
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            TopDocs topDocs = searcher.search(query, Math.min(offset + limit, maxWindow));
+            ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+
+            QueryScorer scorer = new QueryScorer(buildHighlightQuery(keyword));
+            SimpleHTMLFormatter formatter = new SimpleHTMLFormatter("<em>", "</em>");
+            SimpleHTMLEncoder encoder = new SimpleHTMLEncoder();
+            Highlighter titleHighlighter = new Highlighter(formatter, encoder, scorer);
+            titleHighlighter.setTextFragmenter(new NullFragmenter());
+            Highlighter contentHighlighter = new Highlighter(formatter, encoder, scorer);
+            contentHighlighter.setTextFragmenter(new SimpleSpanFragmenter(scorer, snippetLength));
+
+            List<Post> posts = new ArrayList<>();
+            for (int i = offset; i < scoreDocs.length; i++) {
+                Document doc = searcher.storedFields().document(scoreDocs[i].doc);
+                Post post = new Post();
+                post.setId(Long.valueOf(doc.get(ID_FIELD)));
+                post.setType(doc.get(TYPE_FIELD));
+                post.setTitle(doc.get(TITLE_FIELD));
+                post.setCreatedAt(doc.get(CREATED_AT_FIELD));
+                String authorId = doc.get(AUTHOR_ID_FIELD);
+                if (authorId != null) {
+                    post.setAuthorId(Long.valueOf(authorId));
+                }
+                post.setTitleHighlight(highlight(titleHighlighter, TITLE_FIELD, post.getTitle(), Integer.MAX_VALUE));
+                post.setSnippet(highlight(contentHighlighter, CONTENT_FIELD, doc.get(CONTENT_FIELD), snippetLength));
+                posts.add(post);
+            }
+            return new SearchResult(posts, topDocs.totalHits.value);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * 帖子发布、删除或状态变化后更新索引，并通知其他实例
+     */
+    public void reindex(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        apply(postId);
+        try {
+            redisTemplate.convertAndSend(REINDEX_CHANNEL, instanceId + "|" + postId);
+        } catch (Exception e) {
+            // 通知失败时其他实例的索引在下次重启构建时修复
+            log.warn("发送帖子索引更新通知失败: postId={}, error={}", postId, e.getMessage());
+        }
+    }
+
+    /**
+     * 收到索引更新通知，忽略本实例发出的消息
+     */
+    public void onReindex(String message) {
+        int index = message.indexOf('|');
+        if (index < 0 || message.substring(0, index).equals(instanceId)) {
+            return;
+        }
+        try {
+            apply(Long.valueOf(message.substring(index + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("无效的帖子索引更新通知: {}", message);
+        }
+    }
+
+    /**
+     * 按数据库中的当前状态更新一个帖子的索引
+     */
+    private void apply(Long postId) {
+        Set<Long> updated = updatedDuringRebuild;
+        if (updated != null) {
+            updated.add(postId);
+        }
+        try {
+            Post post = postMapper.findById(postId);
+            if (post != null && "PUBLISHED".equals(post.getStatus())) {
+                indexWriter.updateDocument(new Term(ID_FIELD, postId.toString()), toDocument(post));
+            } else {
+                indexWriter.deleteDocuments(new Term(ID_FIELD, postId.toString()));
+            }
+            searcherManager.maybeRefreshBlocking();
+        } catch (Exception e) {
+            log.warn("更新帖子索引失败: postId={}, error={}", postId, e.getMessage());
+        }
+    }
+
+    /**
+     * 从数据库分批全量构建索引
+     * @return 是否成功
+     */
+    private boolean rebuild() {
+        long start = System.currentTimeMillis();
+        long afterId = 0;
+        int total = 0;
+        try {
+            List<Post> batch;
+            while (!(batch = postMapper.findPublishedForSearch(afterId, REBUILD_BATCH_SIZE)).isEmpty()) {
+                for (Post post : batch) {
+                    afterId = post.getId();
+                    if (updatedDuringRebuild.contains(post.getId())) {
+                        continue;
+                    }
+                    indexWriter.updateDocument(new Term(ID_FIELD, post.getId().toString()), toDocument(post));
+                }
+                total += batch.size();
+            }
+            searcherManager.maybeRefreshBlocking();
+            updatedDuringRebuild = null;
+            ready = true;
+            log.info("帖子索引构建完成: {} 个帖子, 耗时 {}ms", total, System.currentTimeMillis() - start);
+            return true;
+        } catch (Exception e) {
+            log.error("帖子索引构建失败，{} 秒后重试", REBUILD_RETRY_MILLIS / 1000, e);
+            return false;
+        }
+    }
+
+    private Document toDocument(Post post) {
+        Document doc = new Document();
+        doc.add(new StringField(ID_FIELD, post.getId().toString(), Field.Store.YES));
+        if (post.getType() != null) {
+            doc.add(new StringField(TYPE_FIELD, post.getType(), Field.Store.YES));
+        }
+        if (post.getAuthorId() != null) {
+            doc.add(new StoredField(AUTHOR_ID_FIELD, post.getAuthorId().toString()));
+        }
+        doc.add(new TextField(TITLE_FIELD, Objects.toString(post.getTitle(), ""), Field.Store.YES));
+        doc.add(new TextField(CONTENT_FIELD, Objects.toString(post.getContent(), ""), Field.Store.YES));
+        if (post.getCreatedAt() != null) {
+            doc.add(new StoredField(CREATED_AT_FIELD, post.getCreatedAt()));
+        }
+        doc.add(new NumericDocValuesField(CREATED_AT_MILLIS_FIELD, createdAtMillis(post)));
+        return doc;
+    }
+
+    /**
+     * 关键词在标题或正文中出现（每个词元都要出现），标题命中的权重更高
+     * @return 查询；关键词分词后为空（例如只有标点）时返回null
+     */
+    private Query buildTextQuery(String keyword) {
+        QueryBuilder builder = new QueryBuilder(queryAnalyzer);
+        Query title = builder.createBooleanQuery(TITLE_FIELD, keyword, BooleanClause.Occur.MUST);
+        Query content = builder.createBooleanQuery(CONTENT_FIELD, keyword, BooleanClause.Occur.MUST);
+        if (title == null || content == null) {
+            return null;
+        }
+        return new BooleanQuery.Builder()
+                .add(new BoostQuery(title, titleBoost), BooleanClause.Occur.SHOULD)
+                .add(content, BooleanClause.Occur.SHOULD)
+                .build();
+    }
+
+    /**
+     * 高亮用的查询：关键词按单字切分，任一字出现即标出
+     */
+    private Query buildHighlightQuery(String keyword) {
+        Query query = new QueryBuilder(highlightAnalyzer)
+                .createBooleanQuery(CONTENT_FIELD, keyword, BooleanClause.Occur.SHOULD);
+        return query != null ? query : new BooleanQuery.Builder().build();
+    }
+
+    /**
+     * 高亮文本；没有命中词时返回开头部分（已转义）
+     */
+    private String highlight(Highlighter highlighter, String field, String text, int fallbackLength) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        try {
+            String fragment = highlighter.getBestFragment(highlightAnalyzer, field, text);
+            if (fragment != null) {
+                return fragment;
+            }
+        } catch (Exception e) {
+            log.debug("高亮失败: field={}, error={}", field, e.getMessage());
+        }
+        return SimpleHTMLEncoder.htmlEncode(text.length() > fallbackLength ? text.substring(0, fallbackLength) : text);
+    }
+
+    /**
+     * 与 CJKAnalyzer 相同的分词链（全角半角归一、小写、去英文停用词），可选是否输出中文两字和单字
+     * StandardTokenizer 把每个汉字切成一个词元，不加 CJKBigramFilter 时即为单字
+     */
+    private static Analyzer cjkAnalyzer(boolean bigrams, boolean unigrams) {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer source = new StandardTokenizer();
+                TokenStream result = new CJKWidthFilter(source);
+                result = new LowerCaseFilter(result);
+                if (bigrams) {
+                    result = new CJKBigramFilter(result, CJKBigramFilter.HAN | CJKBigramFilter.HIRAGANA
+                            | CJKBigramFilter.KATAKANA | CJKBigramFilter.HANGUL, unigrams);
+                }
+                result = new StopFilter(result, CJKAnalyzer.getDefaultStopSet());
+                return new TokenStreamComponents(source, result);
+            }
+        };
+    }
+
+    private static long createdAtMillis(Post post) {
+        String createdAt = post.getCreatedAt();
+        if (createdAt != null && createdAt.length() >= 19) {
+            try {
+                return LocalDateTime.parse(createdAt.substring(0, 19).replace('T', ' '), DATETIME)
+                        .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            } catch (Exception e) {
+                // 格式异常时按当前时间处理
+            }
+        }
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * 时间加成：1 + weight × 0.5^(帖子天数 / halfLifeDays)，刚发布的帖子得分最多乘以 1 + weight
+     */
+    private static final class RecencyBoost extends DoubleValuesSource {
+        private static final double MILLIS_PER_DAY = 24 * 3600_000d;
+
+        private final long now;
+        private final double weight;
+        private final double halfLifeDays;
+
+        RecencyBoost(long now, double weight, double halfLifeDays) {
+            this.now = now;
+            this.weight = weight;
+            this.halfLifeDays = halfLifeDays;
+        }
+
+        @Override
+        public DoubleValues getValues(LeafReaderContext ctx, DoubleValues scores) throws IOException {
+            NumericDocValues createdAt = DocValues.getNumeric(ctx.reader(), CREATED_AT_MILLIS_FIELD);
+            return new DoubleValues() {
+                private double value;
+
+                @Override
+                public double doubleValue() {
+                    return value;
+                }
+
+                @Override
+                public boolean advanceExact(int doc) throws IOException {
+                    double ageDays = createdAt.advanceExact(doc)
+                            ? Math.max(0, now - createdAt.longValue()) / MILLIS_PER_DAY
+                            : 0;
+                    value = 1 + weight * Math.pow(0.5, ageDays / halfLifeDays);
+                    return true;
+                }
+            };
+        }
+
+        @Override
+        public boolean needsScores() {
+            return false;
+        }
+
+        @Override
+        public DoubleValuesSource rewrite(IndexSearcher searcher) {
+            return this;
+        }
+
+        @Override
+        public boolean isCacheable(LeafReaderContext ctx) {
+            // 取值依赖查询时刻
+            return false;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof RecencyBoost)) {
+                return false;
+            }
+            RecencyBoost other = (RecencyBoost) o;
+            return now == other.now && weight == other.weight && halfLifeDays == other.halfLifeDays;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(now, weight, halfLifeDays);
+        }
+
+        @Override
+        public String toString() {
+            return "recency(" + CREATED_AT_MILLIS_FIELD + ", weight=" + weight + ", halfLifeDays=" + halfLifeDays + ")";
+        }
+    }
+
+    /**
+     * 搜索结果：一页命中的帖子和命中总数（超过 1000 时为下限）
+     */
+    public static final class SearchResult {
+        private final List<Post> posts;
+        private final long total;
+
+        SearchResult(List<Post> posts, long total) {
+            this.posts = posts;
+            this.total = total;
+        }
+
+        public List<Post> getPosts() { return posts; }
+        public long getTotal() { return total; }
+    }
+}
@@ -1,21 +1,28 @@
 package com.adoption.community.service;
 
 import com.adoption.common.api.ApiResponse;
+import com.adoption.common.api.PageCursor;
+import com.adoption.common.service.CacheInvalidationMessageService;
+import com.adoption.common.service.ViewCountService;
+import com.adoption.common.util.FileUtils;
+import com.adoption.common.util.JsonUtils;
 import com.adoption.common.util.UserContext;
 import com.adoption.community.feign.AuthServiceClient;
 import com.adoption.community.model.Post;
-import com.adoption.community.model.Reaction;
 import com.adoption.community.repository.PostMapper;
-import com.adoption.community.repository.ReactionMapper;
 import com.adoption.community.repository.CommentMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 帖子服务层
@@ -36,7 +43,6 @@ public class PostService {
     private static final Logger log = LoggerFactory.getLogger(PostService.class);
 
     private final PostMapper postMapper;
-    private final ReactionMapper reactionMapper;
     private final CommentMapper commentMapper;
     @Autowired
     private final NotificationMessageService notificationMessageService;
@@ -46,15 +52,29 @@ public class PostService {
     private final AiAnalysisMessageService aiAnalysisMessageService;
     @Autowired
     private UserContext userContext;
+    @Autowired
+    private CacheInvalidationMessageService cacheInvalidationMessageService;
+    @Autowired
+    private PostCounterService postCounterService;
+    @Autowired
+    private HotRankingService hotRankingService;
+    @Autowired
+    private LikeService likeService;
+    @Autowired
+    private PostCacheService postCacheService;
+    @Autowired
+    private PostSearchService postSearchService;
+    @Autowired
+    private ViewCountService viewCountService;
+    @Autowired
+    private TimelineService timelineService;
 
     public PostService(PostMapper postMapper,
-                      ReactionMapper reactionMapper,
                       CommentMapper commentMapper,
                       NotificationMessageService notificationMessageService,
                       AuthServiceClient authServiceClient,
                       AiAnalysisMessageService aiAnalysisMessageService) {
         this.postMapper = postMapper;
-        this.reactionMapper = reactionMapper;
         this.commentMapper = commentMapper;
         this.notificationMessageService = notificationMessageService;
         this.authServiceClient = authServiceClient;
@@ -67,16 +87,20 @@ public class PostService {
      * 功能说明：
      * - 只返回状态为PUBLISHED（已发布）的帖子
      * - 支持按类型筛选：PET_PUBLISH、DAILY、GUIDE
-     * - 支持排序：latest（最新）、popular（最热）
-     * - 支持分页查询
+     * - 支持排序：latest（最新）、popular（最热，按 HotRankingService 的热度排行，排行不可用时按点赞数）
+     * - 支持分页查询；最新排序还支持游标分页（cursor 不为 null 时，见 PageCursor），
+     *   按上一页最后一行定位，不统计总数，返回 nextCursor，适合无限滚动
+     * - 页码分页的前几页经 PostCacheService 两级缓存，所有用户共享；是否已点赞在取出后按当前用户填充
      *
      * @param type 帖子类型（可选，null表示不筛选）
      * @param sort 排序方式（latest-最新，popular-最热，null-默认最新）
      * @param page 页码（从1开始，默认1）
      * @param pageSize 每页数量（默认10，最大100）
+     * @param cursor 游标（可选，第一页传空字符串，之后传上一页返回的 nextCursor）
      * @return 包含帖子列表、总数、页码等信息的响应
      */
-    public ApiResponse<Map<String, Object>> getPostList(String type, String sort, Integer page, Integer pageSize) {
+    public ApiResponse<Map<String, Object>> getPostList(String type, String sort, Integer page, Integer pageSize,
+                                                        String cursor) {
         if (page == null || page < 1) {
             page = 1;
         }
@@ -87,56 +111,307 @@ public class PostService {
             pageSize = 100;
         }
 
+        if (cursor != null) {
+            return getPostListByCursor(type, sort, pageSize, cursor);
+        }
+
         int offset = (page - 1) * pageSize;
-        List<Post> posts = postMapper.findAll(type, sort, null, offset, pageSize);
+        int limit = pageSize;
+        PostCacheService.FeedPage feedPage = postCacheService.getFeedPage(type, sort, page, pageSize,
+                () -> loadFeedPage(type, sort, offset, limit));
+        List<Post> posts = feedPage.getList();
+
+        // 缓存的列表页对所有用户相同，是否已点赞按当前用户（未登录为null）单独填充；浏览人数实时查询
+        fillIsLiked(posts, userContext.getCurrentUserId());
+        fillViewCounts(posts);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("list", posts);
+        result.put("total", feedPage.getTotal());
+        result.put("page", page);
+        result.put("pageSize", pageSize);
+
+        return ApiResponse.success(result);
+    }
+
+    /**
+     * 游标分页获取帖子列表（最新排序）
+     * 最热排序的排名随点赞实时变化，游标无法稳定定位，继续使用页码分页
+     */
+    private ApiResponse<Map<String, Object>> getPostListByCursor(String type, String sort, int pageSize, String cursor) {
+        if ("popular".equals(sort)) {
+            return ApiResponse.error(400, "最热排序不支持游标分页");
+        }
+        PageCursor pageCursor;
+        try {
+            pageCursor = PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(400, "无效的分页游标");
+        }
+
+        List<Post> posts = postMapper.findAll(type, sort, null,
+                pageCursor != null ? pageCursor.getCreatedAt() : null,
+                pageCursor != null ? pageCursor.getId() : null, 0, pageSize + 1);
+        String nextCursor = PageCursor.next(posts, pageSize, Post::getCreatedAt, Post::getId);
+        enrichPosts(posts);
+        fillIsLiked(posts, userContext.getCurrentUserId());
+        fillViewCounts(posts);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("list", posts);
+        result.put("pageSize", pageSize);
+        result.put("nextCursor", nextCursor);
+
+        return ApiResponse.success(result);
+    }
+
+    /**
+     * 从数据库加载一页帖子（页码分页），填充所有用户共享的字段，供 PostCacheService 缓存
+     */
+    private PostCacheService.FeedPage loadFeedPage(String type, String sort, int offset, int limit) {
+        List<Post> posts = null;
+        if ("popular".equals(sort)) {
+            posts = findHotPosts(type, offset, limit);
+        }
+        if (posts == null) {
+            posts = postMapper.findAll(type, sort, null, null, null, offset, limit);
+        }
         int total = postMapper.countAll(type, null);
 
-        // 获取当前用户ID（如果未登录则为null）
-        Long currentUserId = userContext.getCurrentUserId();
+        // 批量统计点赞数、评论数，并填充作者信息和缩略图
+        enrichPosts(posts);
+        return new PostCacheService.FeedPage(posts, total);
+    }
 
-        // 为每个帖子统计点赞数、评论数和是否已点赞，并填充作者信息
-        for (Post post : posts) {
-            // 统计点赞数
-            int likeCount = reactionMapper.countByPostId(post.getId());
-            post.setLikeCount(likeCount);
-
-            // 统计评论数
-            int commentCount = commentMapper.countByPostId(post.getId());
-            post.setCommentCount(commentCount);
-
-            // 查询当前用户是否已点赞（如果已登录）
-            if (currentUserId != null) {
-                Reaction reaction = reactionMapper.findByUserIdAndPostId(currentUserId, post.getId(), "LIKE");
-                post.setIsLiked(reaction != null);
-            } else {
-                post.setIsLiked(false);
+    /**
+     * 按热度排行取一页帖子，并填充热度分
+     * 排行中可能残留已下架的帖子（事件丢失时，等待每日重建修复），这里按状态和类型再过滤一次
+     *
+     * @return 帖子列表（热度从高到低）；排行不可用或超出排行范围时返回null，由调用方回退到数据库排序
+     */
+    private List<Post> findHotPosts(String type, int offset, int limit) {
+        List<Long> ids = hotRankingService.getHotPostIds(type, offset, limit);
+        if (ids == null) {
+            return null;
+        }
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Post> byId = new HashMap<>();
+        for (Post post : postMapper.findByIds(ids)) {
+            byId.put(post.getId(), post);
+        }
+        Map<Long, Double> scores = hotRankingService.getHotScores(ids);
+        List<Post> posts = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Post post = byId.get(id);
+            if (post == null || !"PUBLISHED".equals(post.getStatus())
+                    || (type != null && !type.isEmpty() && !type.equals(post.getType()))) {
+                continue;
             }
+            post.setHotScore(scores.get(id));
+            posts.add(post);
+        }
+        return posts;
+    }
 
-            // 填充作者信息
+    /**
+     * 获取热度排行（管理员推荐参考）
+     *
+     * 功能说明：
+     * - 按当前热度从高到低返回已发布帖子，附带热度分（hotScore）和推荐状态，供管理员挑选推荐帖子
+     * - 热度分为按半衰期衰减到当前时间的加权互动数，见 HotRankingService
+     * - 支持按类型筛选和分页；超出排行范围时按点赞数排序，热度分留空
+     *
+     * 权限要求：需要ADMIN（超级管理员）角色
+     *
+     * @param type 帖子类型（可选，null表示不筛选）
+     * @param page 页码（从1开始，默认1）
+     * @param pageSize 每页数量（默认10，最大100）
+     * @return 包含帖子列表、总数、页码等信息的响应
+     */
+    public ApiResponse<Map<String, Object>> getHotPosts(String type, Integer page, Integer pageSize) {
+        if (page == null || page < 1) {
+            page = 1;
+        }
+        if (pageSize == null || pageSize < 1) {
+            pageSize = 10;
+        }
+        if (pageSize > 100) {
+            pageSize = 100;
+        }
+
+        int offset = (page - 1) * pageSize;
+        List<Post> posts = findHotPosts(type, offset, pageSize);
+        if (posts == null) {
+            posts = postMapper.findAll(type, "popular", null, null, null, offset, pageSize);
+        }
+        int total = postMapper.countAll(type, null);
+        enrichPosts(posts);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("list", posts);
+        result.put("total", total);
+        result.put("page", page);
+        result.put("pageSize", pageSize);
+
+        return ApiResponse.success(result);
+    }
+
+    /**
+     * 批量填充列表页帖子的点赞数、评论数、作者信息和缩略图（所有用户相同的字段，是否已点赞见 fillIsLiked）
+     *
+     * 整页帖子只产生固定次数的查询：点赞数、评论数直接取计数列（见 PostCounterService），
+     * 作者信息一次批量 Feign 调用，不随帖子数量增加
+     *
+     * @param posts 帖子列表
+     */
+    private void enrichPosts(List<Post> posts) {
+        if (posts.isEmpty()) {
+            return;
+        }
+
+        Set<Long> authorIds = new LinkedHashSet<>();
+        for (Post post : posts) {
             if (post.getAuthorId() != null) {
-                try {
-                    ApiResponse<Map<String, Object>> userResponse = authServiceClient.getUserById(post.getAuthorId());
-                    if (userResponse != null && userResponse.getCode() == 200 && userResponse.getData() != null) {
-                        Map<String, Object> userData = userResponse.getData();
-                        Object usernameObj = userData.get("username");
-                        if (usernameObj != null) {
-                            post.setAuthorName(usernameObj.toString());
-                        }
-                        Object avatarUrlObj = userData.get("avatarUrl");
-                        if (avatarUrlObj != null) {
-                            post.setAuthorAvatarUrl(avatarUrlObj.toString());
-                        }
+                authorIds.add(post.getAuthorId());
+            }
+        }
+
+        Map<Long, Map<String, Object>> authors = findAuthors(authorIds);
+
+        for (Post post : posts) {
+            fillThumbnailUrls(post);
+            post.setLikeCount(postCounterService.getPostLikeCount(post.getId(), post.getLikeCount()));
+            post.setCommentCount(postCounterService.getPostCommentCount(post.getId(), post.getCommentCount()));
+            post.setIsLiked(false);
+
+            Map<String, Object> author = authors.get(post.getAuthorId());
+            if (author != null) {
+                Object usernameObj = author.get("username");
+                if (usernameObj != null) {
+                    post.setAuthorName(usernameObj.toString());
+                }
+                Object avatarUrlObj = author.get("avatarUrl");
+                if (avatarUrlObj != null) {
+                    post.setAuthorAvatarUrl(avatarUrlObj.toString());
+                }
+            }
+        }
+    }
+
+    /**
+     * 按当前用户填充列表页帖子的是否已点赞，整页一次查询
+     *
+     * @param currentUserId 当前用户ID（未登录为null，全部为未点赞）
+     */
+    private void fillIsLiked(List<Post> posts, Long currentUserId) {
+        if (posts.isEmpty()) {
+            return;
+        }
+        List<Long> postIds = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            postIds.add(post.getId());
+        }
+        Set<Long> likedPostIds = currentUserId != null
+                ? likeService.findLikedPostIds(currentUserId, postIds)
+                : Collections.<Long>emptySet();
+        for (Post post : posts) {
+            post.setIsLiked(likedPostIds.contains(post.getId()));
+        }
+    }
+
+    /**
+     * 填充列表页帖子的浏览人数，整页一次 Redis 调用
+     */
+    private void fillViewCounts(List<Post> posts) {
+        if (posts.isEmpty()) {
+            return;
+        }
+        List<Long> postIds = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            postIds.add(post.getId());
+        }
+        Map<Long, Long> viewCounts = viewCountService.getViewCounts(postIds);
+        for (Post post : posts) {
+            post.setViewCount(viewCounts.get(post.getId()));
+        }
+    }
+
+    /**
+     * 一次调用 auth-service 批量获取作者信息
+     * 获取失败不影响主流程，作者信息留空
+     *
+     * @return 用户ID -> 用户信息（username、avatarUrl）
+     */
+    private Map<Long, Map<String, Object>> findAuthors(Set<Long> authorIds) {
+        Map<Long, Map<String, Object>> authors = new HashMap<>();
+        if (authorIds.isEmpty()) {
+            return authors;
+        }
+        try {
+            ApiResponse<List<Map<String, Object>>> response = authServiceClient.getUsersByIds(new ArrayList<>(authorIds));
+            if (response != null && response.getCode() == 200 && response.getData() != null) {
+                for (Map<String, Object> user : response.getData()) {
+                    Object id = user.get("id");
+                    if (id != null) {
+                        authors.put(((Number) id).longValue(), user);
                     }
-                } catch (Exception e) {
-                    // 如果获取用户信息失败，不影响主流程，只记录日志
-                    System.err.println("获取帖子作者信息失败，authorId: " + post.getAuthorId() + ", error: " + e.getMessage());
                 }
             }
+        } catch (Exception e) {
+            log.warn("批量获取帖子作者信息失败，authorIds: {}, error: {}", authorIds, e.getMessage());
+        }
+        return authors;
+    }
+
+    /**
+     * 搜索帖子
+     *
+     * 功能说明：
+     * - 在已发布帖子的标题和正文中全文检索（进程内倒排索引，不访问数据库，见 PostSearchService）
+     * - 按相关度和发布时间综合排序，越新的帖子越靠前
+     * - 返回高亮后的标题（titleHighlight）和正文片段（snippet），命中词用 em 标签包裹
+     * - 支持类型筛选和分页（最多翻到前1000条结果）
+     *
+     * @param keyword 关键词
+     * @param type 帖子类型（可选，null表示不筛选）
+     * @param page 页码（从1开始，默认1）
+     * @param pageSize 每页数量（默认10，最大50）
+     * @return 包含帖子列表、总数、页码等信息的响应
+     */
+    public ApiResponse<Map<String, Object>> searchPosts(String keyword, String type, Integer page, Integer pageSize) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return ApiResponse.error(400, "搜索关键词不能为空");
+        }
+        if (keyword.length() > 100) {
+            return ApiResponse.error(400, "搜索关键词不能超过100个字符");
+        }
+        if (page == null || page < 1) {
+            page = 1;
+        }
+        if (pageSize == null || pageSize < 1) {
+            pageSize = 10;
+        }
+        if (pageSize > 50) {
+            pageSize = 50;
+        }
+        if (!postSearchService.isReady()) {
+            return ApiResponse.error(503, "搜索索引构建中，请稍后重试");
+        }
+
+        PostSearchService.SearchResult searchResult;
+        try {
+            searchResult = postSearchService.search(keyword.trim(), type, (page - 1) * pageSize, pageSize);
+        } catch (Exception e) {
+            log.error("搜索帖子失败: keyword={}, error={}", keyword, e.getMessage());
+            return ApiResponse.error(500, "搜索失败");
         }
 
         Map<String, Object> result = new HashMap<>();
-        result.put("list", posts);
-        result.put("total", total);
+        result.put("list", searchResult.getPosts());
+        result.put("total", searchResult.getTotal());
         result.put("page", page);
         result.put("pageSize", pageSize);
 
@@ -148,11 +423,14 @@ public class PostService {
      *
      * 注意：只返回状态为PUBLISHED的帖子，其他状态的帖子返回404
      *
+     * 已发布的帖子经 PostCacheService 两级缓存，是否已点赞在取出后按当前用户填充
+     * 每次访问记录一次浏览（Redis HyperLogLog 按访客去重，不写数据库），返回浏览人数 viewCount
+     *
      * @param id 帖子ID
      * @return 帖子详情，如果不存在或未发布则返回错误
      */
     public ApiResponse<Post> getPostById(Long id) {
-        Post post = postMapper.findById(id);
+        Post post = postCacheService.getPost(id, () -> loadPost(id));
         if (post == null) {
             return ApiResponse.error(404, "帖子不存在");
         }
@@ -163,22 +441,41 @@ public class PostService {
         // 获取当前用户ID（如果未登录则为null）
         Long currentUserId = userContext.getCurrentUserId();
 
-        // 统计点赞数
-        int likeCount = reactionMapper.countByPostId(post.getId());
-        post.setLikeCount(likeCount);
-
-        // 统计评论数
-        int commentCount = commentMapper.countByPostId(post.getId());
-        post.setCommentCount(commentCount);
-
         // 查询当前用户是否已点赞（如果已登录）
         if (currentUserId != null) {
-            Reaction reaction = reactionMapper.findByUserIdAndPostId(currentUserId, post.getId(), "LIKE");
-            post.setIsLiked(reaction != null);
+            post.setIsLiked(likeService.isPostLiked(post.getId(), currentUserId));
         } else {
             post.setIsLiked(false);
         }
 
+        // 记录浏览（只写 Redis HyperLogLog），新访客计入热度
+        ViewCountService.ViewResult view = viewCountService.recordView(post.getId());
+        if (view != null) {
+            post.setViewCount(view.getCount());
+            if (view.isNewViewer()) {
+                hotRankingService.onPostViewed(post);
+            }
+        }
+
+        return ApiResponse.success(post);
+    }
+
+    /**
+     * 从数据库加载帖子详情，已发布的帖子填充点赞数、评论数和作者信息（所有用户相同的字段）
+     *
+     * @return 帖子；不存在时返回null，未发布时原样返回，由调用方判断
+     */
+    private Post loadPost(Long id) {
+        Post post = postMapper.findById(id);
+        if (post == null || !"PUBLISHED".equals(post.getStatus())) {
+            return post;
+        }
+
+        // 点赞数、评论数：计数列 + 尚未写回的增量
+        post.setLikeCount(postCounterService.getPostLikeCount(post.getId(), post.getLikeCount()));
+        post.setCommentCount(postCounterService.getPostCommentCount(post.getId(), post.getCommentCount()));
+        post.setIsLiked(false);
+
         // 填充作者信息
         if (post.getAuthorId() != null) {
             try {
@@ -200,7 +497,7 @@ public class PostService {
             }
         }
 
-        return ApiResponse.success(post);
+        return post;
     }
 
     /**
@@ -211,7 +508,7 @@ public class PostService {
      * - 自动设置作者ID、默认状态为PUBLISHED
      * - 自动设置aiFlagged为false、recommend为false
      * - 插入数据库后返回包含ID的帖子对象
-     * - 发送通知给关注该用户的粉丝
+     * - 发送通知给关注该用户的粉丝，并把帖子分发到粉丝的关注时间线（异步，见 TimelineService）
      *
      * 注意：媒体文件URL需要先通过文件上传接口获取，然后以JSON数组格式存储在mediaUrls字段
      *
@@ -239,6 +536,13 @@ public class PostService {
         }
 
         postMapper.insert(post);
+        cacheInvalidationMessageService.invalidatePost(post.getId());
+        postCacheService.invalidatePost(post.getId(), post.getType());
+        postSearchService.reindex(post.getId());
+        if ("PUBLISHED".equals(post.getStatus())) {
+            hotRankingService.onPostPublished(post);
+            timelineService.onPostPublished(post);
+        }
 
         // 异步触发 AI 分析（不阻塞主流程）
         try {
@@ -301,6 +605,10 @@ public class PostService {
 
         int deleted = postMapper.deleteByIdAndAuthorId(id, authorId);
         if (deleted > 0) {
+            cacheInvalidationMessageService.invalidatePost(id);
+            postCacheService.invalidatePost(id, post.getType());
+            postSearchService.reindex(id);
+            hotRankingService.remove(post);
             return ApiResponse.success("删除成功");
         } else {
             return ApiResponse.error(500, "删除失败");
@@ -334,6 +642,9 @@ public class PostService {
         int offset = (page - 1) * pageSize;
         List<Post> posts = postMapper.findByAuthorId(authorId, offset, pageSize);
         int total = postMapper.countByAuthorId(authorId);
+        for (Post post : posts) {
+            fillThumbnailUrls(post);
+        }
 
         Map<String, Object> result = new HashMap<>();
         result.put("list", posts);
@@ -344,6 +655,86 @@ public class PostService {
         return ApiResponse.success(result);
     }
 
+    /**
+     * 获取关注时间线（关注的用户发布的帖子）
+     *
+     * 功能说明：
+     * - 按发布顺序倒序返回当前用户关注的用户发布的已发布帖子，见 TimelineService
+     * - 游标分页：第一页不传 cursor，之后传上一页返回的 nextCursor（上一页最后一个帖子ID），nextCursor 为 null 表示没有更多
+     * - 时间线中已删除 / 下架的帖子被过滤，因此个别页可能少于 pageSize 条
+     *
+     * @param userId 当前用户ID
+     * @param cursor 游标（可选）
+     * @param pageSize 每页数量（默认10，最大50）
+     * @return 包含帖子列表和下一页游标的响应
+     */
+    public ApiResponse<Map<String, Object>> getFollowingTimeline(Long userId, String cursor, Integer pageSize) {
+        if (pageSize == null || pageSize < 1) {
+            pageSize = 10;
+        }
+        if (pageSize > 50) {
+            pageSize = 50;
+        }
+        Long beforeId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                beforeId = Long.valueOf(cursor);
+            } catch (NumberFormatException e) {
+                return ApiResponse.error(400, "无效的分页游标");
+            }
+        }
+
+        List<Long> ids = timelineService.getTimelinePostIds(userId, beforeId, pageSize + 1);
+        String nextCursor = null;
+        if (ids.size() > pageSize) {
+            ids = ids.subList(0, pageSize);
+            nextCursor = String.valueOf(ids.get(pageSize - 1));
+        }
+
+        List<Post> posts = new ArrayList<>(ids.size());
+        if (!ids.isEmpty()) {
+            Map<Long, Post> byId = new HashMap<>();
+            for (Post post : postMapper.findByIds(ids)) {
+                byId.put(post.getId(), post);
+            }
+            for (Long id : ids) {
+                Post post = byId.get(id);
+                if (post != null && "PUBLISHED".equals(post.getStatus())) {
+                    posts.add(post);
+                }
+            }
+        }
+        enrichPosts(posts);
+        fillIsLiked(posts, userId);
+        fillViewCounts(posts);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("list", posts);
+        result.put("pageSize", pageSize);
+        result.put("nextCursor", nextCursor);
+
+        return ApiResponse.success(result);
+    }
+
+    /**
+     * 根据mediaUrls推算列表页使用的缩略图URL（图片为缩略图，视频等保持原URL）
+     */
+    private void fillThumbnailUrls(Post post) {
+        if (post.getMediaUrls() == null || post.getMediaUrls().isEmpty()) {
+            return;
+        }
+        try {
+            List<?> mediaUrls = JsonUtils.fromJson(post.getMediaUrls(), List.class);
+            List<String> thumbnailUrls = new ArrayList<>(mediaUrls.size());
+            for (Object url : mediaUrls) {
+                thumbnailUrls.add(url != null ? FileUtils.thumbnailUrl(url.toString()) : null);
+            }
+            post.setThumbnailUrls(thumbnailUrls);
+        } catch (Exception e) {
+            log.warn("解析帖子媒体URL失败，postId: {}, error: {}", post.getId(), e.getMessage());
+        }
+    }
+
     /**
      * 获取AI标记的违规帖子（客服审核功能）
      *
@@ -408,6 +799,10 @@ public class PostService {
 
         // 更新状态并清除AI标记（人工审核已完成）
         postMapper.updateStatus(id, status);
+        cacheInvalidationMessageService.invalidatePost(id);
+        postCacheService.invalidatePost(id, post.getType());
+        postSearchService.reindex(id);
+        updateHotRanking(post, status);
         return ApiResponse.success("状态更新成功");
     }
 
@@ -436,6 +831,8 @@ public class PostService {
         }
 
         postMapper.updateRecommend(id, recommend);
+        cacheInvalidationMessageService.invalidatePost(id);
+        postCacheService.invalidatePost(id, post.getType());
         return ApiResponse.success(recommend ? "已推荐" : "已取消推荐");
     }
 
@@ -444,6 +841,8 @@ public class PostService {
      */
     public void updatePostAiFlagged(Long postId, Boolean aiFlagged) {
         postMapper.updateAiFlagged(postId, aiFlagged);
+        cacheInvalidationMessageService.invalidatePost(postId);
+        postCacheService.invalidatePost(postId, null);
     }
 
     /**
@@ -452,7 +851,27 @@ public class PostService {
      * 用于AI服务标记违规时，只更新status，保留ai_flagged标记
      */
     public void updatePostStatusOnly(Long postId, String status) {
+        Post post = postMapper.findById(postId);
         postMapper.updateStatusOnly(postId, status);
+        cacheInvalidationMessageService.invalidatePost(postId);
+        postCacheService.invalidatePost(postId, post != null ? post.getType() : null);
+        postSearchService.reindex(postId);
+        if (post != null) {
+            updateHotRanking(post, status);
+        }
+    }
+
+    /**
+     * 帖子状态变化后同步热度排行：恢复发布时重新加入，其他状态移出
+     */
+    private void updateHotRanking(Post post, String status) {
+        if ("PUBLISHED".equals(status)) {
+            if (!"PUBLISHED".equals(post.getStatus())) {
+                hotRankingService.onPostPublished(post);
+            }
+        } else {
+            hotRankingService.remove(post);
+        }
     }
 
     /**
@@ -460,6 +879,8 @@ public class PostService {
      */
     public void updatePostAiSummary(Long postId, String aiSummary) {
         postMapper.updateAiSummary(postId, aiSummary);
+        cacheInvalidationMessageService.invalidatePost(postId);
+        postCacheService.invalidatePost(postId, null);
     }
 }
 
@@ -1,13 +1,12 @@
 package com.adoption.community.service;
 
 import com.adoption.common.api.ApiResponse;
-import com.adoption.community.feign.AuthServiceClient;
 import com.adoption.community.model.Post;
 import com.adoption.community.model.Comment;
-import com.adoption.community.model.Reaction;
 import com.adoption.community.repository.PostMapper;
 import com.adoption.community.repository.CommentMapper;
-import com.adoption.community.repository.ReactionMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -24,28 +23,26 @@ import java.util.Map;
  * - 点赞/取消点赞评论（幂等操作）
  *
  * 实现原理：
- * - 通过查询是否存在记录来判断是否已点赞
- * - 如果已点赞则删除记录（取消点赞），否则插入记录（点赞）
- * - 返回当前点赞状态和点赞总数
- *
- * 扩展建议：可以在这里调用NotificationMessageService发送点赞通知
+ * - 点赞状态由 LikeService 保存在 Redis 集合中，一次原子操作完成切换并返回新状态和点赞数
+ * - reaction 表和点赞通知由 LikeService 异步批量写回 / 发送，请求线程不再等待数据库写入和用户名查询
+ * - 点赞数通过 PostCounterService 累加增量写回计数列，同时更新热度排行
  */
 @Service
 public class ReactionService {
-    private final ReactionMapper reactionMapper;
+    private static final Logger log = LoggerFactory.getLogger(ReactionService.class);
+
     private final PostMapper postMapper;
     private final CommentMapper commentMapper;
+    private final LikeService likeService;
     @Autowired
-    private final NotificationMessageService notificationMessageService;
+    private PostCounterService postCounterService;
     @Autowired
-    private final AuthServiceClient authServiceClient;
+    private HotRankingService hotRankingService;
 
-    public ReactionService(ReactionMapper reactionMapper, PostMapper postMapper, CommentMapper commentMapper, NotificationMessageService notificationMessageService, AuthServiceClient authServiceClient) {
-        this.reactionMapper = reactionMapper;
+    public ReactionService(PostMapper postMapper, CommentMapper commentMapper, LikeService likeService) {
         this.postMapper = postMapper;
         this.commentMapper = commentMapper;
-        this.notificationMessageService = notificationMessageService;
-        this.authServiceClient = authServiceClient;
+        this.likeService = likeService;
     }
 
     /**
@@ -53,12 +50,11 @@ public class ReactionService {
      *
      * 功能说明：
      * - 验证帖子存在且状态为PUBLISHED
-     * - 如果用户已点赞，则取消点赞（删除记录）
-     * - 如果用户未点赞，则点赞（插入记录）
+     * - 如果用户已点赞，则取消点赞，否则点赞
      * - 返回当前点赞状态和点赞总数
-     * - 发送点赞通知给帖子作者
+     * - 点赞通知由 LikeService 写回时批量发送给帖子作者
      *
-     * 幂等性：多次调用相同参数，结果一致
+     * 幂等性：切换在 Redis 中原子完成，连续点击按顺序交替生效，不会产生重复记录
      *
      * @param postId 帖子ID
      * @param userId 操作用户ID
@@ -73,57 +69,20 @@ public class ReactionService {
             return ApiResponse.error(400, "帖子已下架，无法点赞");
         }
 
-        Reaction existing = reactionMapper.findByUserIdAndPostId(userId, postId, "LIKE");
-        boolean isLiked;
-
-        if (existing != null) {
-            // 取消点赞
-            reactionMapper.deleteByUserIdAndPostId(userId, postId, "LIKE");
-            isLiked = false;
-        } else {
-            // 点赞
-            Reaction reaction = new Reaction();
-            reaction.setPostId(postId);
-            reaction.setUserId(userId);
-            reaction.setType("LIKE");
-            reactionMapper.insert(reaction);
-            isLiked = true;
-        }
-
-        int likeCount = reactionMapper.countByPostId(postId);
-
-        // 只有在点赞时才发送通知（取消点赞不发送通知）
-        if (isLiked) {
-            try {
-                // 获取点赞者用户名
-                String userName = "用户";
-                try {
-                    ApiResponse<Map<String, Object>> userResponse = authServiceClient.getUserById(userId);
-                    if (userResponse != null && userResponse.getCode() == 200 && userResponse.getData() != null) {
-                        Map<String, Object> userData = userResponse.getData();
-                        Object usernameObj = userData.get("username");
-                        if (usernameObj != null) {
-                            userName = usernameObj.toString();
-                        }
-                    }
-                } catch (Exception e) {
-                    // 如果获取用户名失败，使用默认值
-                    System.err.println("获取用户名失败: " + e.getMessage());
-                }
-
-                notificationMessageService.sendLikeNotification(
-                    post.getAuthorId(),
-                    "您的帖子收到新点赞",
-                    String.format("%s点赞了您的帖子《%s》", userName, post.getTitle())
-                );
-            } catch (Exception e) {
-                System.err.println("发送通知失败: " + e.getMessage());
-            }
+        LikeService.LikeResult like;
+        try {
+            like = likeService.togglePostLike(post, userId);
+        } catch (Exception e) {
+            log.error("点赞失败: postId={}, userId={}, error={}", postId, userId, e.getMessage());
+            return ApiResponse.error(503, "点赞服务繁忙，请稍后重试");
         }
+        int delta = like.isLiked() ? 1 : -1;
+        postCounterService.addPostLike(postId, delta);
+        hotRankingService.onPostLiked(post, delta);
 
         Map<String, Object> result = new HashMap<>();
-        result.put("isLiked", isLiked);
-        result.put("likeCount", likeCount);
+        result.put("isLiked", like.isLiked());
+        result.put("likeCount", like.getCount());
 
         return ApiResponse.success(result);
     }
@@ -133,12 +92,11 @@ public class ReactionService {
      *
      * 功能说明：
      * - 验证评论存在且状态为VISIBLE
-     * - 如果用户已点赞，则取消点赞（删除记录）
-     * - 如果用户未点赞，则点赞（插入记录）
+     * - 如果用户已点赞，则取消点赞，否则点赞
      * - 返回当前点赞状态和点赞总数
-     * - 发送点赞通知给评论作者
+     * - 点赞通知由 LikeService 写回时批量发送给评论作者
      *
-     * 幂等性：多次调用相同参数，结果一致
+     * 幂等性：切换在 Redis 中原子完成，连续点击按顺序交替生效，不会产生重复记录
      *
      * @param commentId 评论ID
      * @param userId 操作用户ID
@@ -153,59 +111,19 @@ public class ReactionService {
             return ApiResponse.error(400, "评论已删除，无法点赞");
         }
 
-        Reaction existing = reactionMapper.findByUserIdAndCommentId(userId, commentId, "LIKE");
-        boolean isLiked;
-
-        if (existing != null) {
-            // 取消点赞
-            reactionMapper.deleteByUserIdAndCommentId(userId, commentId, "LIKE");
-            isLiked = false;
-        } else {
-            // 点赞
-            Reaction reaction = new Reaction();
-            reaction.setCommentId(commentId);
-            reaction.setUserId(userId);
-            reaction.setType("LIKE");
-            reactionMapper.insert(reaction);
-            isLiked = true;
-        }
-
-        int likeCount = reactionMapper.countByCommentId(commentId);
-
-        // 只有在点赞时才发送通知（取消点赞不发送通知）
-        if (isLiked) {
-            try {
-                // 获取点赞者用户名
-                String userName = "用户";
-                try {
-                    ApiResponse<Map<String, Object>> userResponse = authServiceClient.getUserById(userId);
-                    if (userResponse != null && userResponse.getCode() == 200 && userResponse.getData() != null) {
-                        Map<String, Object> userData = userResponse.getData();
-                        Object usernameObj = userData.get("username");
-                        if (usernameObj != null) {
-                            userName = usernameObj.toString();
-                        }
-                    }
-                } catch (Exception e) {
-                    // 如果获取用户名失败，使用默认值
-                    System.err.println("获取用户名失败: " + e.getMessage());
-                }
-
-                notificationMessageService.sendLikeNotification(
-                    comment.getAuthorId(),
-                    "您的评论收到新点赞",
-                    String.format("%s点赞了您的评论：%s", userName, comment.getContent().length() > 20 ? comment.getContent().substring(0, 20) + "..." : comment.getContent())
-                );
-            } catch (Exception e) {
-                System.err.println("发送通知失败: " + e.getMessage());
-            }
+        LikeService.LikeResult like;
+        try {
+            like = likeService.toggleCommentLike(comment, userId);
+        } catch (Exception e) {
+            log.error("点赞失败: commentId={}, userId={}, error={}", commentId, userId, e.getMessage());
+            return ApiResponse.error(503, "点赞服务繁忙，请稍后重试");
         }
+        postCounterService.addCommentLike(commentId, like.isLiked() ? 1 : -1);
 
         Map<String, Object> result = new HashMap<>();
-        result.put("isLiked", isLiked);
-        result.put("likeCount", likeCount);
+        result.put("isLiked", like.isLiked());
+        result.put("likeCount", like.getCount());
 
         return ApiResponse.success(result);
     }
 }
-
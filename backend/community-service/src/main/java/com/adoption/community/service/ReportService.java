@@ -1,6 +1,7 @@
 package com.adoption.community.service;
 
 import com.adoption.common.api.ApiResponse;
+import com.adoption.common.api.PageCursor;
 import com.adoption.community.feign.AuthServiceClient;
 import com.adoption.community.model.Comment;
 import com.adoption.community.model.Post;
@@ -207,9 +208,10 @@ public class ReportService {
      * @param status 处理状态（可选，PENDING-待处理，REVIEWED-已处理，null-全部）
      * @param page 页码（从1开始，默认1）
      * @param pageSize 每页数量（默认10，最大100）
+     * @param cursor 游标（可选，传入时使用游标分页，不统计总数，第一页传空字符串，之后传上一页返回的 nextCursor）
      * @return 包含举报列表、总数、页码等信息的响应
      */
-    public ApiResponse<Map<String, Object>> getReports(String status, Integer page, Integer pageSize) {
+    public ApiResponse<Map<String, Object>> getReports(String status, Integer page, Integer pageSize, String cursor) {
         if (page == null || page < 1) {
             page = 1;
         }
@@ -220,9 +222,24 @@ public class ReportService {
             pageSize = 100;
         }
 
-        int offset = (page - 1) * pageSize;
-        List<Report> reports = reportMapper.findAll(status, offset, pageSize);
-        int total = reportMapper.countAll(status);
+        PageCursor pageCursor;
+        try {
+            pageCursor = PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(400, "无效的分页游标");
+        }
+        List<Report> reports;
+        Integer total = null;
+        String nextCursor = null;
+        if (cursor != null) {
+            reports = reportMapper.findAll(status, pageCursor != null ? pageCursor.getCreatedAt() : null,
+                    pageCursor != null ? pageCursor.getId() : null, 0, pageSize + 1);
+            nextCursor = PageCursor.next(reports, pageSize, Report::getCreatedAt, Report::getId);
+        } else {
+            int offset = (page - 1) * pageSize;
+            reports = reportMapper.findAll(status, null, null, offset, pageSize);
+            total = reportMapper.countAll(status);
+        }
 
         // 填充举报详情信息
         for (Report report : reports) {
@@ -261,8 +278,12 @@ public class ReportService {
 
         Map<String, Object> result = new HashMap<>();
         result.put("list", reports);
-        result.put("total", total);
-        result.put("page", page);
+        if (cursor != null) {
+            result.put("nextCursor", nextCursor);
+        } else {
+            result.put("total", total);
+            result.put("page", page);
+        }
         result.put("pageSize", pageSize);
 
         return ApiResponse.success(result);
@@ -0,0 +1,290 @@
+package com.adoption.community.service;
+
+import com.adoption.community.config.RabbitMQConfig;
+import com.adoption.community.model.Post;
+import com.adoption.community.repository.FollowMapper;
+import com.adoption.community.repository.PostMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 关注时间线（关注的用户发布的帖子，按发布顺序倒序）
+ *
+ * 推拉结合：
+ * - 推（写扩散）：作者粉丝数不超过 fanout-threshold 时，新帖子发布后由 RabbitMQ 消费者分批写入每个粉丝的时间线
+ *   （Redis ZSET community:timeline:{userId}，成员和分值都是帖子ID），并给粉丝发送新帖子通知
+ *   （每批粉丝一条批量通知消息，由 notification-service 批量写入收件箱）
+ * - 拉（读扩散）：粉丝数超过阈值的作者（例如 10 万粉丝）发帖时不做任何分发，粉丝读取时间线时再查询这些作者的最新帖子，
+ *   与推送来的帖子按ID合并
+ * 发帖接口只发送一条 MQ 消息，分发在后台进行，不会因为粉丝多而变慢
+ *
+ * 时间线只为活跃用户保存：每次读取刷新过期时间（ttl-days），分发时跳过不存在的时间线；
+ * 过期后再次读取时从数据库按关注关系重建。时间线最多保留 max-size 条，更早的帖子不再出现在关注时间线中
+ *
+ * 作者粉丝数跨过阈值前后的帖子分别通过推和拉到达，合并时按帖子ID去重
+ */
+@Service
+public class TimelineService {
+    private static final Logger log = LoggerFactory.getLogger(TimelineService.class);
+
+    private static final String KEY_PREFIX = "community:timeline:";
+
+    /**
+     * 占位成员，分值为 +inf（读取时按有限分值范围查询，不会读到；裁剪从低分开始，不会被裁掉），
+     * 时间线存在即表示已建立，用来区分"没有帖子"和"已过期 / 尚未建立"
+     */
+    private static final String PLACEHOLDER = "-";
+
+    /**
+     * 关注后补充到时间线的该作者最新帖子数
+     */
+    private static final int BACKFILL_SIZE = 20;
+
+    /**
+     * 分发：KEYS 为粉丝时间线；ARGV: 帖子ID, 最多保留数量
+     * 只写入已存在的时间线
+     */
+    private static final DefaultRedisScript<Long> PUSH_SCRIPT = new DefaultRedisScript<>(
+            "local pushed = 0\n" +
+            "for _, key in ipairs(KEYS) do\n" +
+            "  if redis.call('EXISTS', key) == 1 then\n" +
+            "    redis.call('ZADD', key, ARGV[1], ARGV[1])\n" +
+            "    redis.call('ZREMRANGEBYRANK', key, 0, -tonumber(ARGV[2]) - 2)\n" +
+            "    pushed = pushed + 1\n" +
+            "  end\n" +
+            "end\n" +
+            "return pushed",
+            Long.class);
+
+    /**
+     * 建立时间线：KEYS[1]: 时间线；ARGV: 过期时间（秒）, 帖子ID...
+     * 时间线已存在时（并发建立）不覆盖
+     */
+    private static final DefaultRedisScript<Long> BUILD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then\n" +
+            "  return 0\n" +
+            "end\n" +
+            "redis.call('ZADD', KEYS[1], '+inf', '" + PLACEHOLDER + "')\n" +
+            "for i = 2, #ARGV do\n" +
+            "  redis.call('ZADD', KEYS[1], ARGV[i], ARGV[i])\n" +
+            "end\n" +
+            "redis.call('EXPIRE', KEYS[1], ARGV[1])\n" +
+            "return 1",
+            Long.class);
+
+    /**
+     * 刷新过期时间：KEYS[1]: 时间线；ARGV[1]: 过期时间（秒）；返回时间线是否存在
+     */
+    private static final DefaultRedisScript<Long> TOUCH_SCRIPT = new DefaultRedisScript<>(
+            "return redis.call('EXPIRE', KEYS[1], ARGV[1])",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final FollowMapper followMapper;
+    private final PostMapper postMapper;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NotificationMessageService notificationMessageService;
+
+    @Value("${community.timeline.fanout-threshold:10000}") // 粉丝数超过该值的作者改为读取时拉取
+    private int fanoutThreshold;
+
+    @Value("${community.timeline.fanout-batch-size:1000}")
+    private int fanoutBatchSize;
+
+    @Value("${community.timeline.max-size:800}")
+    private int maxSize;
+
+    @Value("${community.timeline.ttl-days:7}")
+    private long ttlDays;
+
+    public TimelineService(StringRedisTemplate redisTemplate, FollowMapper followMapper, PostMapper postMapper) {
+        this.redisTemplate = redisTemplate;
+        this.followMapper = followMapper;
+        this.postMapper = postMapper;
+    }
+
+    /**
+     * 新帖子发布：发送分发消息后立即返回
+     */
+    public void onPostPublished(Post post) {
+        try {
+            Map<String, Object> message = new HashMap<>();
+            message.put("postId", post.getId());
+            message.put("authorId", post.getAuthorId());
+            message.put("title", post.getTitle());
+            rabbitTemplate.convertAndSend(RabbitMQConfig.COMMUNITY_EXCHANGE, RabbitMQConfig.POST_PUBLISHED_ROUTING_KEY,
+                    objectMapper.writeValueAsString(message));
+        } catch (Exception e) {
+            // 分发失败只影响粉丝的关注时间线和通知，不影响发帖
+            log.warn("发送帖子分发消息失败: postId={}, error={}", post.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 把新帖子分发给作者的粉丝（MQ 消费者调用）
+     * 粉丝数超过阈值时不分发，由粉丝读取时间线时拉取
+     */
+    public void fanOut(Long postId, Long authorId, String title) {
+        Integer followerCount = followMapper.findFollowerCount(authorId);
+        if (followerCount == null || followerCount == 0) {
+            return;
+        }
+        if (followerCount > fanoutThreshold) {
+            log.debug("作者粉丝数超过分发阈值，读取时拉取: authorId={}, followers={}", authorId, followerCount);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        long afterId = 0;
+        int followers = 0;
+        long pushed = 0;
+        List<Long> batch;
+        while (!(batch = followMapper.findFollowerIds(authorId, afterId, fanoutBatchSize)).isEmpty()) {
+            List<String> keys = new ArrayList<>(batch.size());
+            for (Long followerId : batch) {
+                keys.add(KEY_PREFIX + followerId);
+            }
+            try {
+                Long count = redisTemplate.execute(PUSH_SCRIPT, keys, postId.toString(), String.valueOf(maxSize));
+                pushed += count != null ? count : 0;
+            } catch (Exception e) {
+                // 没有写入的时间线在过期重建时会从数据库补齐
+                log.warn("写入关注时间线失败: postId={}, error={}", postId, e.getMessage());
+            }
+            notificationMessageService.sendBulkSystemNotification(batch, "关注的用户发布了新帖子",
+                    "你关注的用户发布了新帖子《" + title + "》");
+            followers += batch.size();
+            afterId = batch.get(batch.size() - 1);
+        }
+        log.info("帖子分发完成: postId={}, 粉丝 {} 人, 写入时间线 {} 个, 耗时 {}ms",
+                postId, followers, pushed, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 关注后把被关注者最近的帖子补充到粉丝的时间线（被关注者为推送模式且时间线已建立时）
+     */
+    public void onFollow(Long followerId, Long followeeId) {
+        try {
+            Integer followerCount = followMapper.findFollowerCount(followeeId);
+            if (followerCount != null && followerCount > fanoutThreshold) {
+                return;
+            }
+            List<Long> postIds = postMapper.findPublishedIdsByAuthors(
+                    Collections.singletonList(followeeId), null, BACKFILL_SIZE);
+            for (Long postId : postIds) {
+                redisTemplate.execute(PUSH_SCRIPT, Collections.singletonList(KEY_PREFIX + followerId),
+                        postId.toString(), String.valueOf(maxSize));
+            }
+        } catch (Exception e) {
+            log.warn("补充关注时间线失败: followerId={}, followeeId={}, error={}", followerId, followeeId, e.getMessage());
+        }
+    }
+
+    /**
+     * 取消关注后从粉丝的时间线移除被关注者的帖子
+     */
+    public void onUnfollow(Long followerId, Long followeeId) {
+        try {
+            List<Long> postIds = postMapper.findPublishedIdsByAuthors(
+                    Collections.singletonList(followeeId), null, maxSize);
+            if (postIds.isEmpty()) {
+                return;
+            }
+            Object[] members = new Object[postIds.size()];
+            for (int i = 0; i < postIds.size(); i++) {
+                members[i] = postIds.get(i).toString();
+            }
+            redisTemplate.opsForZSet().remove(KEY_PREFIX + followerId, members);
+        } catch (Exception e) {
+            log.warn("清理关注时间线失败: followerId={}, followeeId={}, error={}", followerId, followeeId, e.getMessage());
+        }
+    }
+
+    /**
+     * 读取关注时间线的一页帖子ID：推送到时间线的帖子与拉取模式作者的最新帖子按ID合并
+     *
+     * @param userId 用户ID
+     * @param beforeId 只返回ID小于该值的帖子（null表示从最新开始）
+     * @param limit 最多返回数量
+     * @return 帖子ID（降序，可能包含已删除的帖子，由调用方过滤）
+     */
+    public List<Long> getTimelinePostIds(Long userId, Long beforeId, int limit) {
+        TreeSet<Long> ids = new TreeSet<>(Collections.reverseOrder());
+
+        String key = KEY_PREFIX + userId;
+        try {
+            ensureTimeline(userId, key);
+            double max = beforeId != null ? beforeId - 1 : Long.MAX_VALUE;
+            Set<String> members = redisTemplate.opsForZSet().reverseRangeByScore(key, 1, max, 0, limit);
+            if (members != null) {
+                for (String member : members) {
+                    ids.add(Long.valueOf(member));
+                }
+            }
+        } catch (Exception e) {
+            // Redis 不可用时退化为全部按拉取模式从数据库查询
+            log.warn("读取关注时间线失败，改为从数据库查询: userId={}, error={}", userId, e.getMessage());
+            List<Long> pushFolloweeIds = followMapper.findPushFolloweeIds(userId, fanoutThreshold);
+            if (!pushFolloweeIds.isEmpty()) {
+                ids.addAll(postMapper.findPublishedIdsByAuthors(pushFolloweeIds, beforeId, limit));
+            }
+        }
+
+        List<Long> pullFolloweeIds = followMapper.findPullFolloweeIds(userId, fanoutThreshold);
+        if (!pullFolloweeIds.isEmpty()) {
+            ids.addAll(postMapper.findPublishedIdsByAuthors(pullFolloweeIds, beforeId, limit));
+        }
+
+        List<Long> result = new ArrayList<>(limit);
+        for (Long id : ids) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(id);
+        }
+        return result;
+    }
+
+    /**
+     * 时间线存在则刷新过期时间，否则按关注关系从数据库重建（只包含推送模式作者的帖子）
+     */
+    private void ensureTimeline(Long userId, String key) {
+        long ttlSeconds = ttlDays * 24 * 3600;
+        Long exists = redisTemplate.execute(TOUCH_SCRIPT, Collections.singletonList(key), String.valueOf(ttlSeconds));
+        if (exists != null && exists == 1) {
+            return;
+        }
+
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(ttlSeconds));
+        List<Long> pushFolloweeIds = followMapper.findPushFolloweeIds(userId, fanoutThreshold);
+        if (!pushFolloweeIds.isEmpty()) {
+            for (Long postId : postMapper.findPublishedIdsByAuthors(pushFolloweeIds, null, maxSize)) {
+                args.add(postId.toString());
+            }
+        }
+        redisTemplate.execute(BUILD_SCRIPT, Collections.singletonList(key), args.toArray());
+    }
+}
@@ -11,6 +11,8 @@ CREATE TABLE IF NOT EXISTS post (
     ai_flagged BOOLEAN DEFAULT FALSE,
     status ENUM('PUBLISHED','FLAGGED','REMOVED') DEFAULT 'PUBLISHED',
     recommend BOOLEAN DEFAULT FALSE,
+    like_count INT NOT NULL DEFAULT 0,
+    comment_count INT NOT NULL DEFAULT 0,
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
     updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     
@@ -21,9 +23,19 @@ CREATE TABLE IF NOT EXISTS post (
     INDEX idx_recommend (recommend),
     INDEX idx_ai_flagged (ai_flagged),
     INDEX idx_created_at (created_at),
+    INDEX idx_status_created (status, created_at, id),
+    INDEX idx_status_type_created (status, type, created_at, id),
+    INDEX idx_author_status_id (author_id, status, id),
     CONSTRAINT fk_post_pet FOREIGN KEY (bind_pet_id) REFERENCES pet(id) ON DELETE SET NULL
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- 如果表已存在，需要执行以下 SQL 增加计数列（计数由 PostCounterService 维护，启动后的首次校准会回填历史数据）：
+-- ALTER TABLE post ADD COLUMN like_count INT NOT NULL DEFAULT 0 AFTER recommend, ADD COLUMN comment_count INT NOT NULL DEFAULT 0 AFTER like_count;
+-- 游标分页按 (created_at, id) 定位，需要增加索引：
+-- ALTER TABLE post ADD INDEX idx_status_created (status, created_at, id), ADD INDEX idx_status_type_created (status, type, created_at, id);
+-- 关注时间线按作者取最新帖子，需要增加索引：
+-- ALTER TABLE post ADD INDEX idx_author_status_id (author_id, status, id);
+
 -- 评论表
 CREATE TABLE IF NOT EXISTS comment (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
@@ -31,15 +43,21 @@ CREATE TABLE IF NOT EXISTS comment (
     author_id BIGINT NOT NULL,
     content TEXT NOT NULL,
     status ENUM('VISIBLE','REMOVED') DEFAULT 'VISIBLE',
+    like_count INT NOT NULL DEFAULT 0,
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
     
     INDEX idx_post_id (post_id),
     INDEX idx_author_id (author_id),
     INDEX idx_status (status),
     INDEX idx_created_at (created_at),
+    INDEX idx_post_created (post_id, status, created_at, id),
     CONSTRAINT fk_comment_post FOREIGN KEY (post_id) REFERENCES post(id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- 如果表已存在，需要执行以下 SQL 增加计数列：
+-- ALTER TABLE comment ADD COLUMN like_count INT NOT NULL DEFAULT 0 AFTER status;
+-- ALTER TABLE comment ADD INDEX idx_post_created (post_id, status, created_at, id);
+
 -- 点赞表
 CREATE TABLE IF NOT EXISTS reaction (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
@@ -90,7 +108,34 @@ CREATE TABLE IF NOT EXISTS report (
     INDEX idx_reporter_id (reporter_id),
     INDEX idx_status (status),
     INDEX idx_created_at (created_at),
+    INDEX idx_status_created (status, created_at, id),
     CONSTRAINT fk_report_post FOREIGN KEY (post_id) REFERENCES post(id) ON DELETE CASCADE,
     CONSTRAINT fk_report_comment FOREIGN KEY (comment_id) REFERENCES comment(id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- 如果表已存在，需要执行以下 SQL 增加游标分页索引：
+-- ALTER TABLE report ADD INDEX idx_status_created (status, created_at, id);
+
+-- 关注关系表（follower 关注 followee）
+CREATE TABLE IF NOT EXISTS user_follow (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    follower_id BIGINT NOT NULL,
+    followee_id BIGINT NOT NULL,
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+
+    -- 防止重复关注
+    CONSTRAINT uk_user_follow UNIQUE KEY (follower_id, followee_id),
+    -- 粉丝列表和新帖子分发按 followee 分批遍历
+    INDEX idx_followee_follower (followee_id, follower_id),
+    INDEX idx_followee_created (followee_id, created_at, id),
+    INDEX idx_follower_created (follower_id, created_at, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- 关注计数表（随关注 / 取消关注在同一事务中增减，用于展示和判断新帖子的分发方式）
+CREATE TABLE IF NOT EXISTS user_follow_stat (
+    user_id BIGINT PRIMARY KEY,
+    follower_count INT NOT NULL DEFAULT 0,
+    following_count INT NOT NULL DEFAULT 0,
+
+    INDEX idx_follower_count (follower_count)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,13 @@
+package com.adoption.gateway.accesslog;
+
+/**
+ * 网关对一次请求的鉴权结论，写入访问日志
+ */
+public enum AccessDecision {
+    RATE_LIMITED,   // 超过限流策略，返回 429
+    PUBLIC,         // 无需登录，直接放行
+    ALLOWED,        // 令牌有效且权限满足，放行
+    UNAUTHORIZED,   // 未携带或格式错误的认证头
+    FORBIDDEN,      // 角色不满足路由权限
+    INVALID_TOKEN   // 令牌解析或权限校验异常
+}
@@ -0,0 +1,80 @@
+package com.adoption.gateway.accesslog;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 访问日志过滤器
+ * 在最外层记录请求开始时间，请求结束（成功、异常或取消）时汇总路由、用户、鉴权结论、状态码和耗时，
+ * 生成一条 AccessLogRecord 交给 AccessLogWriter 异步输出
+ *
+ * 用户 ID 与鉴权结论由后续过滤器（如 JwtAuthFilter）通过 {@link #markDecision} 写入 exchange 属性
+ */
+@Component
+public class AccessLogFilter implements GlobalFilter, Ordered {
+
+    private static final String USER_ID_ATTR = AccessLogFilter.class.getName() + ".userId";
+    private static final String DECISION_ATTR = AccessLogFilter.class.getName() + ".decision";
+    private static final String REASON_ATTR = AccessLogFilter.class.getName() + ".reason";
+
+    private final AccessLogWriter accessLogWriter;
+
+    public AccessLogFilter(AccessLogWriter accessLogWriter) {
+        this.accessLogWriter = accessLogWriter;
+    }
+
+    /**
+     * 记录鉴权结论
+     * @param userId 已识别的用户 ID，未登录时传 null
+     * @param reason 拒绝原因，放行时传 null
+     */
+    public static void markDecision(ServerWebExchange exchange, AccessDecision decision, String userId, String reason) {
+        exchange.getAttributes().put(DECISION_ATTR, decision);
+        if (userId != null) {
+            exchange.getAttributes().put(USER_ID_ATTR, userId);
+        }
+        if (reason != null) {
+            exchange.getAttributes().put(REASON_ATTR, reason);
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!accessLogWriter.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        long startMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> accessLogWriter.submit(buildRecord(exchange, startMillis, startNanos)));
+    }
+
+    private AccessLogRecord buildRecord(ServerWebExchange exchange, long startMillis, long startNanos) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+        AccessDecision decision = exchange.getAttribute(DECISION_ATTR);
+        return new AccessLogRecord(
+                startMillis,
+                exchange.getRequest().getMethod().name(),
+                exchange.getRequest().getURI().getPath(),
+                route != null ? route.getId() : null,
+                exchange.getAttribute(USER_ID_ATTR),
+                decision != null ? decision : AccessDecision.PUBLIC,
+                exchange.getAttribute(REASON_ATTR),
+                statusCode != null ? statusCode.value() : 200,
+                (System.nanoTime() - startNanos) / 1_000_000
+        );
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
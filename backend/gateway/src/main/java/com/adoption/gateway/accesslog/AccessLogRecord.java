@@ -0,0 +1,49 @@
+package com.adoption.gateway.accesslog;
+
+/**
+ * 访问日志记录，每个请求一条
+ * 由请求线程创建后放入环形缓冲区，序列化与输出都在后台线程完成
+ */
+public class AccessLogRecord {
+    private final long timestamp;     // 请求开始时间（毫秒时间戳）
+    private final String method;
+    private final String path;
+    private final String routeId;     // 命中的网关路由 id，未路由时为 null
+    private final String userId;      // 未登录请求为 null
+    private final AccessDecision decision;
+    private final String reason;      // 拒绝原因，放行时为 null
+    private final int status;
+    private final long latencyMs;
+
+    public AccessLogRecord(long timestamp, String method, String path, String routeId, String userId,
+                           AccessDecision decision, String reason, int status, long latencyMs) {
+        this.timestamp = timestamp;
+        this.method = method;
+        this.path = path;
+        this.routeId = routeId;
+        this.userId = userId;
+        this.decision = decision;
+        this.reason = reason;
+        this.status = status;
+        this.latencyMs = latencyMs;
+    }
+
+    /**
+     * 被拒绝或下游 5xx 的请求视为 WARN，其余为 INFO
+     */
+    public boolean isWarn() {
+        return status >= 500
+                || (decision != AccessDecision.PUBLIC && decision != AccessDecision.ALLOWED);
+    }
+
+    // Getters（供 Jackson 序列化）
+    public long getTimestamp() { return timestamp; }
+    public String getMethod() { return method; }
+    public String getPath() { return path; }
+    public String getRouteId() { return routeId; }
+    public String getUserId() { return userId; }
+    public AccessDecision getDecision() { return decision; }
+    public String getReason() { return reason; }
+    public int getStatus() { return status; }
+    public long getLatencyMs() { return latencyMs; }
+}
@@ -0,0 +1,77 @@
+package com.adoption.gateway.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 有界无锁环形缓冲区（多生产者、单消费者）
+ * 每个槽位带一个序号：生产者通过 CAS 抢占写入位置，写完后推进槽位序号发布数据；
+ * 消费者只在槽位序号表明数据已发布时读取。缓冲区满时 offer 直接返回 false，不阻塞请求线程
+ */
+class AccessLogRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+
+    // 只由唯一的消费者线程读写
+    private long head;
+
+    AccessLogRingBuffer(int requestedCapacity) {
+        int size = 1;
+        while (size < requestedCapacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.slots = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 放入一个元素，可被多个线程并发调用
+     * @return 缓冲区已满时返回 false
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = element;
+                    // 序号的 volatile 写保证消费者能看到上面写入的元素
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * 取出一个元素，只能由消费者线程调用
+     * @return 缓冲区为空时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E element = (E) slots[index];
+        slots[index] = null;
+        sequences.set(index, head + capacity);
+        head++;
+        return element;
+    }
+}
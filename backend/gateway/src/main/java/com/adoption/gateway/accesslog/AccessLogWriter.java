@@ -0,0 +1,125 @@
+package com.adoption.gateway.accesslog;
+
+import com.adoption.common.util.JsonUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步访问日志输出
+ * 请求线程只把 AccessLogRecord 放入无锁环形缓冲区，由单个后台线程序列化为 JSON 并写入
+ * 名为 ACCESS_LOG 的 logger（可在日志配置中单独指定输出文件），请求线程不会再竞争 stdout 锁
+ *
+ * 级别：
+ * - INFO：记录全部请求（可按 sample-rate 采样）
+ * - WARN：只记录被拒绝或下游 5xx 的请求
+ * - OFF：关闭访问日志
+ * 缓冲区满时直接丢弃记录并计入 gateway.access_log.dropped 指标
+ */
+@Component
+public class AccessLogWriter {
+
+    private static final Logger accessLog = LoggerFactory.getLogger("ACCESS_LOG");
+    private static final Logger log = LoggerFactory.getLogger(AccessLogWriter.class);
+
+    public enum Level {
+        OFF, WARN, INFO
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final Level level;
+    private final double sampleRate;
+    private final AccessLogRingBuffer<AccessLogRecord> buffer;
+    private final Counter droppedCounter;
+
+    private volatile boolean running;
+    private Thread drainThread;
+
+    public AccessLogWriter(@Value("${gateway.access-log.level:INFO}") Level level,
+                           @Value("${gateway.access-log.sample-rate:1.0}") double sampleRate,
+                           @Value("${gateway.access-log.buffer-size:8192}") int bufferSize,
+                           MeterRegistry meterRegistry) {
+        this.level = level;
+        this.sampleRate = sampleRate;
+        this.buffer = new AccessLogRingBuffer<>(bufferSize);
+        this.droppedCounter = Counter.builder("gateway.access_log.dropped")
+                .description("因缓冲区已满而丢弃的访问日志条数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (level == Level.OFF) {
+            return;
+        }
+        running = true;
+        drainThread = new Thread(this::drain, "gateway-access-log");
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (drainThread != null) {
+            LockSupport.unpark(drainThread);
+            drainThread.join(TimeUnit.SECONDS.toMillis(2));
+        }
+    }
+
+    public boolean isEnabled() {
+        return level != Level.OFF;
+    }
+
+    /**
+     * 提交一条访问记录，不阻塞调用线程
+     */
+    public void submit(AccessLogRecord record) {
+        if (!record.isWarn()) {
+            if (level != Level.INFO) {
+                return;
+            }
+            if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+                return;
+            }
+        } else if (level == Level.OFF) {
+            return;
+        }
+        if (!buffer.offer(record)) {
+            droppedCounter.increment();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            AccessLogRecord record = buffer.poll();
+            if (record == null) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                String line = JsonUtils.toJson(record);
+                if (record.isWarn()) {
+                    accessLog.warn(line);
+                } else {
+                    accessLog.info(line);
+                }
+            } catch (Exception e) {
+                log.warn("写入访问日志失败", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.adoption.gateway.auth;
+
+import com.adoption.common.util.JwtUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已验签 JWT 的 Claims 缓存
+ * 前端同一页面会用同一个令牌发起大量请求，验签通过后按令牌摘要缓存 Claims，
+ * 缓存条目在令牌的 exp 时刻失效（且不超过 max-ttl），之后的请求不再重复验签
+ *
+ * 指标：cache.gets{cache=gateway.jwt.claims, result=hit|miss}、cache.evictions 等，
+ * 可通过 /actuator/metrics 查看
+ */
+@Component
+public class JwtClaimsCache {
+
+    private static final String CACHE_NAME = "gateway.jwt.claims";
+
+    private final String secret;
+    private final long maxTtlNanos;
+    private final Cache<String, Claims> cache;
+
+    public JwtClaimsCache(@Value("${jwt.secret}") String secret,
+                          @Value("${jwt.cache.maximum-size:10000}") long maximumSize,
+                          @Value("${jwt.cache.max-ttl-seconds:600}") long maxTtlSeconds,
+                          MeterRegistry meterRegistry) {
+        this.secret = secret;
+        this.maxTtlNanos = TimeUnit.SECONDS.toNanos(maxTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        return ttlNanos(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * 解析并校验令牌
+     * 缓存命中时直接返回之前验签得到的 Claims；未命中时验签并写入缓存。
+     * 签名错误、已过期等异常原样抛出，且不会写入缓存
+     */
+    public Claims parse(String token) {
+        return cache.get(tokenDigest(token), key -> JwtUtils.parseToken(token, secret));
+    }
+
+    /**
+     * 查询已验签的令牌，不触发验签
+     * @return 令牌之前已由 parse 验签通过且仍在缓存中时返回 Claims，否则返回 null
+     */
+    public Claims getIfVerified(String token) {
+        return cache.getIfPresent(tokenDigest(token));
+    }
+
+    /**
+     * 缓存存活时间：令牌剩余有效期与 max-ttl 取较小值
+     */
+    private long ttlNanos(Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return maxTtlNanos;
+        }
+        long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+        if (remainingMillis <= 0) {
+            return 0;
+        }
+        return Math.min(TimeUnit.MILLISECONDS.toNanos(remainingMillis), maxTtlNanos);
+    }
+
+    /**
+     * 令牌的 SHA-256 摘要，用作缓存 key，避免在内存中长期保留令牌原文
+     */
+    public static String tokenDigest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.adoption.gateway.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+
+import java.util.Map;
+
+/**
+ * 缓存失效消息监听器
+ * pet-service、community-service 在宠物或帖子变更后发布失效消息，每个网关实例通过自己的临时队列收到后清除本地响应缓存
+ *
+ * 消息格式：{"resource": "pet", "id": 123}，id 为空时清除该资源的全部缓存
+ */
+public class CacheInvalidationListener {
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationListener.class);
+
+    private final ResponseCache responseCache;
+    private final ObjectMapper objectMapper;
+
+    public CacheInvalidationListener(ResponseCache responseCache, ObjectMapper objectMapper) {
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+    }
+
+    @RabbitListener(queues = "#{cacheInvalidationQueue.name}")
+    public void handleInvalidation(String message) {
+        try {
+            Map<String, Object> event = objectMapper.readValue(message, Map.class);
+            String resource = (String) event.get("resource");
+            Object id = event.get("id");
+            if (resource == null) {
+                log.warn("缓存失效消息缺少 resource，忽略: {}", message);
+                return;
+            }
+            responseCache.invalidate(resource, id != null ? Long.valueOf(id.toString()) : null);
+        } catch (Exception e) {
+            log.error("处理缓存失效消息失败: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.adoption.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * 缓存的响应：状态码、需要回放的响应头和完整响应体
+ */
+public class CachedResponse {
+    private final int status;
+    private final HttpHeaders headers;
+    private final byte[] body;
+    private final long ttlNanos;
+    private final String resource;    // 所属资源，如 pet、post
+    private final Long resourceId;    // 详情页对应的资源 id，列表页为 null
+
+    public CachedResponse(int status, HttpHeaders headers, byte[] body, long ttlNanos, String resource, Long resourceId) {
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+        this.ttlNanos = ttlNanos;
+        this.resource = resource;
+        this.resourceId = resourceId;
+    }
+
+    /**
+     * 是否受某资源的失效消息影响
+     * @param id 资源 id，为 null 时清除该资源的全部缓存
+     */
+    public boolean belongsTo(String resource, Long id) {
+        if (this.resource == null || !this.resource.equals(resource)) {
+            return false;
+        }
+        return id == null || resourceId == null || resourceId.equals(id);
+    }
+
+    public int getStatus() { return status; }
+    public HttpHeaders getHeaders() { return headers; }
+    public byte[] getBody() { return body; }
+    public long getTtlNanos() { return ttlNanos; }
+}
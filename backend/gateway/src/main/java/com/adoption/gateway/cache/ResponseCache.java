@@ -0,0 +1,78 @@
+package com.adoption.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 网关响应缓存存储
+ * 按响应体字节数限制总大小，每个条目按所属路由的 TTL 过期
+ *
+ * 指标：
+ * - cache.gets{cache=gateway.response, result=hit|miss}：命中率
+ * - gateway.response_cache.bytes_saved：命中时直接返回、未转发到下游的响应体字节数
+ */
+public class ResponseCache {
+    private static final Logger log = LoggerFactory.getLogger(ResponseCache.class);
+
+    private static final String CACHE_NAME = "gateway.response";
+
+    private final Cache<String, CachedResponse> cache;
+    private final Counter bytesSaved;
+
+    public ResponseCache(long maximumBytes, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((String key, CachedResponse value) -> key.length() + value.getBody().length)
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                        return value.getTtlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return value.getTtlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        this.bytesSaved = Counter.builder("gateway.response_cache.bytes_saved")
+                .description("缓存命中时省去的下游响应体字节数")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public CachedResponse get(String key) {
+        CachedResponse response = cache.getIfPresent(key);
+        if (response != null) {
+            bytesSaved.increment(response.getBody().length);
+        }
+        return response;
+    }
+
+    public void put(String key, CachedResponse response) {
+        cache.put(key, response);
+    }
+
+    /**
+     * 清除某资源的缓存
+     * @param resource 资源名，如 pet、post
+     * @param id 资源 id，为 null 时清除该资源的全部缓存；否则清除该资源的列表页和此 id 的详情页
+     */
+    public void invalidate(String resource, Long id) {
+        cache.asMap().values().removeIf(response -> response.belongsTo(resource, id));
+        log.debug("响应缓存失效: resource={}, id={}", resource, id);
+    }
+}
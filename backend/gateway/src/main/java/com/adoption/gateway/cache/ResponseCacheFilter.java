@@ -0,0 +1,258 @@
+package com.adoption.gateway.cache;
+
+import com.adoption.gateway.route.PathTemplateTrie;
+import com.adoption.gateway.route.RoutePermissionMatcher;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关响应缓存过滤器
+ * 只缓存未携带 Authorization 头的匿名 GET 请求，且路径必须同时出现在 gateway.response-cache.routes
+ * 和路由权限表的公开接口中；缓存 key 为 “路径 + 规范化后的查询参数”
+ * 命中时直接返回缓存内容，不再转发到下游；未命中时转发并在 200 响应写回客户端的同时写入缓存
+ * 开启请求合并时，未命中的相同请求同一时刻只转发一个，其余请求复用它的响应（见 ResponseCoalescer）
+ * 响应头 X-Cache 标明 HIT / MISS / COALESCED
+ * 配置了 view-key-prefix 的详情路由在 HIT / COALESCED 时由网关补记浏览人数（见 ViewRecorder）
+ */
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    // 命中时需要回放的响应头
+    private static final List<String> REPLAYED_HEADERS = Arrays.asList(
+            HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_ENCODING,
+            HttpHeaders.CONTENT_LANGUAGE,
+            HttpHeaders.ETAG,
+            HttpHeaders.LAST_MODIFIED);
+
+    private final PathTemplateTrie<ResponseCacheProperties.Route> routes = new PathTemplateTrie<>();
+    private final ResponseCache responseCache;
+    private final RoutePermissionMatcher routePermissionMatcher;
+    private final ResponseCoalescer coalescer; // 为 null 时不合并请求
+    private final ViewRecorder viewRecorder;
+    private final int maxBodyBytes;
+
+    public ResponseCacheFilter(ResponseCacheProperties properties, ResponseCache responseCache,
+                               RoutePermissionMatcher routePermissionMatcher, ResponseCoalescer coalescer,
+                               ViewRecorder viewRecorder) {
+        this.responseCache = responseCache;
+        this.routePermissionMatcher = routePermissionMatcher;
+        this.coalescer = coalescer;
+        this.viewRecorder = viewRecorder;
+        this.maxBodyBytes = properties.getMaxBodyBytes();
+        for (ResponseCacheProperties.Route route : properties.getRoutes()) {
+            routes.register(HttpMethod.GET.name(), route.getPath(), route);
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!HttpMethod.GET.equals(request.getMethod())
+                || request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+            return chain.filter(exchange);
+        }
+        String path = request.getURI().getPath();
+        ResponseCacheProperties.Route route = routes.match(HttpMethod.GET.name(), path);
+        if (route == null || !routePermissionMatcher.match(HttpMethod.GET.name(), path).isPublic()) {
+            return chain.filter(exchange);
+        }
+
+        String key = cacheKey(path, request.getQueryParams());
+        CachedResponse cached = responseCache.get(key);
+        if (cached != null) {
+            recordView(route, path, request);
+            return writeCached(exchange.getResponse(), cached, "HIT");
+        }
+        if (coalescer == null) {
+            return forward(exchange, chain, key, route, path, null);
+        }
+
+        ResponseCoalescer.Flight flight = coalescer.join(key);
+        if (flight.isLeader()) {
+            // 下游出错、请求被取消或响应不可共享时，doFinally 兜底唤醒 follower（已 publish 时无效果）
+            return forward(exchange, chain, key, route, path, flight)
+                    .doFinally(signal -> flight.abandon());
+        }
+        return flight.await()
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(shared -> {
+                    if (!shared.isPresent()) {
+                        return forward(exchange, chain, key, route, path, null);
+                    }
+                    recordView(route, path, request);
+                    return writeCached(exchange.getResponse(), shared.get(), "COALESCED");
+                });
+    }
+
+    /**
+     * 请求没有到达下游时补记浏览人数
+     */
+    private void recordView(ResponseCacheProperties.Route route, String path, ServerHttpRequest request) {
+        if (route.getViewKeyPrefix() != null) {
+            viewRecorder.record(route.getViewKeyPrefix(), resourceId(path), request);
+        }
+    }
+
+    /**
+     * 转发到下游，并在响应写回时写入缓存
+     * @param flight 当前请求作为 leader 时不为 null，拿到响应后唤醒等待中的相同请求
+     */
+    private Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain, String key,
+                               ResponseCacheProperties.Route route, String path, ResponseCoalescer.Flight flight) {
+        ServerHttpResponse decorated = new CachingResponseDecorator(exchange.getResponse(), key, route, path, flight);
+        return chain.filter(exchange.mutate().response(decorated).build());
+    }
+
+    private Mono<Void> writeCached(ServerHttpResponse response, CachedResponse cached, String cacheStatus) {
+        response.setStatusCode(HttpStatusCode.valueOf(cached.getStatus()));
+        response.getHeaders().putAll(cached.getHeaders());
+        response.getHeaders().setContentLength(cached.getBody().length);
+        response.getHeaders().set(CACHE_STATUS_HEADER, cacheStatus);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.getBody())));
+    }
+
+    /**
+     * 缓存 key：路径 + 按参数名排序后的查询参数，使 ?page=1&type=DOG 与 ?type=DOG&page=1 命中同一条缓存
+     */
+    static String cacheKey(String path, MultiValueMap<String, String> queryParams) {
+        if (queryParams.isEmpty()) {
+            return path;
+        }
+        StringBuilder key = new StringBuilder(path).append('?');
+        for (Map.Entry<String, List<String>> param : new TreeMap<>(queryParams).entrySet()) {
+            String name = URLEncoder.encode(param.getKey(), StandardCharsets.UTF_8);
+            for (String value : param.getValue()) {
+                key.append(name).append('=');
+                if (value != null) {
+                    key.append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+                }
+                key.append('&');
+            }
+        }
+        key.setLength(key.length() - 1);
+        return key.toString();
+    }
+
+    /**
+     * 取路径中的第一个数字段作为资源 id（如 /community/posts/12/comments -> 12），列表页返回 null
+     */
+    private static Long resourceId(String path) {
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty() && segment.chars().allMatch(Character::isDigit)) {
+                try {
+                    return Long.valueOf(segment);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isStorable(HttpHeaders headers) {
+        if (headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            return true;
+        }
+        return !cacheControl.contains(CacheControl.noStore().getHeaderValue())
+                && !cacheControl.contains("private");
+    }
+
+    /**
+     * 在下游响应写回客户端时顺便把 200 响应体存入缓存；作为 leader 时把响应（任意状态码）共享给等待中的相同请求
+     */
+    private class CachingResponseDecorator extends ServerHttpResponseDecorator {
+        private final String key;
+        private final ResponseCacheProperties.Route route;
+        private final String path;
+        private final ResponseCoalescer.Flight flight;
+
+        CachingResponseDecorator(ServerHttpResponse delegate, String key, ResponseCacheProperties.Route route, String path,
+                                 ResponseCoalescer.Flight flight) {
+            super(delegate);
+            this.key = key;
+            this.route = route;
+            this.path = path;
+            this.flight = flight;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            boolean cacheable = status != null && status.value() == 200;
+            boolean shareable = flight != null && status != null;
+            if (!(cacheable || shareable) || !isStorable(getHeaders())) {
+                return getDelegate().writeWith(body);
+            }
+            if (cacheable) {
+                getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+            }
+            return DataBufferUtils.join(body)
+                    .flatMap(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        if (bytes.length <= maxBodyBytes) {
+                            CachedResponse response = new CachedResponse(status.value(), replayedHeaders(getHeaders()), bytes,
+                                    TimeUnit.SECONDS.toNanos(route.getTtlSeconds()), route.getResource(), resourceId(path));
+                            // 先写缓存再唤醒 follower，之后到达的相同请求直接命中缓存
+                            if (cacheable) {
+                                responseCache.put(key, response);
+                            }
+                            if (flight != null) {
+                                flight.publish(response);
+                            }
+                        }
+                        return getDelegate().writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    })
+                    .switchIfEmpty(Mono.defer(() -> getDelegate().writeWith(Flux.empty())));
+        }
+
+        private HttpHeaders replayedHeaders(HttpHeaders source) {
+            HttpHeaders headers = new HttpHeaders();
+            for (String name : REPLAYED_HEADERS) {
+                List<String> values = source.get(name);
+                if (values != null) {
+                    headers.put(name, values);
+                }
+            }
+            return headers;
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        // 在访问日志之后、限流(-2)与 JwtAuthFilter(-1) 之前，命中缓存的请求不再经过后续过滤器
+        return -3;
+    }
+}
@@ -0,0 +1,62 @@
+package com.adoption.gateway.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 网关响应缓存配置（config-server gateway.yml 中的 gateway.response-cache）
+ */
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+    private long maximumBytes = 64L * 1024 * 1024; // 缓存响应体总大小上限
+    private int maxBodyBytes = 256 * 1024;         // 单个响应体超过该大小时不缓存
+    private boolean coalesce = true;               // 是否合并并发的相同请求
+    private long coalesceTimeoutMillis = 3000;     // 合并时等待首个请求响应的最长时间，超时后自行转发
+    private List<Route> routes = new ArrayList<>();
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public long getMaximumBytes() { return maximumBytes; }
+    public void setMaximumBytes(long maximumBytes) { this.maximumBytes = maximumBytes; }
+
+    public int getMaxBodyBytes() { return maxBodyBytes; }
+    public void setMaxBodyBytes(int maxBodyBytes) { this.maxBodyBytes = maxBodyBytes; }
+
+    public boolean isCoalesce() { return coalesce; }
+    public void setCoalesce(boolean coalesce) { this.coalesce = coalesce; }
+
+    public long getCoalesceTimeoutMillis() { return coalesceTimeoutMillis; }
+    public void setCoalesceTimeoutMillis(long coalesceTimeoutMillis) { this.coalesceTimeoutMillis = coalesceTimeoutMillis; }
+
+    public List<Route> getRoutes() { return routes; }
+    public void setRoutes(List<Route> routes) { this.routes = routes; }
+
+    /**
+     * 可缓存的路由：路径模板（写法同路由权限表）+ 所属资源 + 缓存时间
+     * resource 用于失效：收到某资源的失效消息时，清除该资源的列表页以及对应 id 的详情页
+     * viewKeyPrefix 用于详情页：缓存命中时由网关补记浏览人数（见 ViewRecorder），与下游 ViewCountService 的 key 前缀一致
+     */
+    public static class Route {
+        private String path;
+        private String resource;
+        private long ttlSeconds = 10;
+        private String viewKeyPrefix;
+
+        public String getPath() { return path; }
+        public void setPath(String path) { this.path = path; }
+
+        public String getResource() { return resource; }
+        public void setResource(String resource) { this.resource = resource; }
+
+        public long getTtlSeconds() { return ttlSeconds; }
+        public void setTtlSeconds(long ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+
+        public String getViewKeyPrefix() { return viewKeyPrefix; }
+        public void setViewKeyPrefix(String viewKeyPrefix) { this.viewKeyPrefix = viewKeyPrefix; }
+    }
+}
@@ -0,0 +1,105 @@
+package com.adoption.gateway.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 相同请求合并（single-flight）
+ * 缓存未命中时，同一缓存 key 同一时刻只放行第一个请求（leader）转发到下游，
+ * 其余并发请求（follower）等待 leader 的响应并直接复用，避免热点帖子 / 宠物列表在缓存过期瞬间把请求全部打到数据库
+ *
+ * leader 的响应不可共享（带 Set-Cookie、响应体过大等）、下游出错或等待超时时，follower 各自转发到下游
+ *
+ * 指标：
+ * - gateway.response_cache.coalesced：复用 leader 响应、未转发到下游的请求数
+ * - gateway.response_cache.in_flight：当前正在转发的 leader 请求数
+ */
+public class ResponseCoalescer {
+
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final Duration waitTimeout;
+    private final Counter coalesced;
+
+    public ResponseCoalescer(Duration waitTimeout, MeterRegistry meterRegistry) {
+        this.waitTimeout = waitTimeout;
+        this.coalesced = Counter.builder("gateway.response_cache.coalesced")
+                .description("复用并发相同请求的响应、未转发到下游的请求数")
+                .register(meterRegistry);
+        Gauge.builder("gateway.response_cache.in_flight", flights, ConcurrentHashMap::size)
+                .description("正在转发到下游、可被合并的请求数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 加入某缓存 key 的请求
+     * 当前没有进行中的相同请求时返回的 Flight 为 leader，调用方负责转发并在结束时 publish 或 abandon；
+     * 否则返回 follower，调用方通过 await 等待 leader 的响应
+     */
+    public Flight join(String key) {
+        Flight flight = new Flight(key, true);
+        Flight leader = flights.putIfAbsent(key, flight);
+        return leader == null ? flight : leader.follower();
+    }
+
+    /**
+     * 一次下游请求；leader 与其 follower 共享同一个 sink
+     */
+    public final class Flight {
+        private final String key;
+        private final boolean leader;
+        private final Sinks.One<CachedResponse> sink;
+
+        private Flight(String key, boolean leader) {
+            this(key, leader, Sinks.one());
+        }
+
+        private Flight(String key, boolean leader, Sinks.One<CachedResponse> sink) {
+            this.key = key;
+            this.leader = leader;
+            this.sink = sink;
+        }
+
+        private Flight follower() {
+            return new Flight(key, false, sink);
+        }
+
+        public boolean isLeader() {
+            return leader;
+        }
+
+        /**
+         * leader 拿到可共享的响应后调用，唤醒所有 follower
+         * 先从进行中列表移除，之后到达的请求应当命中缓存或成为新的 leader
+         */
+        public void publish(CachedResponse response) {
+            flights.remove(key, this);
+            sink.tryEmitValue(response);
+        }
+
+        /**
+         * leader 结束但没有可共享的响应（出错、被取消、响应不可缓存）时调用，follower 会各自转发到下游
+         * 已经 publish 过时不产生任何效果
+         */
+        public void abandon() {
+            flights.remove(key, this);
+            sink.tryEmitEmpty();
+        }
+
+        /**
+         * follower 等待 leader 的响应；leader 放弃或等待超时时返回空
+         */
+        public Mono<CachedResponse> await() {
+            return sink.asMono()
+                    .timeout(waitTimeout)
+                    .onErrorResume(TimeoutException.class, e -> Mono.empty())
+                    .doOnNext(response -> coalesced.increment());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.adoption.gateway.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.net.InetSocketAddress;
+
+/**
+ * 响应缓存命中时补记浏览人数
+ *
+ * 命中缓存（或复用合并请求的响应）的匿名详情请求不会到达下游，下游 ViewCountService 记录不到这次浏览；
+ * 由网关把访客写入同一个 HyperLogLog：key 为路由的 view-key-prefix + 资源 id，访客为 ip:{客户端IP}。
+ * 客户端IP取网关看到的对端地址，即下游从 X-Forwarded-For 最后一项得到的地址，同一访客在两边只计一次
+ *
+ * 写入不等待结果，不增加命中时的响应延迟；Redis 不可用时只记录日志
+ */
+public class ViewRecorder {
+    private static final Logger log = LoggerFactory.getLogger(ViewRecorder.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public ViewRecorder(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public void record(String keyPrefix, Long resourceId, ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (resourceId == null || remoteAddress == null || remoteAddress.getAddress() == null) {
+            return;
+        }
+        String key = keyPrefix + resourceId;
+        redisTemplate.opsForHyperLogLog()
+                .add(key, "ip:" + remoteAddress.getAddress().getHostAddress())
+                .subscribe(null, e -> log.warn("记录浏览失败: key={}, error={}", key, e.getMessage()));
+    }
+}
@@ -0,0 +1,24 @@
+package com.adoption.gateway.config;
+
+import com.adoption.gateway.files.LocalFileFilter;
+import com.adoption.gateway.files.LocalFileProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 网关本地文件直出配置
+ * gateway.local-files.enabled=true 时 /files/** 由网关直接从上传目录返回，否则仍转发到 auth-service
+ */
+@Configuration
+@EnableConfigurationProperties(LocalFileProperties.class)
+@ConditionalOnProperty(prefix = "gateway.local-files", name = "enabled", havingValue = "true")
+public class LocalFileConfig {
+
+    @Bean
+    public LocalFileFilter localFileFilter(LocalFileProperties properties, MeterRegistry meterRegistry) {
+        return new LocalFileFilter(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,53 @@
+package com.adoption.gateway.config;
+
+import com.adoption.common.constant.MQTopics;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * RabbitMQ 配置类
+ *
+ * 网关只消费缓存失效广播：每个网关实例声明一个独占的临时队列（实例下线后自动删除），
+ * 绑定到 cache 交换机，这样每个实例都能收到全部失效消息
+ */
+@Configuration
+public class RabbitMQConfig {
+
+    /**
+     * 缓存失效 Routing Key 模式，匹配 cache.invalidate.pet、cache.invalidate.post 等
+     */
+    public static final String CACHE_INVALIDATE_ROUTING_KEY = "cache.invalidate.*";
+
+    @Bean
+    public TopicExchange cacheExchange() {
+        return new TopicExchange(MQTopics.CACHE_EXCHANGE, true, false);
+    }
+
+    @Bean
+    public Queue cacheInvalidationQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding cacheInvalidationBinding() {
+        return BindingBuilder
+                .bind(cacheInvalidationQueue())
+                .to(cacheExchange())
+                .with(CACHE_INVALIDATE_ROUTING_KEY);
+    }
+
+    /**
+     * JSON 消息转换器（与各业务服务的发送端保持一致）
+     */
+    @Bean
+    public MessageConverter messageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+}
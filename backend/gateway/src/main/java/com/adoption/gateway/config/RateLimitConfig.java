@@ -0,0 +1,42 @@
+package com.adoption.gateway.config;
+
+import com.adoption.gateway.auth.JwtClaimsCache;
+import com.adoption.gateway.ratelimit.LocalRateLimiter;
+import com.adoption.gateway.ratelimit.RateLimitFilter;
+import com.adoption.gateway.ratelimit.RateLimitProperties;
+import com.adoption.gateway.ratelimit.RateLimiter;
+import com.adoption.gateway.ratelimit.RedisRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+/**
+ * 网关限流配置
+ * gateway.rate-limit.mode=local（默认）使用进程内令牌桶；mode=redis 时多个网关实例共享 Redis 令牌桶
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "gateway.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "gateway.rate-limit", name = "mode", havingValue = "local", matchIfMissing = true)
+    public RateLimiter localTokenBucketRateLimiter(RateLimitProperties properties) {
+        return new LocalRateLimiter(properties.getMaxKeys());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "gateway.rate-limit", name = "mode", havingValue = "redis")
+    public RateLimiter redisTokenBucketRateLimiter(ReactiveStringRedisTemplate redisTemplate) {
+        return new RedisRateLimiter(redisTemplate);
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimitProperties properties, RateLimiter rateLimiter,
+                                           JwtClaimsCache jwtClaimsCache, MeterRegistry meterRegistry) {
+        return new RateLimitFilter(properties, rateLimiter, jwtClaimsCache, meterRegistry);
+    }
+}
@@ -0,0 +1,58 @@
+package com.adoption.gateway.config;
+
+import com.adoption.gateway.cache.CacheInvalidationListener;
+import com.adoption.gateway.cache.ResponseCache;
+import com.adoption.gateway.cache.ResponseCacheFilter;
+import com.adoption.gateway.cache.ResponseCacheProperties;
+import com.adoption.gateway.cache.ResponseCoalescer;
+import com.adoption.gateway.cache.ViewRecorder;
+import com.adoption.gateway.route.RoutePermissionMatcher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * 匿名公开 GET 请求的响应缓存配置
+ */
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+@ConditionalOnProperty(prefix = "gateway.response-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheConfig {
+
+    @Bean
+    public ResponseCache responseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        return new ResponseCache(properties.getMaximumBytes(), meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "gateway.response-cache", name = "coalesce", havingValue = "true", matchIfMissing = true)
+    public ResponseCoalescer responseCoalescer(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        return new ResponseCoalescer(Duration.ofMillis(properties.getCoalesceTimeoutMillis()), meterRegistry);
+    }
+
+    @Bean
+    public ViewRecorder viewRecorder(ReactiveStringRedisTemplate redisTemplate) {
+        return new ViewRecorder(redisTemplate);
+    }
+
+    @Bean
+    public ResponseCacheFilter responseCacheFilter(ResponseCacheProperties properties, ResponseCache responseCache,
+                                                   RoutePermissionMatcher routePermissionMatcher,
+                                                   ObjectProvider<ResponseCoalescer> responseCoalescer,
+                                                   ViewRecorder viewRecorder) {
+        return new ResponseCacheFilter(properties, responseCache, routePermissionMatcher, responseCoalescer.getIfAvailable(),
+                viewRecorder);
+    }
+
+    @Bean
+    public CacheInvalidationListener cacheInvalidationListener(ResponseCache responseCache, ObjectMapper objectMapper) {
+        return new CacheInvalidationListener(responseCache, objectMapper);
+    }
+}
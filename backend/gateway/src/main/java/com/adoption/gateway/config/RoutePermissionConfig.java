@@ -0,0 +1,97 @@
+package com.adoption.gateway.config;
+
+import com.adoption.gateway.route.RoutePermission;
+import com.adoption.gateway.route.RoutePermissionMatcher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.adoption.common.constant.RoleEnum.ADMIN;
+import static com.adoption.common.constant.RoleEnum.CS;
+import static com.adoption.common.constant.RoleEnum.ORG_ADMIN;
+import static com.adoption.common.constant.RoleEnum.ORG_STAFF;
+import static com.adoption.gateway.route.RoutePermission.ANY_METHOD;
+import static com.adoption.gateway.route.RoutePermission.authenticated;
+import static com.adoption.gateway.route.RoutePermission.hasAnyRole;
+import static com.adoption.gateway.route.RoutePermission.permitAll;
+
+/**
+ * 网关路由权限表
+ * 所有 “路径 + 方法 -> 访问级别” 规则集中在此声明，启动时编译为 RoutePermissionMatcher
+ * 未列出的路径默认需要登录、不限角色
+ */
+@Configuration
+public class RoutePermissionConfig {
+
+    @Bean
+    public RoutePermissionMatcher routePermissionMatcher() {
+        return new RoutePermissionMatcher(routePermissions());
+    }
+
+    static List<RoutePermission> routePermissions() {
+        return Arrays.asList(
+                // ==== 无需登录的请求 ====
+                permitAll(ANY_METHOD, "/auth/login/**"),
+                permitAll(ANY_METHOD, "/auth/register/**"),
+                permitAll(ANY_METHOD, "/files/**"), // 文件访问无需登录
+
+                // 宠物列表和详情无需登录，但心愿单、健康记录、反馈和机构管理接口需要登录
+                permitAll(ANY_METHOD, "/pets/**"),
+                authenticated(ANY_METHOD, "/pets/wishlist/**"),
+                authenticated(ANY_METHOD, "/pets/*/wishlist/**"),
+                authenticated(ANY_METHOD, "/pets/health/**"),
+                authenticated(ANY_METHOD, "/pets/*/health/**"),
+                authenticated(ANY_METHOD, "/pets/feedbacks/**"),
+                authenticated(ANY_METHOD, "/pets/*/feedbacks/**"),
+                authenticated(ANY_METHOD, "/pets/type/*/feedbacks/**"),
+                authenticated(ANY_METHOD, "/pets/org/**"),
+
+                // 社区公开接口：允许未登录用户浏览、搜索帖子，查看评论和粉丝、关注列表（只允许 GET 请求）
+                permitAll("GET", "/community/posts"),
+                permitAll("GET", "/community/posts/search"),
+                permitAll("GET", "/community/posts/{id}"),
+                permitAll("GET", "/community/posts/{id}/comments"),
+                permitAll("GET", "/community/users/{id}/followers"),
+                permitAll("GET", "/community/users/{id}/following"),
+                permitAll("GET", "/community/users/{id}/follow-stats"),
+
+                // ==== RBAC auth模块 ====
+                hasAnyRole(ANY_METHOD, "/auth/roles/**", "访问角色分配接口", ADMIN),
+
+                // ==== RBAC org模块 ====
+                hasAnyRole("POST", "/org/apply", "申请机构入驻", ORG_ADMIN),
+                hasAnyRole("POST", "/org/{id}/approve", "审核通过机构申请", CS),
+                hasAnyRole("POST", "/org/{id}/reject", "拒绝机构申请", CS),
+                hasAnyRole("GET", "/org/{id}", "查询机构详情", ORG_ADMIN),
+                hasAnyRole("POST", "/org/{id}/members", "添加机构成员", ORG_ADMIN),
+                hasAnyRole("GET", "/org/{id}/members", "查询机构成员列表", ORG_ADMIN),
+                hasAnyRole("DELETE", "/org/{id}/members/{id}", "删除机构成员", ORG_ADMIN),
+
+                // ==== RBAC pet模块 ====
+                hasAnyRole("POST", "/pets/org", "创建宠物", ORG_ADMIN),
+                hasAnyRole("PATCH", "/pets/org/{id}", "修改宠物信息", ORG_ADMIN, ORG_STAFF),
+                hasAnyRole("POST", "/pets/org/{id}/status", "修改宠物状态", ORG_ADMIN),
+                hasAnyRole("POST", "/pets/org/{id}/cover", "上传封面图", ORG_ADMIN, ORG_STAFF),
+                hasAnyRole("POST", "/pets/{id}/health", "更新健康记录", ORG_STAFF),
+
+                // ==== RBAC interview模块 ====
+                // 用户提交面谈预约、获取可用时段只需登录（默认规则）
+                hasAnyRole("GET", "/interview/adoptions/{id}/interview", "查看预约请求", ORG_ADMIN),
+                hasAnyRole("POST", "/interview/adoptions/{id}/interview/confirm", "确认面谈", ORG_ADMIN),
+                hasAnyRole("POST", "/interview/adoptions/{id}/interview/complete", "完成面谈", ORG_ADMIN),
+                hasAnyRole("POST", "/interview/adoptions/{id}/handover/complete", "完成交接", ORG_ADMIN),
+                hasAnyRole("GET", "/interview/slots", "获取时段列表", ORG_ADMIN),
+                hasAnyRole("POST", "/interview/slots", "创建时段", ORG_ADMIN),
+                hasAnyRole("PUT", "/interview/slots/{id}", "更新时段", ORG_ADMIN),
+                hasAnyRole("DELETE", "/interview/slots/{id}", "删除时段", ORG_ADMIN),
+
+                // ==== RBAC community模块 ====
+                hasAnyRole("GET", "/community/posts/hot", "查看热度排行", ADMIN)
+
+                // ==== RBAC notification模块 ====
+                // 所有 /notification/** 路径都需要登录，但不需要特定角色（默认规则）
+        );
+    }
+}
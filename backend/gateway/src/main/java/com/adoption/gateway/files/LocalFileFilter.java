@@ -0,0 +1,197 @@
+package com.adoption.gateway.files;
+
+import com.adoption.common.util.FileUtils;
+import com.adoption.gateway.accesslog.AccessDecision;
+import com.adoption.gateway.accesslog.AccessLogFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 网关本地文件直出过滤器
+ * /files/** 的 GET/HEAD 请求直接从上传目录读取文件返回，不再经 auth-service 的 FileController 中转；
+ * Reactor Netty 下响应实现了 ZeroCopyHttpOutputMessage，文件内容通过 FileRegion（sendfile）从页缓存直接写入 socket，
+ * 不经过 JVM 堆
+ *
+ * 与 FileController 一致地支持条件请求与分段请求：
+ * - 强 ETag（见 FileUtils.etag）与 Last-Modified，If-None-Match / If-Modified-Since 命中时返回 304
+ * - 单段 Range 返回 206，同样以零拷贝方式只发送该区间；多段 Range 转发给 auth-service 生成 multipart/byteranges
+ *
+ * 文件在本地不存在（如上传目录未共享）时照常转发到 auth-service，开启本过滤器不会影响已有行为
+ *
+ * 读取文件属性是阻塞的磁盘调用（网络盘上可能很慢），在 boundedElastic 线程上执行，不占用 Netty 事件循环
+ *
+ * 指标：gateway.local_files.bytes —— 由网关直出的文件字节数
+ */
+public class LocalFileFilter implements GlobalFilter, Ordered {
+
+    private final Path root;
+    private final String prefix;
+    private final String cacheControl;
+    private final Counter bytesServed;
+
+    public LocalFileFilter(LocalFileProperties properties, MeterRegistry meterRegistry) {
+        this.root = Paths.get(properties.getRoot()).toAbsolutePath().normalize();
+        this.prefix = properties.getUrlPrefix().endsWith("/") ? properties.getUrlPrefix() : properties.getUrlPrefix() + "/";
+        this.cacheControl = properties.getCacheControl();
+        this.bytesServed = Counter.builder("gateway.local_files.bytes")
+                .description("由网关直接从本地磁盘返回的文件字节数")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpMethod method = request.getMethod();
+        String path = request.getURI().getPath();
+        if (!(HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method)) || !path.startsWith(prefix)) {
+            return chain.filter(exchange);
+        }
+
+        Path file = resolve(path.substring(prefix.length()));
+        if (file == null) {
+            return chain.filter(exchange);
+        }
+        return Mono.fromCallable(() -> readAttributes(file))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(attributes -> attributes.isPresent() && attributes.get().isRegularFile()
+                        ? serve(exchange, file, attributes.get(), chain)
+                        : chain.filter(exchange));
+    }
+
+    /**
+     * 已确认是本地普通文件：处理条件请求与 Range 后直出
+     */
+    private Mono<Void> serve(ServerWebExchange exchange, Path file, BasicFileAttributes attributes,
+                             GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpMethod method = request.getMethod();
+
+        // 文件访问无需登录（见路由权限表），此处不会再经过 JwtAuthFilter
+        AccessLogFilter.markDecision(exchange, AccessDecision.PUBLIC, null, null);
+
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = FileUtils.etag(size, lastModified);
+        List<HttpRange> ranges = requestedRanges(request, etag);
+        if (ranges.size() > 1) {
+            // 多段 Range 较少见，交给 auth-service 生成 multipart/byteranges
+            return chain.filter(exchange);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setCacheControl(cacheControl);
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // 同时写入 ETag / Last-Modified；条件命中时已设置好 304 或 412
+        if (exchange.checkNotModified(etag, Instant.ofEpochMilli(lastModified))) {
+            return response.setComplete();
+        }
+
+        long start = 0;
+        long length = size;
+        if (ranges.size() == 1) {
+            HttpRange range = ranges.get(0);
+            start = range.getRangeStart(size);
+            long end = range.getRangeEnd(size);
+            if (start >= size || start > end) {
+                response.setStatusCode(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return response.setComplete();
+            }
+            length = end - start + 1;
+            response.setStatusCode(HttpStatus.PARTIAL_CONTENT);
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        } else {
+            response.setStatusCode(HttpStatus.OK);
+        }
+        headers.setContentType(MediaType.parseMediaType(FileUtils.getContentType(file.getFileName().toString())));
+        headers.setContentLength(length);
+        if (HttpMethod.HEAD.equals(method)) {
+            return response.setComplete();
+        }
+
+        bytesServed.increment(length);
+        if (response instanceof ZeroCopyHttpOutputMessage) {
+            return ((ZeroCopyHttpOutputMessage) response).writeWith(file, start, length);
+        }
+        return response.writeWith(DataBufferUtils.takeUntilByteCount(
+                DataBufferUtils.read(new FileSystemResource(file), start, response.bufferFactory(), 64 * 1024), length));
+    }
+
+    /**
+     * 解析 Range 头；格式错误、或 If-Range 与当前 ETag 不一致（文件已变化）时忽略 Range，返回完整文件
+     */
+    private static List<HttpRange> requestedRanges(ServerHttpRequest request, String etag) {
+        HttpHeaders headers = request.getHeaders();
+        String ifRange = headers.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return Collections.emptyList();
+        }
+        try {
+            return headers.getRange();
+        } catch (IllegalArgumentException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * 把请求中的相对路径解析到上传目录下；包含 .. 等越出上传目录的路径、
+     * 以及 .tmp 临时文件和 .meta 元数据等内部文件（见 FileUtils.isPublicPath）返回 null
+     */
+    private Path resolve(String relativePath) {
+        if (!FileUtils.isPublicPath(relativePath)) {
+            return null;
+        }
+        try {
+            Path file = root.resolve(relativePath).normalize();
+            return file.startsWith(root) ? file : null;
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 文件不存在或无法读取时返回 empty（fromCallable 不能返回 null 表示"不存在"，否则会变成空 Mono 而跳过转发）
+     */
+    private static Optional<BasicFileAttributes> readAttributes(Path file) {
+        try {
+            return Optional.of(Files.readAttributes(file, BasicFileAttributes.class));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        // 在访问日志之后、响应缓存(-3)之前，直出的文件不进入响应缓存
+        return -4;
+    }
+}
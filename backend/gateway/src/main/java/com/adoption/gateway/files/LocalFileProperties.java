@@ -0,0 +1,28 @@
+package com.adoption.gateway.files;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 网关本地文件直出配置（config-server gateway.yml 中的 gateway.local-files）
+ * 只有网关与 auth-service 部署在同一节点或挂载了同一上传目录时才应开启
+ */
+@ConfigurationProperties(prefix = "gateway.local-files")
+public class LocalFileProperties {
+
+    private boolean enabled = false;
+    private String root = "./uploads";                         // 上传目录，与 file.upload.path 一致
+    private String urlPrefix = "/files";                       // 与 file.upload.url-prefix 一致
+    private String cacheControl = "public, max-age=3600";
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getRoot() { return root; }
+    public void setRoot(String root) { this.root = root; }
+
+    public String getUrlPrefix() { return urlPrefix; }
+    public void setUrlPrefix(String urlPrefix) { this.urlPrefix = urlPrefix; }
+
+    public String getCacheControl() { return cacheControl; }
+    public void setCacheControl(String cacheControl) { this.cacheControl = cacheControl; }
+}
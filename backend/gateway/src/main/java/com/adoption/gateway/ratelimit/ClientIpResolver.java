@@ -0,0 +1,127 @@
+package com.adoption.gateway.ratelimit;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按 IP 限流时的客户端IP解析
+ *
+ * 默认取直连地址；只有直连地址落在 gateway.rate-limit.trusted-proxies（IP 或 CIDR 列表）中时才读取 X-Forwarded-For：
+ * 从右往左跳过可信代理追加的项，取第一个不可信的地址。
+ * 客户端直连网关时 X-Forwarded-For 完全由客户端填写，据此计数的话每次换一个值就能绕过按 IP 限流
+ */
+public class ClientIpResolver {
+
+    private final List<Cidr> trustedProxies = new ArrayList<>();
+
+    public ClientIpResolver(List<String> trustedProxies) {
+        for (String cidr : trustedProxies) {
+            this.trustedProxies.add(Cidr.parse(cidr));
+        }
+    }
+
+    public String resolve(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        InetAddress remote = remoteAddress != null ? remoteAddress.getAddress() : null;
+        if (remote == null) {
+            return "unknown";
+        }
+        String forwardedFor = request.getHeaders().getFirst("X-Forwarded-For");
+        if (!isTrusted(remote) || forwardedFor == null || forwardedFor.isBlank()) {
+            return remote.getHostAddress();
+        }
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            InetAddress address = parseLiteral(hop);
+            if (address == null || !isTrusted(address)) {
+                // 格式不合法的项同样视为不可信，原样作为限流 key
+                return hop.isEmpty() ? remote.getHostAddress() : hop;
+            }
+        }
+        // 全部是可信代理：取最左边的一项
+        return hops[0].trim();
+    }
+
+    boolean isTrusted(InetAddress address) {
+        for (Cidr cidr : trustedProxies) {
+            if (cidr.contains(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 只解析 IP 字面量，不做 DNS 查询（X-Forwarded-For 的内容不可信）
+     */
+    static InetAddress parseLiteral(String value) {
+        if (value.isEmpty() || !(value.matches("[0-9.]+") || value.matches("[0-9a-fA-F:.]+") && value.contains(":"))) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(value);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 地址段，如 10.0.0.0/8、fd00::/8；不带前缀长度时表示单个地址
+     */
+    static final class Cidr {
+        private final byte[] network;
+        private final int prefixLength;
+
+        private Cidr(byte[] network, int prefixLength) {
+            this.network = network;
+            this.prefixLength = prefixLength;
+        }
+
+        static Cidr parse(String value) {
+            String text = value.trim();
+            int slash = text.indexOf('/');
+            InetAddress address = parseLiteral(slash >= 0 ? text.substring(0, slash) : text);
+            if (address == null) {
+                throw new IllegalArgumentException("可信代理地址格式错误: " + value);
+            }
+            int maxLength = address.getAddress().length * 8;
+            int prefixLength = maxLength;
+            if (slash >= 0) {
+                try {
+                    prefixLength = Integer.parseInt(text.substring(slash + 1));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("可信代理地址格式错误: " + value);
+                }
+                if (prefixLength < 0 || prefixLength > maxLength) {
+                    throw new IllegalArgumentException("可信代理地址格式错误: " + value);
+                }
+            }
+            return new Cidr(address.getAddress(), prefixLength);
+        }
+
+        boolean contains(InetAddress address) {
+            byte[] bytes = address.getAddress();
+            if (bytes.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (bytes[i] != network[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = (0xFF << (8 - remainingBits)) & 0xFF;
+            return (bytes[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+    }
+}
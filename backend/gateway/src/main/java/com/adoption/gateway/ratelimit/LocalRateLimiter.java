@@ -0,0 +1,51 @@
+package com.adoption.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内令牌桶限流器
+ * 采用 GCRA（通用信元速率算法）实现令牌桶：每个 key 只保存一个 “理论到达时间” (TAT)，
+ * 取令牌即把 TAT 向后推一个补充间隔，用一次 CAS 完成，不加锁
+ * 各 key 的状态存放在分段的 Caffeine 缓存中，长时间不活跃的 key 自动淘汰，总数受 max-keys 限制
+ */
+public class LocalRateLimiter implements RateLimiter {
+
+    private final Cache<String, AtomicLong> buckets;
+
+    public LocalRateLimiter(long maxKeys) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(10, TimeUnit.MINUTES)
+                .build();
+    }
+
+    @Override
+    public Mono<Duration> tryAcquire(String key, RateLimitProperties.Policy policy) {
+        long waitNanos = acquire(key, policy);
+        return Mono.just(waitNanos <= 0 ? Duration.ZERO : Duration.ofNanos(waitNanos));
+    }
+
+    private long acquire(String key, RateLimitProperties.Policy policy) {
+        long interval = policy.getIntervalNanos();
+        long burst = interval * policy.getCapacity();
+        AtomicLong tat = buckets.get(key, k -> new AtomicLong(System.nanoTime()));
+        while (true) {
+            long now = System.nanoTime();
+            long current = tat.get();
+            long next = Math.max(current, now) + interval;
+            long wait = next - now - burst;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
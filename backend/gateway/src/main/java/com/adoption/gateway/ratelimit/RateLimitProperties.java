@@ -0,0 +1,93 @@
+package com.adoption.gateway.ratelimit;
+
+import com.adoption.gateway.route.RoutePermission;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关限流配置（config-server gateway.yml 中的 gateway.rate-limit）
+ */
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    public enum Mode {
+        LOCAL,  // 单实例进程内令牌桶
+        REDIS   // 多实例共享的 Redis 令牌桶
+    }
+
+    public enum KeyType {
+        IP,     // 按客户端 IP 限流
+        USER    // 按登录令牌限流，未携带令牌时退化为按 IP
+    }
+
+    private boolean enabled = true;
+    private Mode mode = Mode.LOCAL;
+    private long maxKeys = 100000; // 本地模式最多同时跟踪的限流 key 数
+    private List<String> trustedProxies = new ArrayList<>(); // 可信代理（IP 或 CIDR），只有来自这些地址的 X-Forwarded-For 才被采信
+    private List<Policy> policies = new ArrayList<>();
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Mode getMode() { return mode; }
+    public void setMode(Mode mode) { this.mode = mode; }
+
+    public long getMaxKeys() { return maxKeys; }
+    public void setMaxKeys(long maxKeys) { this.maxKeys = maxKeys; }
+
+    public List<String> getTrustedProxies() { return trustedProxies; }
+    public void setTrustedProxies(List<String> trustedProxies) { this.trustedProxies = trustedProxies; }
+
+    public List<Policy> getPolicies() { return policies; }
+    public void setPolicies(List<Policy> policies) { this.policies = policies; }
+
+    /**
+     * 单条限流策略：路径模板 + 请求方法 -> 令牌桶参数
+     * 路径模板写法与路由权限表相同，见 RoutePermission
+     */
+    public static class Policy {
+        private String id;
+        private String method = RoutePermission.ANY_METHOD;
+        private String path;
+        private KeyType key = KeyType.IP;
+        private long capacity;          // 桶容量，即允许的突发请求数
+        private double refillPerSecond; // 每秒补充的令牌数
+
+        /**
+         * 每个令牌的补充间隔（纳秒）
+         */
+        public long getIntervalNanos() {
+            return (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+        }
+
+        void validate() {
+            if (id == null || path == null) {
+                throw new IllegalArgumentException("限流策略缺少 id 或 path: " + id);
+            }
+            if (capacity < 1 || refillPerSecond <= 0) {
+                throw new IllegalArgumentException("限流策略 " + id + " 的 capacity 必须 >= 1，refill-per-second 必须 > 0");
+            }
+        }
+
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+
+        public String getPath() { return path; }
+        public void setPath(String path) { this.path = path; }
+
+        public KeyType getKey() { return key; }
+        public void setKey(KeyType key) { this.key = key; }
+
+        public long getCapacity() { return capacity; }
+        public void setCapacity(long capacity) { this.capacity = capacity; }
+
+        public double getRefillPerSecond() { return refillPerSecond; }
+        public void setRefillPerSecond(double refillPerSecond) { this.refillPerSecond = refillPerSecond; }
+    }
+}
@@ -0,0 +1,19 @@
+package com.adoption.gateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * 令牌桶限流器
+ */
+public interface RateLimiter {
+
+    /**
+     * 从 key 对应的令牌桶中取一个令牌
+     * @param key 限流 key（已包含策略 id）
+     * @param policy 限流策略
+     * @return Duration.ZERO 表示放行；否则为需要等待的时间（用于 Retry-After）
+     */
+    Mono<Duration> tryAcquire(String key, RateLimitProperties.Policy policy);
+}
@@ -0,0 +1,61 @@
+package com.adoption.gateway.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis 令牌桶限流器，多个网关实例共享同一组令牌桶
+ * 与本地模式相同采用 GCRA，由 Lua 脚本在 Redis 端原子完成 “读取 TAT、判断、写回”，
+ * 时间取 Redis 服务器时间，避免各网关实例时钟不一致
+ * Redis 不可用时放行请求（fail-open），只记录日志
+ */
+public class RedisRateLimiter implements RateLimiter {
+    private static final Logger log = LoggerFactory.getLogger(RedisRateLimiter.class);
+
+    private static final String KEY_PREFIX = "gateway:rate:";
+
+    // ARGV[1] = 补充间隔（微秒），ARGV[2] = 桶容量 * 补充间隔（微秒）；返回需要等待的微秒数，0 表示放行
+    private static final RedisScript<Long> SCRIPT = RedisScript.of(
+            "local t = redis.call('TIME')\n" +
+            "local now = tonumber(t[1]) * 1000000 + tonumber(t[2])\n" +
+            "local interval = tonumber(ARGV[1])\n" +
+            "local burst = tonumber(ARGV[2])\n" +
+            "local tat = tonumber(redis.call('GET', KEYS[1]) or now)\n" +
+            "if tat < now then tat = now end\n" +
+            "local newTat = tat + interval\n" +
+            "local wait = newTat - now - burst\n" +
+            "if wait > 0 then return wait end\n" +
+            "redis.call('SET', KEYS[1], string.format('%.0f', newTat), 'PX', math.ceil((newTat - now) / 1000) + 1)\n" +
+            "return 0\n",
+            Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public RedisRateLimiter(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Mono<Duration> tryAcquire(String key, RateLimitProperties.Policy policy) {
+        long intervalMicros = TimeUnit.NANOSECONDS.toMicros(policy.getIntervalNanos());
+        return redisTemplate.execute(SCRIPT,
+                        Collections.singletonList(KEY_PREFIX + key),
+                        Arrays.asList(String.valueOf(intervalMicros),
+                                String.valueOf(intervalMicros * policy.getCapacity())))
+                .next()
+                .map(waitMicros -> waitMicros <= 0 ? Duration.ZERO : Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(waitMicros)))
+                .defaultIfEmpty(Duration.ZERO)
+                .onErrorResume(e -> {
+                    log.warn("Redis 限流不可用，放行请求: {}", e.getMessage());
+                    return Mono.just(Duration.ZERO);
+                });
+    }
+}
@@ -0,0 +1,159 @@
+package com.adoption.gateway.route;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 路径模板前缀树
+ * 把 “请求方法 + 路径模板” 编译为按路径段组织的前缀树，每次查找只需沿请求路径的各段走一遍，
+ * 不再逐条执行正则匹配。模板写法见 {@link RoutePermission}
+ *
+ * 匹配优先级（由高到低）：
+ * 1. 普通段 > {id} > * > **，即越具体的模板越优先
+ * 2. 同一节点上，指定方法的条目优先于 ANY_METHOD 条目
+ *
+ * 构建完成后只读，可被多个线程并发查找
+ */
+public class PathTemplateTrie<T> {
+
+    private static final String NUMERIC_SEGMENT = "{id}";
+    private static final String SINGLE_WILDCARD = "*";
+    private static final String TAIL_WILDCARD = "**";
+
+    private final Node<T> root = new Node<>();
+
+    /**
+     * 注册一个条目
+     * @param method 请求方法，RoutePermission.ANY_METHOD 表示任意方法
+     * @param pattern 路径模板
+     * @throws IllegalStateException 同一方法与模板重复注册时
+     */
+    public void register(String method, String pattern, T value) {
+        String[] segments = splitPath(pattern);
+        Node<T> node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (TAIL_WILDCARD.equals(segment)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("** 只能出现在路径模板末尾: " + pattern);
+                }
+                put(node.tailValues, method, pattern, value);
+                return;
+            }
+            node = node.child(segment);
+        }
+        put(node.values, method, pattern, value);
+    }
+
+    /**
+     * 查找请求对应的条目
+     * @param method 请求方法（如 GET、POST）
+     * @param path 请求路径（不含查询参数）
+     * @return 命中的条目，未命中时返回 null
+     */
+    public T match(String method, String path) {
+        return find(root, splitPath(path), 0, method);
+    }
+
+    private static <T> void put(Map<String, T> values, String method, String pattern, T value) {
+        T existing = values.putIfAbsent(method, value);
+        if (existing != null) {
+            throw new IllegalStateException("重复的路径模板: " + method + " " + pattern);
+        }
+    }
+
+    private static <T> T find(Node<T> node, String[] segments, int index, String method) {
+        if (index == segments.length) {
+            T value = node.lookup(node.values, method);
+            if (value != null) {
+                return value;
+            }
+        } else {
+            String segment = segments[index];
+            T value;
+
+            Node<T> literal = node.literals.get(segment);
+            if (literal != null && (value = find(literal, segments, index + 1, method)) != null) {
+                return value;
+            }
+            if (node.numeric != null && isNumeric(segment)
+                    && (value = find(node.numeric, segments, index + 1, method)) != null) {
+                return value;
+            }
+            if (node.wildcard != null && (value = find(node.wildcard, segments, index + 1, method)) != null) {
+                return value;
+            }
+        }
+        return node.lookup(node.tailValues, method);
+    }
+
+    private static boolean isNumeric(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return !segment.isEmpty();
+    }
+
+    /**
+     * 按 "/" 切分路径，忽略空段（连续斜杠、首尾斜杠）
+     */
+    private static String[] splitPath(String path) {
+        List<String> segments = new ArrayList<>(8);
+        int length = path.length();
+        int start = 0;
+        while (start < length) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                segments.add(path.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    /**
+     * 前缀树节点
+     */
+    private static final class Node<T> {
+        private final Map<String, Node<T>> literals = new HashMap<>();
+        private Node<T> numeric;
+        private Node<T> wildcard;
+
+        // 路径恰好结束于本节点时的条目（key 为请求方法）
+        private final Map<String, T> values = new HashMap<>();
+        // 本节点之后剩余任意段的条目（由 ** 注册）
+        private final Map<String, T> tailValues = new HashMap<>();
+
+        private Node<T> child(String segment) {
+            if (NUMERIC_SEGMENT.equals(segment)) {
+                if (numeric == null) {
+                    numeric = new Node<>();
+                }
+                return numeric;
+            }
+            if (SINGLE_WILDCARD.equals(segment)) {
+                if (wildcard == null) {
+                    wildcard = new Node<>();
+                }
+                return wildcard;
+            }
+            return literals.computeIfAbsent(segment, k -> new Node<>());
+        }
+
+        private T lookup(Map<String, T> candidates, String method) {
+            if (candidates.isEmpty()) {
+                return null;
+            }
+            T value = candidates.get(method);
+            return value != null ? value : candidates.get(RoutePermission.ANY_METHOD);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.adoption.gateway.route;
+
+import com.adoption.common.constant.RoleEnum;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 路由权限规则
+ * 描述 “请求方法 + 路径模板” 所需的访问级别：公开 / 仅需登录 / 需要指定角色之一
+ *
+ * 路径模板按 "/" 切分为段，支持以下写法：
+ * - 普通段：精确匹配，如 /org/apply
+ * - {id}：匹配纯数字段，如 /org/{id}/approve
+ * - *：匹配任意单个段
+ * - **：只能作为最后一段，匹配剩余的零个或多个段，如 /files/**
+ */
+public final class RoutePermission {
+
+    /**
+     * 匹配任意请求方法
+     */
+    public static final String ANY_METHOD = "*";
+
+    public enum Access {
+        PUBLIC,         // 无需登录
+        AUTHENTICATED,  // 需要登录，不限角色
+        ROLES           // 需要登录，且拥有任一指定角色
+    }
+
+    private final String method;
+    private final String pattern;
+    private final Access access;
+    private final Set<String> roles;
+    private final String description;
+
+    private RoutePermission(String method, String pattern, Access access, Set<String> roles, String description) {
+        this.method = method;
+        this.pattern = pattern;
+        this.access = access;
+        this.roles = roles;
+        this.description = description;
+    }
+
+    /**
+     * 无需登录即可访问
+     */
+    public static RoutePermission permitAll(String method, String pattern) {
+        return new RoutePermission(method, pattern, Access.PUBLIC, Collections.emptySet(), "公开接口");
+    }
+
+    /**
+     * 登录后即可访问，不限角色
+     */
+    public static RoutePermission authenticated(String method, String pattern) {
+        return new RoutePermission(method, pattern, Access.AUTHENTICATED, Collections.emptySet(), "登录用户接口");
+    }
+
+    /**
+     * 登录且拥有任一指定角色才可访问
+     * @param description 操作描述，用于拒绝时的日志
+     */
+    public static RoutePermission hasAnyRole(String method, String pattern, String description, RoleEnum... roles) {
+        if (roles == null || roles.length == 0) {
+            throw new IllegalArgumentException("至少需要指定一个角色: " + pattern);
+        }
+        Set<String> roleNames = Arrays.stream(roles)
+                .map(RoleEnum::name)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return new RoutePermission(method, pattern, Access.ROLES, Collections.unmodifiableSet(roleNames), description);
+    }
+
+    public boolean isPublic() {
+        return access == Access.PUBLIC;
+    }
+
+    /**
+     * 判断用户角色是否满足本规则（公开接口与仅需登录的接口总是满足）
+     */
+    public boolean isGranted(Collection<String> userRoles) {
+        if (access != Access.ROLES) {
+            return true;
+        }
+        if (userRoles == null) {
+            return false;
+        }
+        for (String role : userRoles) {
+            if (roles.contains(role)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getMethod() { return method; }
+    public String getPattern() { return pattern; }
+    public Access getAccess() { return access; }
+    public Set<String> getRoles() { return roles; }
+    public String getDescription() { return description; }
+
+    @Override
+    public String toString() {
+        return method + " " + pattern + " -> " + access + (roles.isEmpty() ? "" : " " + roles);
+    }
+}
@@ -0,0 +1,36 @@
+package com.adoption.gateway.route;
+
+import java.util.List;
+
+/**
+ * 路由权限匹配器
+ * 启动时把路由权限表编译为 PathTemplateTrie，每次请求只需沿路径段走一遍即可得到对应规则
+ * 没有任何规则命中时，默认要求登录、不限角色
+ */
+public class RoutePermissionMatcher {
+
+    /**
+     * 未命中任何规则时的默认规则：需要登录，不限角色
+     */
+    static final RoutePermission DEFAULT_PERMISSION =
+            RoutePermission.authenticated(RoutePermission.ANY_METHOD, "/**");
+
+    private final PathTemplateTrie<RoutePermission> trie = new PathTemplateTrie<>();
+
+    public RoutePermissionMatcher(List<RoutePermission> permissions) {
+        for (RoutePermission permission : permissions) {
+            trie.register(permission.getMethod(), permission.getPattern(), permission);
+        }
+    }
+
+    /**
+     * 查找请求对应的权限规则
+     * @param method 请求方法（如 GET、POST）
+     * @param path 请求路径（不含查询参数）
+     * @return 命中的规则，未命中时返回默认规则（需要登录）
+     */
+    public RoutePermission match(String method, String path) {
+        RoutePermission permission = trie.match(method, path);
+        return permission != null ? permission : DEFAULT_PERMISSION;
+    }
+}
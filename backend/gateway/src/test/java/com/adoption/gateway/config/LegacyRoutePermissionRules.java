@@ -0,0 +1,124 @@
+package com.adoption.gateway.config;
+
+import java.util.List;
+
+/**
+ * 改为路由权限表之前 JwtAuthFilter 中逐条执行的正则 / 前缀判断，原样保留作为对照
+ * 用于校验 RoutePermissionConfig 的规则与旧逻辑做出相同的放行 / 拒绝决定，以及基准测试中的对照组
+ */
+final class LegacyRoutePermissionRules {
+
+    private LegacyRoutePermissionRules() {
+    }
+
+    /**
+     * 旧逻辑是否放行请求
+     * @param roles 用户角色；null 表示未携带令牌（未登录）
+     */
+    static boolean isAllowed(String method, String path, List<String> roles) {
+        if (isPublic(method, path)) {
+            return true;
+        }
+        if (roles == null) {
+            return false;
+        }
+
+        // ==== RBAC auth模块 ====
+        if (path.startsWith("/auth/roles") && !roles.contains("ADMIN")) {
+            return false;
+        }
+
+        // ==== RBAC org模块 ====
+        if (path.equals("/org/apply") && method.equals("POST") && !roles.contains("ORG_ADMIN")) {
+            return false;
+        }
+        if (path.matches("^/org/\\d+/approve$") && method.equals("POST") && !roles.contains("CS")) {
+            return false;
+        }
+        if (path.matches("^/org/\\d+/reject$") && method.equals("POST") && !roles.contains("CS")) {
+            return false;
+        }
+        if (path.matches("^/org/\\d+$") && method.equals("GET") && !roles.contains("ORG_ADMIN")) {
+            return false;
+        }
+        if (path.matches("^/org/\\d+/members$") && method.equals("POST") && !roles.contains("ORG_ADMIN")) {
+            return false;
+        }
+        if (path.matches("^/org/\\d+/members/\\d+$") && method.equals("DELETE") && !roles.contains("ORG_ADMIN")) {
+            return false;
+        }
+        if (path.matches("^/org/\\d+/members$") && method.equals("GET") && !roles.contains("ORG_ADMIN")) {
+            return false;
+        }
+
+        // ==== RBAC pet模块 ====
+        if (path.equals("/pets/org") && "POST".equals(method) && !roles.contains("ORG_ADMIN")) {
+            return false;
+        }
+        if (path.matches("/pets/org/\\d+") && "PATCH".equals(method)
+                && !roles.contains("ORG_ADMIN") && !roles.contains("ORG_STAFF")) {
+            return false;
+        }
+        if (path.matches("/pets/org/\\d+/status") && "POST".equals(method) && !roles.contains("ORG_ADMIN")) {
+            return false;
+        }
+        if (path.matches("/pets/org/\\d+/cover") && "POST".equals(method)
+                && !roles.contains("ORG_ADMIN") && !roles.contains("ORG_STAFF")) {
+            return false;
+        }
+        if (path.matches("/pets/\\d+/health") && "POST".equals(method) && !roles.contains("ORG_STAFF")) {
+            return false;
+        }
+
+        // ==== RBAC interview模块 ====
+        if (path.matches("^/interview/adoptions/\\d+/interview$") && method.equals("GET")
+                && !roles.contains("ORG_ADMIN")) {
+            return false;
+        }
+        if (path.matches("^/interview/adoptions/\\d+/interview/confirm$") && method.equals("POST")
+                && !roles.contains("ORG_ADMIN")) {
+            return false;
+        }
+        if (path.matches("^/interview/adoptions/\\d+/interview/complete$") && method.equals("POST")
+                && !roles.contains("ORG_ADMIN")) {
+            return false;
+        }
+        if (path.matches("^/interview/adoptions/\\d+/handover/complete$") && method.equals("POST")
+                && !roles.contains("ORG_ADMIN")) {
+            return false;
+        }
+        if (path.equals("/interview/slots") && method.equals("GET") && !roles.contains("ORG_ADMIN")) {
+            return false;
+        }
+        if (path.equals("/interview/slots") && method.equals("POST") && !roles.contains("ORG_ADMIN")) {
+            return false;
+        }
+        if (path.matches("^/interview/slots/\\d+$") && method.equals("PUT") && !roles.contains("ORG_ADMIN")) {
+            return false;
+        }
+        if (path.matches("^/interview/slots/\\d+$") && method.equals("DELETE") && !roles.contains("ORG_ADMIN")) {
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isPublic(String method, String path) {
+        boolean isPublicPetPath = path.startsWith("/pets") &&
+            !path.contains("/wishlist") &&
+            !path.contains("/health") &&
+            !path.contains("/feedbacks") &&
+            !path.startsWith("/pets/org");
+
+        boolean isPublicCommunityPath = path.startsWith("/community") &&
+            (path.equals("/community/posts") ||
+             path.matches("^/community/posts/\\d+$") ||
+             path.matches("^/community/posts/\\d+/comments$")) &&
+            "GET".equals(method);
+
+        return path.startsWith("/auth/login") ||
+            path.startsWith("/auth/register") ||
+            path.startsWith("/files/") ||
+            isPublicPetPath ||
+            isPublicCommunityPath;
+    }
+}
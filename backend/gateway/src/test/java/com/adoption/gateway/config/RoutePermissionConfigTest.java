@@ -0,0 +1,137 @@
+package com.adoption.gateway.config;
+
+import com.adoption.gateway.route.RoutePermission;
+import com.adoption.gateway.route.RoutePermissionMatcher;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 路由权限表与改造前 JwtAuthFilter 中正则判断的对照测试
+ * 每个请求分别以未登录、各个角色的身份校验，两边的放行 / 拒绝决定必须一致
+ */
+class RoutePermissionConfigTest {
+
+    private static final List<List<String>> IDENTITIES = Arrays.asList(
+            null, // 未登录
+            Collections.singletonList("USER"),
+            Collections.singletonList("ADMIN"),
+            Collections.singletonList("CS"),
+            Collections.singletonList("ORG_ADMIN"),
+            Collections.singletonList("ORG_STAFF"),
+            Arrays.asList("ORG_ADMIN", "ORG_STAFF"));
+
+    private final RoutePermissionMatcher matcher = new RoutePermissionMatcher(RoutePermissionConfig.routePermissions());
+
+    @ParameterizedTest(name = "{0} {1}")
+    @CsvSource({
+            // 无需登录
+            "POST, /auth/login",
+            "POST, /auth/login/sms",
+            "POST, /auth/register",
+            "POST, /auth/register/code",
+            "GET, /files/2024/01/a.png",
+            "GET, /pets",
+            "GET, /pets/12",
+            "GET, /pets/12/detail",
+            "GET, /pets/search/dog",
+            "GET, /community/posts",
+            "GET, /community/posts/12",
+            "GET, /community/posts/12/comments",
+            // 社区接口只公开 GET，详情只匹配数字ID
+            "POST, /community/posts",
+            "DELETE, /community/posts/12",
+            "POST, /community/posts/12/comments",
+            "GET, /community/posts/abc",
+            "GET, /community/posts/12/likes",
+            "GET, /community/posts/my",
+            // 宠物的心愿单、健康记录、反馈和机构接口需要登录
+            "GET, /pets/wishlist",
+            "POST, /pets/12/wishlist",
+            "DELETE, /pets/12/wishlist/3",
+            "GET, /pets/health",
+            "GET, /pets/12/health",
+            "POST, /pets/12/health",
+            "GET, /pets/12/health/records",
+            "GET, /pets/feedbacks",
+            "POST, /pets/12/feedbacks",
+            "GET, /pets/type/dog/feedbacks",
+            "GET, /pets/org",
+            "POST, /pets/org",
+            "GET, /pets/org/12",
+            "PATCH, /pets/org/12",
+            "POST, /pets/org/12/status",
+            "POST, /pets/org/12/cover",
+            "GET, /pets/org/12/status",
+            // auth
+            "GET, /auth/roles",
+            "POST, /auth/roles/assign",
+            "GET, /auth/me",
+            // org
+            "POST, /org/apply",
+            "GET, /org/apply",
+            "POST, /org/12/approve",
+            "POST, /org/12/reject",
+            "GET, /org/12/approve",
+            "GET, /org/12",
+            "PUT, /org/12",
+            "GET, /org/abc",
+            "POST, /org/12/members",
+            "GET, /org/12/members",
+            "DELETE, /org/12/members/34",
+            "DELETE, /org/12/members/abc",
+            // interview
+            "POST, /interview/adoptions/12/interview/request",
+            "GET, /interview/adoptions/12/interview",
+            "POST, /interview/adoptions/12/interview/confirm",
+            "POST, /interview/adoptions/12/interview/complete",
+            "POST, /interview/adoptions/12/handover/complete",
+            "GET, /interview/adoptions/12/slots",
+            "GET, /interview/slots",
+            "POST, /interview/slots",
+            "PUT, /interview/slots/12",
+            "DELETE, /interview/slots/12",
+            "PUT, /interview/slots/abc",
+            // 未列出的路径：默认需要登录
+            "GET, /notification/me/messages",
+            "POST, /notification/org/messages/12/read",
+            "POST, /adoption/apply",
+            "GET, /",
+    })
+    void matchesLegacyDecision(String method, String path) {
+        for (List<String> roles : IDENTITIES) {
+            assertEquals(LegacyRoutePermissionRules.isAllowed(method, path, roles), isAllowed(method, path, roles),
+                    method + " " + path + " roles=" + roles);
+        }
+    }
+
+    /**
+     * 旧逻辑之后新增 / 收紧的规则
+     */
+    @ParameterizedTest(name = "{0} {1} -> {2}")
+    @CsvSource({
+            "GET, /community/posts/search, PUBLIC",
+            "GET, /community/users/12/followers, PUBLIC",
+            "GET, /community/users/12/following, PUBLIC",
+            "GET, /community/users/12/follow-stats, PUBLIC",
+            "POST, /community/follows/12, AUTHENTICATED",
+            "GET, /community/feed/following, AUTHENTICATED",
+            "GET, /community/posts/hot, ROLES",
+    })
+    void newRules(String method, String path, RoutePermission.Access access) {
+        assertEquals(access, matcher.match(method, path).getAccess(), method + " " + path);
+    }
+
+    private boolean isAllowed(String method, String path, List<String> roles) {
+        RoutePermission permission = matcher.match(method, path);
+        if (permission.isPublic()) {
+            return true;
+        }
+        return roles != null && permission.isGranted(roles);
+    }
+}
@@ -0,0 +1,77 @@
+package com.adoption.gateway.config;
+
+import com.adoption.gateway.route.RoutePermission;
+import com.adoption.gateway.route.RoutePermissionMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 路由权限判断的 JMH 基准：路由权限表（前缀树）与改造前逐条执行正则的 JwtAuthFilter 对照
+ * 请求取自常见接口，越靠后的规则旧逻辑要执行的正则越多
+ *
+ * 运行：mvn -pl gateway test-compile 后执行本类的 main 方法（测试类路径）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutePermissionMatcherBenchmark {
+
+    private static final String[][] REQUESTS = {
+            {"GET", "/pets/12"},
+            {"GET", "/community/posts/12/comments"},
+            {"POST", "/community/posts/12/like"},
+            {"GET", "/org/12/members"},
+            {"PATCH", "/pets/org/12"},
+            {"DELETE", "/interview/slots/12"},
+            {"GET", "/notification/me/messages"},
+    };
+
+    private static final List<String> ROLES = Collections.singletonList("ORG_ADMIN");
+
+    private RoutePermissionMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        matcher = new RoutePermissionMatcher(RoutePermissionConfig.routePermissions());
+    }
+
+    @Benchmark
+    public void trie(Blackhole blackhole) {
+        for (String[] request : REQUESTS) {
+            RoutePermission permission = matcher.match(request[0], request[1]);
+            blackhole.consume(permission.isPublic() || permission.isGranted(ROLES));
+        }
+    }
+
+    @Benchmark
+    public void legacyRegex(Blackhole blackhole) {
+        for (String[] request : REQUESTS) {
+            blackhole.consume(LegacyRoutePermissionRules.isAllowed(request[0], request[1], ROLES));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RoutePermissionMatcherBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,60 @@
+package com.adoption.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ClientIpResolverTest {
+
+    private static final ClientIpResolver RESOLVER = new ClientIpResolver(Arrays.asList("10.0.0.0/8", "192.168.1.5", "fd00::/8"));
+
+    private static MockServerHttpRequest request(String remote, String forwardedFor) {
+        MockServerHttpRequest.BaseBuilder<?> builder = MockServerHttpRequest.post("/auth/login")
+                .remoteAddress(new InetSocketAddress(remote, 40000));
+        if (!forwardedFor.isEmpty()) {
+            builder.header("X-Forwarded-For", forwardedFor);
+        }
+        return builder.build();
+    }
+
+    @ParameterizedTest(name = "{0} [{1}] -> {2}")
+    @CsvSource(delimiter = '|', value = {
+            // 直连：忽略客户端填写的 X-Forwarded-For
+            "203.0.113.7 |                         | 203.0.113.7",
+            "203.0.113.7 | 1.2.3.4                 | 203.0.113.7",
+            "203.0.113.7 | 1.2.3.4, 10.0.0.1       | 203.0.113.7",
+            // 经可信代理：从右往左取第一个不可信的地址
+            "10.1.2.3    | 198.51.100.9            | 198.51.100.9",
+            "10.1.2.3    | 1.2.3.4, 198.51.100.9   | 198.51.100.9",
+            "10.1.2.3    | 1.2.3.4, 198.51.100.9, 192.168.1.5 | 198.51.100.9",
+            "192.168.1.5 | 198.51.100.9            | 198.51.100.9",
+            "192.168.1.6 | 198.51.100.9            | 192.168.1.6",
+            "10.1.2.3    | 10.9.9.9, 10.8.8.8      | 10.9.9.9",
+            "10.1.2.3    | evil.example, 10.8.8.8  | evil.example",
+            "10.1.2.3    |                         | 10.1.2.3",
+            "fd00::1     | 2001:db8::1             | 2001:db8::1",
+    })
+    void resolve(String remote, String forwardedFor, String expected) {
+        assertEquals(expected, RESOLVER.resolve(request(remote, forwardedFor == null ? "" : forwardedFor)));
+    }
+
+    @Test
+    void noTrustedProxies() {
+        ClientIpResolver resolver = new ClientIpResolver(Collections.emptyList());
+        assertEquals("10.1.2.3", resolver.resolve(request("10.1.2.3", "198.51.100.9")));
+    }
+
+    @Test
+    void invalidTrustedProxy() {
+        assertThrows(IllegalArgumentException.class, () -> new ClientIpResolver(Collections.singletonList("10.0.0.0/33")));
+        assertThrows(IllegalArgumentException.class, () -> new ClientIpResolver(Collections.singletonList("proxy.internal")));
+    }
+}
@@ -0,0 +1,88 @@
+package com.adoption.gateway.route;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PathTemplateTrieTest {
+
+    private static PathTemplateTrie<String> trie() {
+        PathTemplateTrie<String> trie = new PathTemplateTrie<>();
+        trie.register("GET", "/a/new", "literal");
+        trie.register("GET", "/a/{id}", "numeric");
+        trie.register("GET", "/a/*", "single");
+        trie.register(RoutePermission.ANY_METHOD, "/a/**", "tail");
+
+        trie.register("GET", "/b/lit/y", "lit-y");
+        trie.register("GET", "/b/*/x", "any-x");
+        trie.register("GET", "/b/{id}/x", "numeric-x");
+
+        trie.register(RoutePermission.ANY_METHOD, "/c/**", "c-any");
+        trie.register("POST", "/c/d", "cd-post");
+
+        trie.register("GET", "/m", "m-get");
+        trie.register(RoutePermission.ANY_METHOD, "/m", "m-any");
+        return trie;
+    }
+
+    @ParameterizedTest(name = "{0} {1} -> {2}")
+    @CsvSource({
+            // 普通段 > {id} > * > **
+            "GET, /a/new, literal",
+            "GET, /a/12, numeric",
+            "GET, /a/abc, single",
+            "GET, /a/12a, single",
+            "POST, /a/12, tail",
+            "GET, /a/b/c, tail",
+            "GET, /a, tail",
+            // 普通段 / {id} 分支后续不匹配时回溯到 *
+            "GET, /b/lit/x, any-x",
+            "GET, /b/lit/y, lit-y",
+            "GET, /b/12/x, numeric-x",
+            "GET, /b/abc/x, any-x",
+            // 节点上没有对应方法时回退到 ** 条目
+            "POST, /c/d, cd-post",
+            "GET, /c/d, c-any",
+            "GET, /c/d/e, c-any",
+            // 指定方法优先于 ANY_METHOD
+            "GET, /m, m-get",
+            "DELETE, /m, m-any",
+            // 忽略空段
+            "GET, //a//12/, numeric",
+    })
+    void match(String method, String path, String expected) {
+        assertEquals(expected, trie().match(method, path));
+    }
+
+    @Test
+    void noMatch() {
+        PathTemplateTrie<String> trie = trie();
+        assertNull(trie.match("GET", "/b/lit"));
+        assertNull(trie.match("GET", "/b/lit/z"));
+        assertNull(trie.match("GET", "/unknown"));
+    }
+
+    @Test
+    void rejectsInvalidTemplates() {
+        PathTemplateTrie<String> trie = trie();
+        assertThrows(IllegalStateException.class, () -> trie.register("GET", "/a/new", "duplicate"));
+        assertThrows(IllegalArgumentException.class, () -> trie.register("GET", "/x/**/y", "middle"));
+    }
+
+    @Test
+    void defaultsToAuthenticated() {
+        RoutePermissionMatcher matcher = new RoutePermissionMatcher(Collections.singletonList(
+                RoutePermission.permitAll("GET", "/public")));
+        assertEquals(RoutePermission.Access.PUBLIC, matcher.match("GET", "/public").getAccess());
+        assertSame(RoutePermissionMatcher.DEFAULT_PERMISSION, matcher.match("POST", "/public"));
+        assertSame(RoutePermissionMatcher.DEFAULT_PERMISSION, matcher.match("GET", "/other/12"));
+        assertEquals(RoutePermission.Access.AUTHENTICATED, RoutePermissionMatcher.DEFAULT_PERMISSION.getAccess());
+    }
+}
@@ -11,6 +11,8 @@ import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -46,6 +48,12 @@ public class NotificationEventListener {
                 return;
             }
 
+            // 批量通知没有单个 userId
+            if ("notify.bulk".equals(eventType)) {
+                handleBulkNotification(payload);
+                return;
+            }
+
             // 获取用户ID
             Object userIdObj = payload.get("userId");
             if (userIdObj == null) {
@@ -108,6 +116,31 @@ public class NotificationEventListener {
         }
     }
 
+    /**
+     * 处理批量系统通知：同一条通知发给 userIds 中的每个用户，批量写入收件箱
+     * 只创建收件箱消息，不逐个创建通知任务
+     */
+    private void handleBulkNotification(Map<String, Object> payload) {
+        try {
+            List<?> userIdList = (List<?>) payload.get("userIds");
+            if (userIdList == null || userIdList.isEmpty()) {
+                log.warn("批量通知缺少 userIds，忽略处理");
+                return;
+            }
+            List<Long> userIds = new ArrayList<>(userIdList.size());
+            for (Object userIdObj : userIdList) {
+                userIds.add(Long.valueOf(userIdObj.toString()));
+            }
+            String title = (String) payload.getOrDefault("title", "系统通知");
+            String body = (String) payload.getOrDefault("body", "");
+            int created = notificationService.createInboxMessages(userIds, title, body);
+            log.info("批量通知已创建: {} 人, title={}", created, title);
+
+        } catch (Exception e) {
+            log.error("处理批量通知失败: {}", e.getMessage(), e);
+        }
+    }
+
     /**
      * 处理私信通知
      */
@@ -133,12 +166,30 @@ public class NotificationEventListener {
 
     /**
      * 处理点赞通知
+     * 带 groupKey 的消息（社区服务按窗口聚合后发送）合并到同一目标的未读消息，见 NotificationService.mergeLikeMessage
      */
     private void handleLikeNotification(Long userId, Map<String, Object> payload) {
         try {
             String title = (String) payload.getOrDefault("title", "点赞通知");
             String body = (String) payload.getOrDefault("body", "有人给你点赞了");
 
+            String groupKey = (String) payload.get("groupKey");
+            if (groupKey != null) {
+                List<String> actorNames = (List<String>) payload.get("actorNames");
+                List<?> actorIdList = (List<?>) payload.get("actorIds");
+                List<Long> actorIds = new ArrayList<>();
+                if (actorIdList != null) {
+                    for (Object actorId : actorIdList) {
+                        actorIds.add(Long.valueOf(actorId.toString()));
+                    }
+                }
+                Object actorCountObj = payload.get("actorCount");
+                int actorCount = actorCountObj != null ? Integer.parseInt(actorCountObj.toString()) : 1;
+                notificationService.mergeLikeMessage(userId, groupKey, title, body, actorNames, actorIds, actorCount);
+                log.info("点赞通知已合并: userId={}, groupKey={}, actorCount={}", userId, groupKey, actorCount);
+                return;
+            }
+
             notificationService.createInboxMessage(userId, title, body);
 
             log.info("点赞通知已创建: userId={}", userId);
@@ -9,6 +9,9 @@ public class InboxMessage {
     private String body; // 内容
     private Boolean isRead; // 已读标记
     private LocalDateTime createdAt; // 创建时间
+    private String groupKey; // 聚合目标（点赞通知为 post:{id} / comment:{id}）
+    private Integer groupCount; // 聚合的事件数（点赞人数）
+    private String groupActors; // 最近几个点赞者的用户名（JSON 数组）
 
     // Getters and Setters
     public Long getId() {
@@ -58,5 +61,29 @@ public class InboxMessage {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public String getGroupKey() {
+        return groupKey;
+    }
+
+    public void setGroupKey(String groupKey) {
+        this.groupKey = groupKey;
+    }
+
+    public Integer getGroupCount() {
+        return groupCount;
+    }
+
+    public void setGroupCount(Integer groupCount) {
+        this.groupCount = groupCount;
+    }
+
+    public String getGroupActors() {
+        return groupActors;
+    }
+
+    public void setGroupActors(String groupActors) {
+        this.groupActors = groupActors;
+    }
 }
 
@@ -3,6 +3,7 @@ package com.adoption.notification.repository;
 import com.adoption.notification.model.InboxMessage;
 import org.apache.ibatis.annotations.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Mapper
@@ -13,6 +14,49 @@ public interface InboxMessageMapper {
     @Options(useGeneratedKeys = true, keyProperty = "id")
     int insert(InboxMessage message);
 
+    /**
+     * 批量插入内容相同的收件箱消息（同一条通知发给多个接收者）
+     */
+    @Insert({
+        "<script>",
+        "INSERT INTO inbox_message (to_user_id, title, body, is_read, created_at) VALUES ",
+        "<foreach collection='userIds' item='userId' separator=','>",
+        "(#{userId}, #{title}, #{body}, FALSE, #{createdAt})",
+        "</foreach>",
+        "</script>"
+    })
+    int insertBatch(@Param("userIds") List<Long> userIds, @Param("title") String title,
+                    @Param("body") String body, @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * 插入聚合消息（点赞通知）
+     */
+    @Insert("INSERT INTO inbox_message (to_user_id, title, body, is_read, created_at, group_key, group_count, group_actors) " +
+            "VALUES (#{toUserId}, #{title}, #{body}, #{isRead}, #{createdAt}, #{groupKey}, #{groupCount}, #{groupActors})")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    int insertGroup(InboxMessage message);
+
+    /**
+     * 查询可以继续合并的聚合消息：同一接收者、同一目标、未读且创建于 since 之后的最新一条
+     */
+    @Select("SELECT id, to_user_id AS toUserId, title, body, is_read AS isRead, created_at AS createdAt, " +
+            "group_key AS groupKey, group_count AS groupCount, group_actors AS groupActors " +
+            "FROM inbox_message WHERE to_user_id = #{userId} AND group_key = #{groupKey} AND is_read = FALSE " +
+            "AND created_at >= #{since} ORDER BY id DESC LIMIT 1")
+    InboxMessage selectOpenGroup(@Param("userId") Long userId,
+                                 @Param("groupKey") String groupKey,
+                                 @Param("since") LocalDateTime since);
+
+    /**
+     * 合并到已有的聚合消息（乐观更新：聚合数仍为 expectedCount 且未读时才更新）
+     *
+     * @return 更新的行数（0表示已被并发合并或已读）
+     */
+    @Update("UPDATE inbox_message SET body = #{message.body}, group_count = #{message.groupCount}, " +
+            "group_actors = #{message.groupActors} " +
+            "WHERE id = #{message.id} AND group_count = #{expectedCount} AND is_read = FALSE")
+    int updateGroup(@Param("message") InboxMessage message, @Param("expectedCount") int expectedCount);
+
     @Select("SELECT id, to_user_id AS toUserId, title, body, is_read AS isRead, created_at AS createdAt " +
             "FROM inbox_message WHERE to_user_id = #{userId} ORDER BY created_at DESC")
     List<InboxMessage> selectByUserId(@Param("userId") Long userId);
@@ -6,15 +6,59 @@ import com.adoption.notification.model.NotifyTask;
 import com.adoption.notification.repository.DirectMessageMapper;
 import com.adoption.notification.repository.InboxMessageMapper;
 import com.adoption.notification.repository.NotifyTaskMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class NotificationService {
+    private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
+
+    /**
+     * 聚合消息正文中展示的点赞者数量
+     */
+    private static final int MAX_GROUP_ACTORS = 3;
+
+    /**
+     * 并发合并冲突时的重试次数
+     */
+    private static final int MERGE_RETRIES = 3;
+
+    /**
+     * 聚合消息的点赞者ID集合，后缀为消息ID；"等N人"的 N 取集合大小，同一个人跨窗口多次点赞只计一次
+     */
+    private static final String LIKE_ACTORS_PREFIX = "notification:like:actors:";
+
+    /**
+     * 记录点赞者：KEYS[1]: 点赞者集合；ARGV: 过期时间（秒）, 点赞者ID...
+     * 返回集合大小；集合原本不存在时返回负数（过期或在此功能上线前创建的聚合消息）
+     */
+    private static final DefaultRedisScript<Long> ADD_ACTORS_SCRIPT = new DefaultRedisScript<>(
+            "local existed = redis.call('EXISTS', KEYS[1])\n" +
+            "for i = 2, #ARGV do\n" +
+            "  redis.call('SADD', KEYS[1], ARGV[i])\n" +
+            "end\n" +
+            "redis.call('EXPIRE', KEYS[1], ARGV[1])\n" +
+            "local count = redis.call('SCARD', KEYS[1])\n" +
+            "if existed == 1 then\n" +
+            "  return count\n" +
+            "end\n" +
+            "return -count",
+            Long.class);
 
     @Autowired
     private NotifyTaskMapper notifyTaskMapper;
@@ -25,6 +69,15 @@ public class NotificationService {
     @Autowired
     private DirectMessageMapper directMessageMapper;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Value("${notification.like.aggregate-window-minutes:60}") // 同一目标的点赞在该时间内合并为一条消息
+    private long likeAggregateWindowMinutes;
+
     /**
      * 获取系统通知（从收件箱消息中获取，因为收件箱消息有已读标记）
      * 系统通知会同时创建 NotifyTask 和 InboxMessage，这里返回 InboxMessage 以便支持已读功能
@@ -103,6 +156,132 @@ public class NotificationService {
         return message;
     }
 
+    /**
+     * 批量创建内容相同的收件箱消息（一条多行 INSERT）
+     */
+    public int createInboxMessages(List<Long> toUserIds, String title, String body) {
+        if (toUserIds.isEmpty()) {
+            return 0;
+        }
+        return inboxMessageMapper.insertBatch(toUserIds, title, body, LocalDateTime.now());
+    }
+
+    /**
+     * 合并点赞通知：同一接收者、同一目标（帖子 / 评论）在聚合窗口内的点赞合并到一条未读收件箱消息，
+     * 正文形如"张三、李四、王五等13人点赞了您的帖子《xxx》"
+     *
+     * 消息已读或超过聚合窗口后，新的点赞开始一条新消息；并发合并用乐观更新（聚合数不变才更新）重试，
+     * 两条点赞同时开启新消息时可能各插入一条，下一次合并并入较新的一条
+     *
+     * @param toUserId 接收者
+     * @param groupKey 聚合目标（post:{id} 或 comment:{id}）
+     * @param title 标题
+     * @param action 不含点赞者的正文（如"点赞了您的帖子《xxx》"）
+     * @param actorNames 本次点赞者用户名（最新的在前）
+     * @param actorIds 本次点赞者ID；"等N人"按聚合消息内去重后的点赞者计数
+     * @param actorCount 本次点赞人数（没有点赞者ID时按此累加）
+     */
+    public InboxMessage mergeLikeMessage(Long toUserId, String groupKey, String title, String action,
+                                         List<String> actorNames, List<Long> actorIds, int actorCount) {
+        LocalDateTime since = LocalDateTime.now().minusMinutes(likeAggregateWindowMinutes);
+        for (int attempt = 0; attempt < MERGE_RETRIES; attempt++) {
+            InboxMessage message = inboxMessageMapper.selectOpenGroup(toUserId, groupKey, since);
+            if (message == null) {
+                break;
+            }
+            int expectedCount = message.getGroupCount() != null ? message.getGroupCount() : 1;
+            List<String> actors = mergeActors(actorNames, readActors(message.getGroupActors()));
+            message.setGroupCount(countActors(message.getId(), actorIds, expectedCount, actorCount));
+            message.setGroupActors(writeActors(actors));
+            message.setBody(renderLikeBody(actors, message.getGroupCount(), action));
+            if (inboxMessageMapper.updateGroup(message, expectedCount) > 0) {
+                return message;
+            }
+        }
+
+        List<String> actors = mergeActors(actorNames, new ArrayList<>());
+        InboxMessage message = new InboxMessage();
+        message.setToUserId(toUserId);
+        message.setTitle(title);
+        message.setBody(renderLikeBody(actors, actorCount, action));
+        message.setIsRead(false);
+        message.setCreatedAt(LocalDateTime.now());
+        message.setGroupKey(groupKey);
+        message.setGroupCount(actorCount);
+        message.setGroupActors(writeActors(actors));
+        inboxMessageMapper.insertGroup(message);
+        if (!actorIds.isEmpty()) {
+            countActors(message.getId(), actorIds, 0, actorCount);
+        }
+        return message;
+    }
+
+    /**
+     * 把本窗口的点赞者加入聚合消息的点赞者集合，返回合并后的人数
+     *
+     * 点赞者集合不存在（过期、或消息创建于此功能上线前）时在原人数上累加本次新增的人数；
+     * 消息里没有点赞者ID（旧版本发送方）或 Redis 不可用时退回按人数累加
+     */
+    private int countActors(Long messageId, List<Long> actorIds, int currentCount, int actorCount) {
+        if (actorIds.isEmpty()) {
+            return currentCount + actorCount;
+        }
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(Math.max(1, likeAggregateWindowMinutes) * 60));
+        for (Long actorId : actorIds) {
+            args.add(String.valueOf(actorId));
+        }
+        try {
+            Long count = redisTemplate.execute(ADD_ACTORS_SCRIPT,
+                    Collections.singletonList(LIKE_ACTORS_PREFIX + messageId), args.toArray());
+            if (count == null) {
+                return currentCount + actorCount;
+            }
+            return count > 0 ? count.intValue() : currentCount + (int) -count;
+        } catch (Exception e) {
+            log.warn("记录点赞者失败，按人数累加: messageId={}, error={}", messageId, e.getMessage());
+            return currentCount + actorCount;
+        }
+    }
+
+    /**
+     * 新的点赞者在前，去重后保留前几个
+     */
+    private List<String> mergeActors(List<String> latest, List<String> previous) {
+        Set<String> actors = new LinkedHashSet<>();
+        if (latest != null) {
+            actors.addAll(latest);
+        }
+        actors.addAll(previous);
+        List<String> result = new ArrayList<>(actors);
+        return result.size() > MAX_GROUP_ACTORS ? new ArrayList<>(result.subList(0, MAX_GROUP_ACTORS)) : result;
+    }
+
+    private String renderLikeBody(List<String> actors, int count, String action) {
+        String names = actors.isEmpty() ? "有人" : String.join("、", actors);
+        return count > actors.size() ? names + "等" + count + "人" + action : names + action;
+    }
+
+    private List<String> readActors(String json) {
+        if (json == null || json.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<List<String>>() {});
+        } catch (Exception e) {
+            log.warn("解析聚合消息点赞者失败: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private String writeActors(List<String> actors) {
+        try {
+            return objectMapper.writeValueAsString(actors);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     /**
      * 标记消息为已读
      */
@@ -21,11 +21,18 @@ CREATE TABLE IF NOT EXISTS inbox_message (
     body TEXT COMMENT '内容',
     is_read BOOLEAN NOT NULL DEFAULT FALSE COMMENT '已读标记',
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '时间',
+    group_key VARCHAR(64) COMMENT '聚合目标（点赞通知为 post:{id} / comment:{id}，其他消息为空）',
+    group_count INT NOT NULL DEFAULT 1 COMMENT '聚合的事件数（点赞人数）',
+    group_actors VARCHAR(255) COMMENT '最近几个点赞者的用户名（JSON 数组）',
     INDEX idx_to_user_id (to_user_id),
     INDEX idx_is_read (is_read),
-    INDEX idx_created_at (created_at)
+    INDEX idx_created_at (created_at),
+    INDEX idx_user_group (to_user_id, group_key, is_read)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
+-- 如果表已存在，需要执行以下 SQL 增加点赞通知聚合列：
+-- ALTER TABLE inbox_message ADD COLUMN group_key VARCHAR(64), ADD COLUMN group_count INT NOT NULL DEFAULT 1, ADD COLUMN group_actors VARCHAR(255), ADD INDEX idx_user_group (to_user_id, group_key, is_read);
+
 -- 私信表
 CREATE TABLE IF NOT EXISTS direct_message (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
@@ -35,5 +35,15 @@ public interface AuthServiceClient {
             @RequestParam("page") int page,
             @RequestParam("pageSize") int pageSize
     );
+
+    /**
+     * 获取用户列表（游标分页）
+     * 第一页传空字符串，之后传上一页返回的 nextCursor；nextCursor 为 null 表示没有更多数据
+     */
+    @GetMapping("/users")
+    ApiResponse<Map<String, Object>> getUserListByCursor(
+            @RequestParam("cursor") String cursor,
+            @RequestParam("pageSize") int pageSize
+    );
 }
 
@@ -90,13 +90,12 @@ public class NotificationMessageService {
     private List<Long> getUserIdsByRole(String role) {
         List<Long> userIds = new ArrayList<>();
         try {
-            // 分页获取用户列表，每页100条
-            int page = 1;
+            // 游标分页获取用户列表，每页100条（按上一页最后一行定位，翻到多深代价都相同）
+            String cursor = "";
             int pageSize = 100;
-            boolean hasMore = true;
 
-            while (hasMore) {
-                ApiResponse<Map<String, Object>> response = authServiceClient.getUserList(page, pageSize);
+            while (cursor != null) {
+                ApiResponse<Map<String, Object>> response = authServiceClient.getUserListByCursor(cursor, pageSize);
 
                 if (response != null && response.getCode() == 200 && response.getData() != null) {
                     Map<String, Object> data = response.getData();
@@ -119,13 +118,11 @@ public class NotificationMessageService {
                         }
                     }
 
-                    // 检查是否还有更多数据
-                    Integer total = (Integer) data.get("total");
-                    int currentCount = page * pageSize;
-                    hasMore = total != null && currentCount < total;
-                    page++;
+                    // 检查是否还有更多数据（nextCursor 为 null 表示已是最后一页）
+                    Object nextCursor = data.get("nextCursor");
+                    cursor = nextCursor != null ? nextCursor.toString() : null;
                 } else {
-                    hasMore = false;
+                    cursor = null;
                 }
             }
 
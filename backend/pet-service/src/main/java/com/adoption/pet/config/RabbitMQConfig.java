@@ -1,5 +1,8 @@
 package com.adoption.pet.config;
 
+import com.adoption.common.constant.MQTopics;
+import com.adoption.common.service.CacheInvalidationMessageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -29,6 +32,23 @@ public class RabbitMQConfig {
         return new TopicExchange(NOTIFY_EXCHANGE, true, false);
     }
 
+    /**
+     * 缓存失效交换机（与 gateway 中的一致），数据变更后在此广播失效消息
+     */
+    @Bean
+    public TopicExchange cacheExchange() {
+        return new TopicExchange(MQTopics.CACHE_EXCHANGE, true, false);
+    }
+
+    /**
+     * 缓存失效消息发布（实现在 common 中，与 MQTopics.CACHE_EXCHANGE 放在一起）
+     */
+    @Bean
+    public CacheInvalidationMessageService cacheInvalidationMessageService(RabbitTemplate rabbitTemplate,
+                                                                           ObjectMapper objectMapper) {
+        return new CacheInvalidationMessageService(rabbitTemplate, objectMapper);
+    }
+
     /**
      * JSON 消息转换器
      */
@@ -97,6 +97,7 @@ public class OrgPetController {
                 Map<String, Object> result = new HashMap<>();
                 result.put("pet", updateResult.getData());
                 result.put("coverUrl", fileInfo.getUrl()); // 返回完整URL
+                result.put("coverThumbnailUrl", fileInfo.getVariantUrls().getOrDefault("thumb", fileInfo.getUrl())); // 列表页使用的缩略图
                 result.put("relativePath", fileInfo.getRelativePath()); // 返回相对路径
                 return ApiResponse.success(result);
             }
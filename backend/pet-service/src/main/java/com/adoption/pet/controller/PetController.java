@@ -23,6 +23,7 @@ public class PetController {
     /**
      * 获取宠物列表（分页+筛选）
      * GET /pets?page=1&pageSize=10&type=DOG&status=AVAILABLE
+     * GET /pets?cursor=&pageSize=10（游标分页，第一页传空游标，之后传上一页返回的 nextCursor）
      */
     @GetMapping
     public ApiResponse<Map<String, Object>> getPetList(
@@ -30,8 +31,9 @@ public class PetController {
             @RequestParam(value = "status", required = false) String status,
             @RequestParam(value = "orgId", required = false) Long orgId,
             @RequestParam(value = "page", defaultValue = "1") int page,
-            @RequestParam(value = "pageSize", defaultValue = "10") int pageSize) {
-        return petService.getPetList(type, status, orgId, page, pageSize);
+            @RequestParam(value = "pageSize", defaultValue = "10") int pageSize,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return petService.getPetList(type, status, orgId, page, pageSize, cursor);
     }
 
     /**
@@ -16,6 +16,8 @@ public class Pet {
     private String createdAt;
     private String updatedAt;
     private String orgName; // 机构名称（通过远程调用获取，不存储在数据库中）
+    private String coverThumbnailUrl; // 封面缩略图（由 coverUrl 推算，不存储在数据库中）
+    private Long viewCount; // 浏览人数，按访客去重的近似值（见 ViewCountService，不存储在数据库中）
 
     // Getters and Setters
     public Long getId() {
@@ -137,5 +139,21 @@ public class Pet {
     public void setOrgName(String orgName) {
         this.orgName = orgName;
     }
+
+    public String getCoverThumbnailUrl() {
+        return coverThumbnailUrl;
+    }
+
+    public void setCoverThumbnailUrl(String coverThumbnailUrl) {
+        this.coverThumbnailUrl = coverThumbnailUrl;
+    }
+
+    public Long getViewCount() {
+        return viewCount;
+    }
+
+    public void setViewCount(Long viewCount) {
+        this.viewCount = viewCount;
+    }
 }
 
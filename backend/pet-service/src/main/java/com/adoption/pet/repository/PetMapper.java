@@ -21,13 +21,16 @@ public interface PetMapper {
         "<if test='type != null'> AND type = #{type} </if>",
         "<if test='status != null'> AND status = #{status} </if>",
         "<if test='orgId != null'> AND org_id = #{orgId} </if>",
-        "ORDER BY created_at DESC",
+        "<if test='cursorId != null'> AND (created_at &lt; #{cursorTime} OR (created_at = #{cursorTime} AND id &lt; #{cursorId})) </if>",
+        "ORDER BY created_at DESC, id DESC",
         "LIMIT #{limit} OFFSET #{offset}",
         "</script>"
     })
     List<Pet> findAll(@Param("type") String type,
                       @Param("status") String status,
                       @Param("orgId") Long orgId,
+                      @Param("cursorTime") String cursorTime,
+                      @Param("cursorId") Long cursorId,
                       @Param("offset") int offset,
                       @Param("limit") int limit);
 
@@ -1,6 +1,10 @@
 package com.adoption.pet.service;
 
 import com.adoption.common.api.ApiResponse;
+import com.adoption.common.api.PageCursor;
+import com.adoption.common.service.CacheInvalidationMessageService;
+import com.adoption.common.service.ViewCountService;
+import com.adoption.common.util.FileUtils;
 import com.adoption.pet.feign.OrgServiceClient;
 import com.adoption.pet.model.Pet;
 import com.adoption.pet.repository.PetMapper;
@@ -8,6 +12,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -20,19 +25,42 @@ public class PetService {
 
     private final PetMapper petMapper;
     private final OrgServiceClient orgServiceClient;
+    private final CacheInvalidationMessageService cacheInvalidationMessageService;
+    private final ViewCountService viewCountService;
 
-    public PetService(PetMapper petMapper, OrgServiceClient orgServiceClient) {
+    public PetService(PetMapper petMapper, OrgServiceClient orgServiceClient,
+                      CacheInvalidationMessageService cacheInvalidationMessageService,
+                      ViewCountService viewCountService) {
         this.petMapper = petMapper;
         this.orgServiceClient = orgServiceClient;
+        this.cacheInvalidationMessageService = cacheInvalidationMessageService;
+        this.viewCountService = viewCountService;
     }
 
     /**
      * 获取宠物列表（分页+筛选）
+     * cursor 不为 null 时使用游标分页（见 PageCursor）：按上一页最后一行定位，不统计总数，返回 nextCursor
      */
-    public ApiResponse<Map<String, Object>> getPetList(String type, String status, Long orgId, int page, int pageSize) {
-        int offset = (page - 1) * pageSize;
-        List<Pet> pets = petMapper.findAll(type, status, orgId, offset, pageSize);
-        int total = petMapper.countAll(type, status, orgId);
+    public ApiResponse<Map<String, Object>> getPetList(String type, String status, Long orgId, int page, int pageSize,
+                                                       String cursor) {
+        PageCursor pageCursor;
+        try {
+            pageCursor = PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(400, "无效的分页游标");
+        }
+        List<Pet> pets;
+        Integer total = null;
+        String nextCursor = null;
+        if (cursor != null) {
+            pets = petMapper.findAll(type, status, orgId, pageCursor != null ? pageCursor.getCreatedAt() : null,
+                    pageCursor != null ? pageCursor.getId() : null, 0, pageSize + 1);
+            nextCursor = PageCursor.next(pets, pageSize, Pet::getCreatedAt, Pet::getId);
+        } else {
+            int offset = (page - 1) * pageSize;
+            pets = petMapper.findAll(type, status, orgId, null, null, offset, pageSize);
+            total = petMapper.countAll(type, status, orgId);
+        }
 
         // 填充机构名称
         if (pets != null && !pets.isEmpty()) {
@@ -61,18 +89,31 @@ public class PetService {
                 }
             }
 
-            // 填充机构名称到宠物对象
+            // 浏览人数一次 Redis 调用批量查询，可作为排序参考
+            List<Long> petIds = new ArrayList<>(pets.size());
+            for (Pet pet : pets) {
+                petIds.add(pet.getId());
+            }
+            Map<Long, Long> viewCounts = viewCountService.getViewCounts(petIds);
+
+            // 填充机构名称到宠物对象，列表页使用封面缩略图
             for (Pet pet : pets) {
                 if (pet.getOrgId() != null && orgNameMap.containsKey(pet.getOrgId())) {
                     pet.setOrgName(orgNameMap.get(pet.getOrgId()));
                 }
+                pet.setCoverThumbnailUrl(FileUtils.thumbnailUrl(pet.getCoverUrl()));
+                pet.setViewCount(viewCounts.get(pet.getId()));
             }
         }
 
         Map<String, Object> result = new HashMap<>();
         result.put("list", pets);
-        result.put("total", total);
-        result.put("page", page);
+        if (cursor != null) {
+            result.put("nextCursor", nextCursor);
+        } else {
+            result.put("total", total);
+            result.put("page", page);
+        }
         result.put("pageSize", pageSize);
 
         return ApiResponse.success(result);
@@ -80,6 +121,7 @@ public class PetService {
 
     /**
      * 获取宠物详情
+     * 每次访问记录一次浏览（Redis HyperLogLog 按访客去重，不写数据库），返回浏览人数 viewCount
      */
     public ApiResponse<Pet> getPetById(Long id) {
         Pet pet = petMapper.findById(id);
@@ -104,6 +146,11 @@ public class PetService {
             }
         }
 
+        ViewCountService.ViewResult view = viewCountService.recordView(pet.getId());
+        if (view != null) {
+            pet.setViewCount(view.getCount());
+        }
+
         return ApiResponse.success(pet);
     }
 
@@ -115,6 +162,7 @@ public class PetService {
             pet.setStatus("AVAILABLE");
         }
         petMapper.insert(pet);
+        cacheInvalidationMessageService.invalidatePet(pet.getId());
         return ApiResponse.success(pet);
     }
 
@@ -129,6 +177,7 @@ public class PetService {
 
         pet.setId(id);
         petMapper.update(pet);
+        cacheInvalidationMessageService.invalidatePet(id);
 
         Pet updated = petMapper.findById(id);
         return ApiResponse.success(updated);
@@ -144,6 +193,7 @@ public class PetService {
         }
 
         petMapper.updateStatus(id, status);
+        cacheInvalidationMessageService.invalidatePet(id);
         return ApiResponse.success("状态更新成功");
     }
 
@@ -160,6 +210,7 @@ public class PetService {
         pet.setId(id);
         pet.setCoverUrl(coverUrl);
         petMapper.update(pet);
+        cacheInvalidationMessageService.invalidatePet(id);
 
         Pet updated = petMapper.findById(id);
         return ApiResponse.success(updated);
@@ -16,9 +16,14 @@ CREATE TABLE IF NOT EXISTS pet (
     updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     INDEX idx_org_id (org_id),
     INDEX idx_status (status),
-    INDEX idx_type (type)
+    INDEX idx_type (type),
+    INDEX idx_created (created_at, id),
+    INDEX idx_status_created (status, created_at, id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
+-- 如果表已存在，需要执行以下 SQL 增加游标分页索引（按 (created_at, id) 定位）：
+-- ALTER TABLE pet ADD INDEX idx_created (created_at, id), ADD INDEX idx_status_created (status, created_at, id);
+
 -- 宠物健康记录表
 CREATE TABLE IF NOT EXISTS pet_health (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,